@@ -7,15 +7,16 @@ import org.genc.sneakoapp.AdminService.dto.AnalyticsDTO;
 import org.genc.sneakoapp.AdminService.dto.OrderDTO;
 import org.genc.sneakoapp.AdminService.dto.ProductDTO;
 import org.genc.sneakoapp.AdminService.dto.UserDetailsDTO;
+import org.genc.sneakoapp.AdminService.dto.UserPageDTO;
 import org.genc.sneakoapp.AdminService.service.api.AdminService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/analytics-service/admin")
@@ -67,11 +68,23 @@ public class AdminController {
     }
 
     @GetMapping("/users")
-    public ResponseEntity<List<UserDetailsDTO>> getAllUsers() {
-        List<UserDetailsDTO> users = adminService.getAllUsers();
+    public ResponseEntity<UserPageDTO> getUsers(@RequestParam(required = false) Long afterId,
+                                                @RequestParam(required = false) Integer size,
+                                                @RequestParam(required = false) String usernamePrefix,
+                                                @RequestParam(required = false) String emailPrefix) {
+        UserPageDTO users = adminService.getUsers(afterId, size, usernamePrefix, emailPrefix);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping(value = "/users/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) String usernamePrefix,
+                                                             @RequestParam(required = false) String emailPrefix) {
+        StreamingResponseBody body = out -> adminService.exportUsers(usernamePrefix, emailPrefix, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/users/{id}")
     public ResponseEntity<UserDetailsDTO> findUserById(@PathVariable Long id) {
         UserDetailsDTO user = adminService.findUserById(id);
@@ -1,10 +1,14 @@
 package org.genc.sneakoapp.AdminService.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserDetailsDTO {
     private Long id;
     private String username;
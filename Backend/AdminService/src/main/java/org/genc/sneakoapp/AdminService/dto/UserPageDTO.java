@@ -0,0 +1,19 @@
+package org.genc.sneakoapp.AdminService.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of users from user-service. {@code nextAfterId} is the cursor for the next page,
+ * or null on the last one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserDetailsDTO> content;
+    private Long nextAfterId;
+}
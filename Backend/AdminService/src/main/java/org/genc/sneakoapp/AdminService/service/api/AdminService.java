@@ -3,10 +3,11 @@ package org.genc.sneakoapp.AdminService.service.api;
 import org.genc.sneakoapp.AdminService.dto.OrderDTO;
 import org.genc.sneakoapp.AdminService.dto.ProductDTO;
 import org.genc.sneakoapp.AdminService.dto.UserDetailsDTO;
+import org.genc.sneakoapp.AdminService.dto.UserPageDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import java.util.List;
+import java.io.OutputStream;
 
 public interface AdminService {
     public ProductDTO findById(Long id);
@@ -16,7 +17,8 @@ public interface AdminService {
     public void  deleteProduct(Long id);
     public Long totalProduct();
     public Page<OrderDTO> getOrders(Pageable pageable);
-    public List<UserDetailsDTO> getAllUsers();
+    public UserPageDTO getUsers(Long afterId, Integer size, String usernamePrefix, String emailPrefix);
+    public void exportUsers(String usernamePrefix, String emailPrefix, OutputStream out);
     public void deleteUserById(Long id);
     public OrderDTO updateOrderStatus(Long orderId, String newStatus);
     public  UserDetailsDTO findUserById(Long id);
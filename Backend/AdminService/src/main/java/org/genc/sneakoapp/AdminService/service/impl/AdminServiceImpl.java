@@ -7,6 +7,7 @@ import org.genc.sneakoapp.AdminService.dto.OrderDTO;
 
 import org.genc.sneakoapp.AdminService.dto.ProductDTO;
 import org.genc.sneakoapp.AdminService.dto.UserDetailsDTO;
+import org.genc.sneakoapp.AdminService.dto.UserPageDTO;
 
 
 
@@ -23,11 +24,14 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Optional;
 
 
 @Service
@@ -143,15 +147,28 @@ public class AdminServiceImpl implements AdminService {
         return restTemplate.getForObject(url, Long.class);
     }
     @Override
-    public List<UserDetailsDTO> getAllUsers() {
-        String url = USER_SERVICE_URL;
-        ResponseEntity<List<UserDetailsDTO>> response = restTemplate.exchange(
-                url,
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<List<UserDetailsDTO>>() {}
-        );
-        return response.getBody();
+    public UserPageDTO getUsers(Long afterId, Integer size, String usernamePrefix, String emailPrefix) {
+        URI uri = UriComponentsBuilder.fromUriString(USER_SERVICE_URL + "/page")
+                .queryParamIfPresent("afterId", Optional.ofNullable(afterId))
+                .queryParamIfPresent("size", Optional.ofNullable(size))
+                .queryParamIfPresent("usernamePrefix", Optional.ofNullable(usernamePrefix))
+                .queryParamIfPresent("emailPrefix", Optional.ofNullable(emailPrefix))
+                .encode()
+                .build()
+                .toUri();
+        return restTemplate.getForObject(uri, UserPageDTO.class);
+    }
+
+    @Override
+    public void exportUsers(String usernamePrefix, String emailPrefix, OutputStream out) {
+        URI uri = UriComponentsBuilder.fromUriString(USER_SERVICE_URL + "/export")
+                .queryParamIfPresent("usernamePrefix", Optional.ofNullable(usernamePrefix))
+                .queryParamIfPresent("emailPrefix", Optional.ofNullable(emailPrefix))
+                .encode()
+                .build()
+                .toUri();
+        // Copied through as it arrives, so the export never sits in this service's memory
+        restTemplate.execute(uri, HttpMethod.GET, null, response -> StreamUtils.copy(response.getBody(), out));
     }
 
     @Override
@@ -2,17 +2,17 @@ package org.genc.sneakoapp.AdminService;
 
 import org.genc.sneakoapp.AdminService.dto.ProductDTO;
 import org.genc.sneakoapp.AdminService.dto.UserDetailsDTO;
+import org.genc.sneakoapp.AdminService.dto.UserPageDTO;
 import org.genc.sneakoapp.AdminService.service.impl.AdminServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.util.Arrays;
-import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -114,24 +114,22 @@ class AdminServiceImplTest {
     }
 
     @Test
-    void testGetAllUsers_returnsList() {
-        List<UserDetailsDTO> users = Arrays.asList(
-                UserDetailsDTO.builder().id(1L).username("Alice").email("alice@example.com").build(),
-                UserDetailsDTO.builder().id(2L).username("Bob").email("bob@example.com").build()
-        );
-
-        ResponseEntity<List<UserDetailsDTO>> responseEntity = new ResponseEntity<>(users, HttpStatus.OK);
-
-        when(restTemplate.exchange(eq("http://localhost:8092/api/v1/user-service/users"),
-                eq(HttpMethod.GET),
-                isNull(),
-                ArgumentMatchers.<ParameterizedTypeReference<List<UserDetailsDTO>>>any()))
-                .thenReturn(responseEntity);
-
-        List<UserDetailsDTO> result = adminService.getAllUsers();
-
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).getUsername()).isEqualTo("Alice");
+    void testGetUsers_requestsKeysetPage() {
+        UserPageDTO page = new UserPageDTO(Arrays.asList(
+                UserDetailsDTO.builder().id(11L).username("Alice").email("alice@example.com").build(),
+                UserDetailsDTO.builder().id(12L).username("Bob").email("bob@example.com").build()
+        ), 12L);
+
+        when(restTemplate.getForObject(
+                URI.create("http://localhost:8092/api/v1/user-service/users/page?afterId=10&size=2&usernamePrefix=a%20b"),
+                UserPageDTO.class))
+                .thenReturn(page);
+
+        UserPageDTO result = adminService.getUsers(10L, 2, "a b", null);
+
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getContent().get(0).getUsername()).isEqualTo("Alice");
+        assertThat(result.getNextAfterId()).isEqualTo(12L);
     }
 
     @Test
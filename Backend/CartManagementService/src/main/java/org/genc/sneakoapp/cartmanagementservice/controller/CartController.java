@@ -3,7 +3,9 @@ package org.genc.sneakoapp.cartmanagementservice.controller;
 import lombok.RequiredArgsConstructor;
 
 import org.genc.sneakoapp.cartmanagementservice.dto.CartDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartViewDTO;
 import org.genc.sneakoapp.cartmanagementservice.service.api.CartService;
+import org.genc.sneakoapp.cartmanagementservice.service.api.CartViewService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,10 +19,17 @@ import org.springframework.web.bind.annotation.RestController;
 public class CartController {
 
     private final CartService cartService;
+    private final CartViewService cartViewService;
 
     @GetMapping("/{userId}")
     public ResponseEntity<CartDTO> getCartByUserId(@PathVariable Long userId) {
         CartDTO cartDTO = cartService.getCartByUserId(userId);
         return new ResponseEntity<>(cartDTO, HttpStatus.OK);
     }
+
+    // Cart with product name, image, current price and stock resolved in one batched lookup
+    @GetMapping("/{userId}/view")
+    public ResponseEntity<CartViewDTO> getCartView(@PathVariable Long userId) {
+        return new ResponseEntity<>(cartViewService.getCartView(userId), HttpStatus.OK);
+    }
 }
@@ -0,0 +1,38 @@
+package org.genc.sneakoapp.cartmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cart item enriched with the current product details. Product fields are null when
+ * product-service could not resolve the product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartItemViewDTO {
+    private Long cartItemId;
+
+    private Long productId;
+
+    private double unitPrice;
+
+    private Long quantity;
+
+    private double totalPrice;
+
+    private Integer size;
+
+    private String productName;
+
+    private String imageUrl;
+
+    private String categoryName;
+
+    private Double currentPrice;
+
+    private Long stockQuantity;
+}
@@ -0,0 +1,24 @@
+package org.genc.sneakoapp.cartmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartViewDTO {
+    private Long id;
+
+    private Long userId;
+
+    private List<CartItemViewDTO> cartItems;
+
+    private double totalPrice;
+
+    private Integer totalItem;
+}
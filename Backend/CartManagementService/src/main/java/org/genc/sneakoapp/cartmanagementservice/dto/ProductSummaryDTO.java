@@ -0,0 +1,32 @@
+package org.genc.sneakoapp.cartmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * The product fields the cart view needs, as returned by product-service.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSummaryDTO {
+    private Long productID;
+
+    private String productName;
+
+    private String imageUrl;
+
+    private String categoryName;
+
+    private BigDecimal price;
+
+    private Long stockQuantity;
+
+    // Stock less what is held for other checkouts; null from a product-service that predates it
+    private Long availableQuantity;
+}
@@ -0,0 +1,7 @@
+package org.genc.sneakoapp.cartmanagementservice.service.api;
+
+import org.genc.sneakoapp.cartmanagementservice.dto.CartViewDTO;
+
+public interface CartViewService {
+    CartViewDTO getCartView(Long userId);
+}
@@ -0,0 +1,10 @@
+package org.genc.sneakoapp.cartmanagementservice.service.api;
+
+import org.genc.sneakoapp.cartmanagementservice.dto.ProductSummaryDTO;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProductLookupService {
+    Map<Long, ProductSummaryDTO> findProducts(Collection<Long> productIds);
+}
@@ -0,0 +1,70 @@
+package org.genc.sneakoapp.cartmanagementservice.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartItemDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartItemViewDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartViewDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.ProductSummaryDTO;
+import org.genc.sneakoapp.cartmanagementservice.service.api.CartService;
+import org.genc.sneakoapp.cartmanagementservice.service.api.CartViewService;
+import org.genc.sneakoapp.cartmanagementservice.service.api.ProductLookupService;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class CartViewServiceImpl implements CartViewService {
+
+    private final CartService cartService;
+    private final ProductLookupService productLookupService;
+
+    // Not transactional on purpose: the cart is read in its own transaction and
+    // no database connection is held while product-service is called
+    @Override
+    public CartViewDTO getCartView(Long userId) {
+        CartDTO cart = cartService.getCartByUserId(userId);
+
+        List<Long> productIds = cart.getCartItems().stream()
+                .map(CartItemDTO::getProductId)
+                .toList();
+        Map<Long, ProductSummaryDTO> products = productIds.isEmpty()
+                ? Map.of()
+                : productLookupService.findProducts(productIds);
+
+        List<CartItemViewDTO> items = cart.getCartItems().stream()
+                .sorted(Comparator.comparing(CartItemDTO::getCartItemId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(item -> toView(item, products.get(item.getProductId())))
+                .toList();
+
+        return CartViewDTO.builder()
+                .id(cart.getId())
+                .userId(cart.getUserId())
+                .cartItems(items)
+                .totalPrice(cart.getTotalPrice())
+                .totalItem(cart.getTotalItem())
+                .build();
+    }
+
+    private CartItemViewDTO toView(CartItemDTO item, ProductSummaryDTO product) {
+        CartItemViewDTO.CartItemViewDTOBuilder view = CartItemViewDTO.builder()
+                .cartItemId(item.getCartItemId())
+                .productId(item.getProductId())
+                .unitPrice(item.getUnitPrice())
+                .quantity(item.getQuantity())
+                .totalPrice(item.getTotalPrice())
+                .size(item.getSize());
+        if (product != null) {
+            view.productName(product.getProductName())
+                    .imageUrl(product.getImageUrl())
+                    .categoryName(product.getCategoryName())
+                    .currentPrice(product.getPrice() != null ? product.getPrice().doubleValue() : null)
+                    .stockQuantity(product.getAvailableQuantity() != null
+                            ? product.getAvailableQuantity() : product.getStockQuantity());
+        }
+        return view.build();
+    }
+}
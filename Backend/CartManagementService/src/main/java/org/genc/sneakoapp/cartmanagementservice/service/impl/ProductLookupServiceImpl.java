@@ -0,0 +1,77 @@
+package org.genc.sneakoapp.cartmanagementservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.cartmanagementservice.dto.ProductSummaryDTO;
+import org.genc.sneakoapp.cartmanagementservice.service.api.ProductLookupService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves products with one batched call to product-service, keeping results in a short-lived
+ * local cache so repeated cart views do not go back to product-service at all.
+ */
+@Service
+@Slf4j
+public class ProductLookupServiceImpl implements ProductLookupService {
+
+    private final RestTemplate restTemplate;
+    private final String productServiceUrl;
+    private final Cache<Long, ProductSummaryDTO> productCache;
+
+    public ProductLookupServiceImpl(RestTemplate restTemplate,
+                                    @Value("${product.service.url}") String productServiceUrl,
+                                    @Value("${product.cache.ttl:PT10S}") Duration cacheTtl,
+                                    @Value("${product.cache.max-size:10000}") long cacheMaxSize) {
+        this.restTemplate = restTemplate;
+        this.productServiceUrl = productServiceUrl;
+        this.productCache = Caffeine.newBuilder()
+                .expireAfterWrite(cacheTtl)
+                .maximumSize(cacheMaxSize)
+                .build();
+    }
+
+    @Override
+    public Map<Long, ProductSummaryDTO> findProducts(Collection<Long> productIds) {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        Map<Long, ProductSummaryDTO> products = new HashMap<>(productCache.getAllPresent(ids));
+        ids.removeAll(products.keySet());
+        if (ids.isEmpty()) {
+            return products;
+        }
+
+        String url = UriComponentsBuilder.fromUriString(productServiceUrl)
+                .path("/batch")
+                .queryParam("ids", ids.toArray())
+                .toUriString();
+        try {
+            List<ProductSummaryDTO> fetched = restTemplate.exchange(url, HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<ProductSummaryDTO>>() {
+                    }).getBody();
+            if (fetched != null) {
+                for (ProductSummaryDTO product : fetched) {
+                    productCache.put(product.getProductID(), product);
+                    products.put(product.getProductID(), product);
+                }
+            }
+        } catch (RestClientException e) {
+            // The cart is still shown, just without the product details that could not be resolved
+            log.warn("Product lookup failed for ids {}: {}", ids, e.getMessage());
+        }
+        return products;
+    }
+}
@@ -0,0 +1,78 @@
+package org.genc.sneakoapp.cartmanagementservice;
+
+import org.genc.sneakoapp.cartmanagementservice.dto.CartDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartItemDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartItemViewDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.CartViewDTO;
+import org.genc.sneakoapp.cartmanagementservice.dto.ProductSummaryDTO;
+import org.genc.sneakoapp.cartmanagementservice.service.api.CartService;
+import org.genc.sneakoapp.cartmanagementservice.service.api.ProductLookupService;
+import org.genc.sneakoapp.cartmanagementservice.service.impl.CartViewServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CartViewServiceImplTest {
+
+    @Mock
+    private CartService cartService;
+
+    @Mock
+    private ProductLookupService productLookupService;
+
+    @InjectMocks
+    private CartViewServiceImpl cartViewService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testGetCartView_enrichesItemsWithOneLookup() {
+        CartItemDTO first = CartItemDTO.builder().cartItemId(1L).productId(100L)
+                .unitPrice(50).quantity(2L).totalPrice(100).size(9).build();
+        CartItemDTO second = CartItemDTO.builder().cartItemId(2L).productId(200L)
+                .unitPrice(30).quantity(1L).totalPrice(30).size(10).build();
+        CartDTO cart = new CartDTO(1L, 10L, Set.of(first, second), 130.0, 2);
+
+        ProductSummaryDTO product = ProductSummaryDTO.builder().productID(100L).productName("Runner")
+                .imageUrl("http://image.png").categoryName("Shoes")
+                .price(BigDecimal.valueOf(55)).stockQuantity(9L).availableQuantity(7L).build();
+
+        when(cartService.getCartByUserId(10L)).thenReturn(cart);
+        when(productLookupService.findProducts(anyCollection())).thenReturn(Map.of(100L, product));
+
+        CartViewDTO result = cartViewService.getCartView(10L);
+
+        assertThat(result.getTotalPrice()).isEqualTo(130.0);
+        assertThat(result.getCartItems()).extracting(CartItemViewDTO::getCartItemId).containsExactly(1L, 2L);
+
+        CartItemViewDTO enriched = result.getCartItems().get(0);
+        assertThat(enriched.getProductName()).isEqualTo("Runner");
+        assertThat(enriched.getCurrentPrice()).isEqualTo(55.0);
+        // What shoppers can still buy, not what is on the shelf
+        assertThat(enriched.getStockQuantity()).isEqualTo(7L);
+
+        // Unresolved products keep the cart data only
+        assertThat(result.getCartItems().get(1).getProductName()).isNull();
+        verify(productLookupService, times(1)).findProducts(anyCollection());
+    }
+
+    @Test
+    void testGetCartView_emptyCart_skipsLookup() {
+        when(cartService.getCartByUserId(20L)).thenReturn(new CartDTO(2L, 20L, new HashSet<>(), 0.0, 0));
+
+        CartViewDTO result = cartViewService.getCartView(20L);
+
+        assertThat(result.getCartItems()).isEmpty();
+        verifyNoInteractions(productLookupService);
+    }
+}
@@ -0,0 +1,33 @@
+package org.genc.sneakoapp.productmanagementservice.controller;
+
+
+import lombok.RequiredArgsConstructor;
+import org.genc.sneakoapp.productmanagementservice.dto.HotSkuStatusDTO;
+import org.genc.sneakoapp.productmanagementservice.service.api.ProductService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Admin only: the gateway lets only ROLE_ADMIN through to /api/v1/product-service/admin
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/product-service/admin/hot-sku")
+public class HotSkuController {
+    private final ProductService productService;
+
+    // Flash-sale mode: PUT sells the product from in-memory counters on this instance, DELETE stops it
+    @PutMapping("/{id}")
+    public ResponseEntity<HotSkuStatusDTO> enableHotSku(@PathVariable Long id) {
+        return new ResponseEntity<>(productService.setHotSku(id, true), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<HotSkuStatusDTO> disableHotSku(@PathVariable Long id) {
+        return new ResponseEntity<>(productService.setHotSku(id, false), HttpStatus.OK);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<HotSkuStatusDTO> getHotSkuStatus(@PathVariable Long id) {
+        return new ResponseEntity<>(productService.getHotSkuStatus(id), HttpStatus.OK);
+    }
+}
@@ -6,6 +6,9 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 import org.genc.sneakoapp.productmanagementservice.dto.ProductDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationRequestDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationResultDTO;
 import org.genc.sneakoapp.productmanagementservice.service.api.ProductService;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
@@ -16,6 +19,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/product-service/product")
@@ -57,15 +62,29 @@ public class ProductController {
 
     }
 
+    // Batch lookup for other services, e.g. /batch?ids=1,2,3; unknown ids are left out
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductDTO>> findByIds(@RequestParam List<Long> ids) {
+        return new ResponseEntity<>(productService.findByIds(ids), HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO>  findById( @PathVariable  Long id){
         return new ResponseEntity<>(productService.findById(id),HttpStatus.OK);
     }
     
+    // 200 or, when there is not enough, 409; both with the stock left that is not held for a checkout
     @PatchMapping("/{id}/stock")
-    public ResponseEntity<Void> reduceStock(@PathVariable Long id, @RequestParam Long quantity) {
-        productService.reduceStock(id, quantity);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<StockDecrementResultDTO> reduceStock(@PathVariable Long id, @RequestParam Long quantity) {
+        StockDecrementResultDTO result = productService.reduceStock(id, quantity);
+        return new ResponseEntity<>(result, result.isSuccess() ? HttpStatus.OK : HttpStatus.CONFLICT);
+    }
+
+    // Reserves every item or none: 200 with the remaining stock, or 409 with the per-item shortfalls
+    @PostMapping("/stock/reservations")
+    public ResponseEntity<StockReservationResultDTO> reserveStock(@Valid @RequestBody StockReservationRequestDTO request) {
+        StockReservationResultDTO result = productService.reserveStock(request.getItems());
+        return new ResponseEntity<>(result, result.isSuccess() ? HttpStatus.OK : HttpStatus.CONFLICT);
     }
 
     @GetMapping("/totalproducts")
@@ -0,0 +1,44 @@
+package org.genc.sneakoapp.productmanagementservice.controller;
+
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.genc.sneakoapp.productmanagementservice.dto.StockAvailabilityDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockHoldResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationRequestDTO;
+import org.genc.sneakoapp.productmanagementservice.service.api.StockHoldService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/product-service/product")
+public class StockHoldController {
+    private final StockHoldService stockHoldService;
+
+    // 201 with the reservation id and expiry, or 409 with the per-item shortfalls (nothing held)
+    @PostMapping("/stock/holds")
+    public ResponseEntity<StockHoldResultDTO> hold(@Valid @RequestBody StockReservationRequestDTO request) {
+        StockHoldResultDTO result = stockHoldService.hold(request.getItems());
+        return new ResponseEntity<>(result, result.isSuccess() ? HttpStatus.CREATED : HttpStatus.CONFLICT);
+    }
+
+    // Turns the hold into a real decrement; 404 when it expired or was released
+    @PostMapping("/stock/holds/{reservationId}/confirm")
+    public ResponseEntity<Void> confirm(@PathVariable String reservationId) {
+        stockHoldService.confirm(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/stock/holds/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable String reservationId) {
+        stockHoldService.release(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<StockAvailabilityDTO> getAvailability(@PathVariable Long id) {
+        return new ResponseEntity<>(stockHoldService.getAvailability(id), HttpStatus.OK);
+    }
+}
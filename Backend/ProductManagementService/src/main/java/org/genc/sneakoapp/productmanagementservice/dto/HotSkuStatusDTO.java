@@ -0,0 +1,23 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flash-sale mode of one product on this instance: whether it is on, the leased units still in the
+ * in-memory counters, and the units sold but not yet written to the product.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotSkuStatusDTO {
+
+    private Long productID;
+
+    private boolean hot;
+
+    private Long leasedUnsold;
+
+    private Long soldUnflushed;
+}
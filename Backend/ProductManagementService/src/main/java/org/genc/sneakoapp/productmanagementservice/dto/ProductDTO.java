@@ -4,6 +4,7 @@ import jakarta.annotation.Nullable;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
 
 import java.math.BigDecimal;
 
@@ -32,7 +33,22 @@ public class ProductDTO {
     @NotNull(message = "Enter the Stock quantity")
     private Long stockQuantity;
 
+    // On-hand stock less the units held for checkouts and flash sales; read only, ignored on writes
+    @Nullable
+    private Long availableQuantity;
+
     @NotNull
     private  String categoryName;
 
+    public ProductDTO(Product product) {
+        this(product.getProductID(),
+                product.getImageUrl(),
+                product.getProductName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getStockQuantity(),
+                product.getAvailableQuantity(),
+                product.getCategory() != null ? product.getCategory().getName() : null);
+    }
+
 }
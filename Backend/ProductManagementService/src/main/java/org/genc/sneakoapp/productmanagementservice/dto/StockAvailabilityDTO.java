@@ -0,0 +1,22 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock of one product: on hand, held for checkouts, and what can still be sold (on hand minus held).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAvailabilityDTO {
+
+    private Long productID;
+
+    private Long stockQuantity;
+
+    private Long reservedQuantity;
+
+    private Long availableQuantity;
+}
@@ -0,0 +1,23 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a stock decrement: whether the whole quantity was taken, and the stock left afterwards
+ * (or, when it was not taken, the stock that was there).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDecrementResultDTO {
+
+    private Long productID;
+
+    private Long quantity;
+
+    private boolean success;
+
+    private Long remainingStock;
+}
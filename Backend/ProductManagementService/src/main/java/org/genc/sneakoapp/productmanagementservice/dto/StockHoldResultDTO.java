@@ -0,0 +1,28 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of a hold request. On success every item is held under reservationId until expiresAt;
+ * otherwise nothing is held and the shortfalls say why.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldResultDTO {
+
+    private boolean success;
+
+    private String reservationId;
+
+    private Instant expiresAt;
+
+    private List<StockReservationItemDTO> held;
+
+    private List<StockShortfallDTO> shortfalls;
+}
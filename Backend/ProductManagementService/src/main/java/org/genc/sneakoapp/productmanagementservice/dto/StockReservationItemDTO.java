@@ -0,0 +1,20 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationItemDTO {
+
+    @NotNull(message = "Enter the product id")
+    private Long productId;
+
+    @NotNull(message = "Enter the quantity")
+    @Positive(message = "Quantity must be at least 1")
+    private Long quantity;
+}
@@ -0,0 +1,20 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationRequestDTO {
+
+    @NotEmpty(message = "Enter at least one item")
+    @Size(max = 100, message = "At most 100 items can be reserved at once")
+    private List<@Valid StockReservationItemDTO> items;
+}
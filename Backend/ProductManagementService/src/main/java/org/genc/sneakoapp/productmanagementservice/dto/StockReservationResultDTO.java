@@ -0,0 +1,23 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a multi-item reservation. Either every item was reserved (success, with the stock left
+ * for each product) or none was (with the shortfalls that prevented it).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResultDTO {
+
+    private boolean success;
+
+    private List<StockDecrementResultDTO> reserved;
+
+    private List<StockShortfallDTO> shortfalls;
+}
@@ -0,0 +1,22 @@
+package org.genc.sneakoapp.productmanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An item of a reservation that could not be met; available is 0 for a product that does not exist.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockShortfallDTO {
+
+    private Long productId;
+
+    private Long requested;
+
+    private Long available;
+
+    private String message;
+}
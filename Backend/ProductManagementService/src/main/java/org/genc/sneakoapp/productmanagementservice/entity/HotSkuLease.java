@@ -0,0 +1,49 @@
+package org.genc.sneakoapp.productmanagementservice.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * What one hot SKU journal has done with one product's stock: units leased into the in-memory
+ * counters, units flushed to the product as sold, and unsold units given back. Each is updated in the
+ * same transaction as the product row, so together with the sales in the journal they tell exactly
+ * how much of the lease is still out after a crash. The instance writing the journal refreshes the
+ * heartbeat; a row whose heartbeat stopped belongs to a journal that was lost.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "hot_sku_leases", uniqueConstraints =
+        @UniqueConstraint(name = "uk_hot_sku_leases_journal_product", columnNames = {"journal_id", "product_id"}))
+public class HotSkuLease {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "journal_id", nullable = false, length = 36)
+        private String journalId;
+
+        @Column(name = "product_id", nullable = false)
+        private Long productId;
+
+        @Column(nullable = false)
+        @Builder.Default
+        private Long leased = 0L;
+
+        @Column(nullable = false)
+        @Builder.Default
+        private Long flushed = 0L;
+
+        @Column(nullable = false)
+        @Builder.Default
+        private Long released = 0L;
+
+        @Column(name = "heartbeat_at")
+        private Instant heartbeatAt;
+}
@@ -3,6 +3,7 @@ package org.genc.sneakoapp.productmanagementservice.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -31,6 +32,13 @@ public class Product {
 
         private Long stockQuantity;
 
+        // Units held by active stock holds; only changed through ProductRepository's update queries,
+        // so saving a product never writes back an older value
+        @Column(nullable = false, updatable = false)
+        @ColumnDefault("0")
+        @Builder.Default
+        private Long reservedQuantity = 0L;
+
         @ManyToOne(fetch = FetchType.EAGER)
         @JoinColumn(name = "CategoryID")
         private Category category;
@@ -56,4 +64,10 @@ public class Product {
                 }
         }
 
+        // On-hand stock that is not held for a checkout
+        public long getAvailableQuantity() {
+                long onHand = stockQuantity != null ? stockQuantity : 0L;
+                return onHand - (reservedQuantity != null ? reservedQuantity : 0L);
+        }
+
 }
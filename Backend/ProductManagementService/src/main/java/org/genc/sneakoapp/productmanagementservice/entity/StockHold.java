@@ -0,0 +1,40 @@
+package org.genc.sneakoapp.productmanagementservice.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Stock set aside for one checkout until it is confirmed, released or expires. A checkout holding
+ * several products has one row per product, all with the same reservation id and expiry. While the
+ * row exists its quantity is counted in the product's reservedQuantity.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "stock_holds", indexes = {
+        @Index(name = "idx_stock_holds_reservation_id", columnList = "reservation_id"),
+        @Index(name = "idx_stock_holds_expires_at", columnList = "expires_at")
+})
+public class StockHold {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        @Column(name = "reservation_id", nullable = false, length = 36)
+        private String reservationId;
+
+        @Column(name = "product_id", nullable = false)
+        private Long productId;
+
+        @Column(nullable = false)
+        private Long quantity;
+
+        @Column(name = "expires_at", nullable = false)
+        private Instant expiresAt;
+}
@@ -36,6 +36,33 @@ public class GlobalRestAPIExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * A stock hold that was never created, or was already confirmed, released or expired.
+     * Returns an HTTP 404 Not Found response.
+     */
+    @ExceptionHandler(StockHoldNotFoundException.class)
+    public ResponseEntity<Object> handleStockHoldNotFound(StockHoldNotFoundException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.NOT_FOUND.value());
+        body.put("error", "Stock Hold Not Found");
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * A stock quantity that is zero or negative.
+     * Returns an HTTP 400 Bad Request response.
+     */
+    @ExceptionHandler(InvalidQuantityException.class)
+    public ResponseEntity<Object> handleInvalidQuantity(InvalidQuantityException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST.value());
+        body.put("error", "Invalid Quantity");
+        body.put("message", ex.getMessage());
+        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
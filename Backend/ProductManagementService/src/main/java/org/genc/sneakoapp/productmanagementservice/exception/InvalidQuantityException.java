@@ -0,0 +1,7 @@
+package org.genc.sneakoapp.productmanagementservice.exception;
+
+public class InvalidQuantityException extends RuntimeException {
+    public InvalidQuantityException(String message) {
+        super(message);
+    }
+}
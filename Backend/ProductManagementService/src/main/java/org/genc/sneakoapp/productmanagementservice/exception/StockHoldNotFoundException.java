@@ -0,0 +1,7 @@
+package org.genc.sneakoapp.productmanagementservice.exception;
+
+public class StockHoldNotFoundException extends RuntimeException {
+    public StockHoldNotFoundException(String message) {
+        super(message);
+    }
+}
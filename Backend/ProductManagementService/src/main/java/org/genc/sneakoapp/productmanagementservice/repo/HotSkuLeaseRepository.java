@@ -0,0 +1,50 @@
+package org.genc.sneakoapp.productmanagementservice.repo;
+
+import org.genc.sneakoapp.productmanagementservice.entity.HotSkuLease;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface HotSkuLeaseRepository extends JpaRepository<HotSkuLease, Long> {
+
+    boolean existsByJournalIdAndProductId(String journalId, Long productId);
+
+    List<HotSkuLease> findByJournalIdOrderByProductId(String journalId);
+
+    @Modifying
+    @Query("update HotSkuLease l set l.leased = l.leased + :quantity where l.journalId = :journalId and l.productId = :productId")
+    int addLeased(@Param("journalId") String journalId, @Param("productId") Long productId, @Param("quantity") Long quantity);
+
+    @Modifying
+    @Query("update HotSkuLease l set l.flushed = l.flushed + :quantity where l.journalId = :journalId and l.productId = :productId")
+    int addFlushed(@Param("journalId") String journalId, @Param("productId") Long productId, @Param("quantity") Long quantity);
+
+    @Modifying
+    @Query("update HotSkuLease l set l.released = l.released + :quantity where l.journalId = :journalId and l.productId = :productId")
+    int addReleased(@Param("journalId") String journalId, @Param("productId") Long productId, @Param("quantity") Long quantity);
+
+    // Rows without a heartbeat were written before there was one
+    @Query("select l.id from HotSkuLease l where l.journalId <> :journalId"
+            + " and (l.heartbeatAt is null or l.heartbeatAt < :before) order by l.id")
+    List<Long> findOrphanedIds(@Param("journalId") String journalId, @Param("before") Instant before);
+
+    // Leases already reconciled or released by someone else are left out
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from HotSkuLease l where l.id in :ids order by l.id")
+    List<HotSkuLease> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update HotSkuLease l set l.heartbeatAt = :now where l.journalId = :journalId")
+    int heartbeat(@Param("journalId") String journalId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from HotSkuLease l where l.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,8 +1,64 @@
 package org.genc.sneakoapp.productmanagementservice.repo;
 
+import jakarta.persistence.LockModeType;
 import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product,Long> {
 
+    // Single query for a batch of products, category included
+    @Query("select p from Product p left join fetch p.category where p.productID in :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Ids of one listing page; the products themselves come from ProductCache
+    @Query("select p.productID from Product p")
+    Page<Long> findPageIds(Pageable pageable);
+
+    // Stock only, for refreshing cached products whose stock level is older than the stock TTL
+    @Query("select p.productID as productID, p.stockQuantity as stockQuantity, p.reservedQuantity as reservedQuantity " +
+            "from Product p where p.productID in :ids")
+    List<ProductStockView> findStockByIdIn(@Param("ids") Collection<Long> ids);
+
+    Optional<ProductStockView> findStockByProductID(Long productID);
+
+    // Locks the rows in id order, so that two reservations sharing products cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.productID in :ids order by p.productID")
+    List<Product> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Takes {@code quantity} off the stock in one statement, only if that much is available (not held);
+     * returns the number of rows changed (0 when the product is missing or has too little stock). Bumps
+     * the version so that an entity-based update based on an older read fails instead of writing the old
+     * stock back.
+     */
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1 " +
+            "where p.productID = :id and p.stockQuantity - p.reservedQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") Long quantity);
+
+    // Callers lock the row and check availability first; no version bump, holds do not touch what admins edit
+    @Modifying
+    @Query("update Product p set p.reservedQuantity = p.reservedQuantity + :quantity where p.productID = :id")
+    int holdStock(@Param("id") Long id, @Param("quantity") Long quantity);
+
+    @Modifying
+    @Query("update Product p set p.reservedQuantity = p.reservedQuantity - :quantity where p.productID = :id")
+    int releaseHeldStock(@Param("id") Long id, @Param("quantity") Long quantity);
+
+    // A held quantity leaves the shelf: available stock stays the same
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - :quantity, " +
+            "p.reservedQuantity = p.reservedQuantity - :quantity, p.version = p.version + 1 where p.productID = :id")
+    int confirmHeldStock(@Param("id") Long id, @Param("quantity") Long quantity);
 }
@@ -0,0 +1,18 @@
+package org.genc.sneakoapp.productmanagementservice.repo;
+
+/**
+ * Stock level of a product, read without loading the product and its category.
+ */
+public interface ProductStockView {
+    Long getProductID();
+
+    Long getStockQuantity();
+
+    Long getReservedQuantity();
+
+    // On-hand stock that is not held for a checkout, as Product.getAvailableQuantity()
+    default long availableQuantity() {
+        long onHand = getStockQuantity() != null ? getStockQuantity() : 0L;
+        return onHand - (getReservedQuantity() != null ? getReservedQuantity() : 0L);
+    }
+}
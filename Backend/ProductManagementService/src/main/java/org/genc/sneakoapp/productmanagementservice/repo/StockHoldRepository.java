@@ -0,0 +1,32 @@
+package org.genc.sneakoapp.productmanagementservice.repo;
+
+import jakarta.persistence.LockModeType;
+import org.genc.sneakoapp.productmanagementservice.entity.StockHold;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockHoldRepository extends JpaRepository<StockHold, Long> {
+
+    List<StockHold> findByReservationIdOrderByProductId(String reservationId);
+
+    @Query("select h from StockHold h where h.expiresAt < :now order by h.id")
+    List<StockHold> findExpired(@Param("now") Instant now, Limit limit);
+
+    // Locks holds by primary key only (no index ranges), so creating new holds is never blocked;
+    // holds already confirmed, released or swept by someone else are left out
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from StockHold h where h.id in :ids order by h.id")
+    List<StockHold> findAllForUpdateByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from StockHold h where h.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,10 +1,16 @@
 package org.genc.sneakoapp.productmanagementservice.service.api;
 
 
+import org.genc.sneakoapp.productmanagementservice.dto.HotSkuStatusDTO;
 import org.genc.sneakoapp.productmanagementservice.dto.ProductDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationResultDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface ProductService {
     public ProductDTO createProduct(ProductDTO productdto);
     public Page<ProductDTO> getProduct(Pageable pageable);
@@ -12,7 +18,11 @@ public interface ProductService {
     public void  deleteProduct(Long id);
     public ProductDTO findById(Long id);
     public Long totalProduct();
-    void reduceStock(Long productId, Long quantity);
+    StockDecrementResultDTO reduceStock(Long productId, Long quantity);
+    StockReservationResultDTO reserveStock(List<StockReservationItemDTO> items);
+    HotSkuStatusDTO setHotSku(Long productId, boolean hot);
+    HotSkuStatusDTO getHotSkuStatus(Long productId);
+    List<ProductDTO> findByIds(List<Long> ids);
 
 
 
@@ -0,0 +1,15 @@
+package org.genc.sneakoapp.productmanagementservice.service.api;
+
+import org.genc.sneakoapp.productmanagementservice.dto.StockAvailabilityDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockHoldResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+
+import java.util.List;
+
+public interface StockHoldService {
+    StockHoldResultDTO hold(List<StockReservationItemDTO> items);
+    void confirm(String reservationId);
+    void release(String reservationId);
+    int releaseExpired();
+    StockAvailabilityDTO getAvailability(Long productId);
+}
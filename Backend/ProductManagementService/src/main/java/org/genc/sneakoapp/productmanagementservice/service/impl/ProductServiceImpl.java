@@ -3,39 +3,57 @@ package org.genc.sneakoapp.productmanagementservice.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.genc.sneakoapp.productmanagementservice.dto.HotSkuStatusDTO;
 import org.genc.sneakoapp.productmanagementservice.dto.ProductDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockShortfallDTO;
 import org.genc.sneakoapp.productmanagementservice.entity.Category;
 import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.exception.InvalidQuantityException;
 import org.genc.sneakoapp.productmanagementservice.exception.ProductNotFoundException;
-import org.genc.sneakoapp.productmanagementservice.exception.InsufficientStockException;
 import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductStockView;
 import org.genc.sneakoapp.productmanagementservice.service.api.CategoryService;
 import org.genc.sneakoapp.productmanagementservice.service.api.ProductService;
+import org.genc.sneakoapp.productmanagementservice.util.HotSkuInventory;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.transaction.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
+    private final ProductCache productCache;
+    private final HotSkuInventory hotSkuInventory;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public ProductDTO createProduct(ProductDTO productdto) {
         Product productEntity = getProductDetails(productdto);
         Product productObj = productRepository.save(productEntity);
         log.info("Created a Product with the id: {}", productObj.getProductID());
+        productCache.evictPagesAfterCommit();
         return mapProductEntityDTO(productObj);
     }
 
     @Override
     public Page<ProductDTO> getProduct(Pageable pageable) {
-        Page<Product> productPage = productRepository.findAll(pageable);
-        return productPage.map(this::mapProductEntityDTO);
+        return productCache.getPage(pageable).map(this::withHotSkuStock);
     }
 
     @Override
@@ -66,6 +84,7 @@ public class ProductServiceImpl implements ProductService {
         Product updatedProduct = productRepository.save(productEntity);
         log.info("Updated product with ID: {} and category: {}", updatedProduct.getProductID(),
                 updatedProduct.getCategory().getName());
+        productCache.evictProductAfterCommit(id);
 
         return mapProductEntityDTO(updatedProduct);
     }
@@ -76,13 +95,23 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ProductNotFoundException("Product Not Found with ID: " + id));
         log.info("Product with the id: {} deleted", product.getProductID());
         productRepository.delete(product);
+        productCache.evictProductAfterCommit(id);
     }
 
     @Override
     public ProductDTO findById(Long id) {
-        Product product = productRepository.findById(id)
+        return productCache.get(id)
+                .map(this::withHotSkuStock)
                 .orElseThrow(() -> new ProductNotFoundException("Product Not Found with ID: " + id));
-        return mapProductEntityDTO(product);
+    }
+
+    @Override
+    public List<ProductDTO> findByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        return productCache.getAll(distinctIds).stream().map(this::withHotSkuStock).toList();
     }
 
     @Override
@@ -90,14 +119,17 @@ public class ProductServiceImpl implements ProductService {
         return productRepository.count();
     }
 
+    // The row counts a hot product's whole lease as held; the part not sold yet is still for sale here
+    private ProductDTO withHotSkuStock(ProductDTO product) {
+        long leasedUnsold = hotSkuInventory.leasedUnsold(product.getProductID());
+        if (leasedUnsold > 0 && product.getAvailableQuantity() != null) {
+            product.setAvailableQuantity(product.getAvailableQuantity() + leasedUnsold);
+        }
+        return product;
+    }
+
     public ProductDTO mapProductEntityDTO(Product productObj) {
-        return new ProductDTO(productObj.getProductID(),
-                productObj.getImageUrl(),
-                productObj.getProductName(),
-                productObj.getDescription(),
-                productObj.getPrice(),
-                productObj.getStockQuantity(),
-                productObj.getCategory().getName());
+        return new ProductDTO(productObj);
     }
 
     private Product getProductDetails(ProductDTO productDTO) {
@@ -117,17 +149,70 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Transactional
-    public void reduceStock(Long productId, Long quantity) {
-        Product product = productRepository.findById(productId)
+    public StockDecrementResultDTO reduceStock(Long productId, Long quantity) {
+        if (quantity == null || quantity < 1) {
+            throw new InvalidQuantityException("Quantity must be at least 1, was: " + quantity);
+        }
+        // Products in flash-sale mode sell from memory; no transaction, no connection
+        StockDecrementResultDTO hot = hotSkuInventory.tryDecrement(productId, quantity);
+        if (hot != null) {
+            return hot;
+        }
+        return transactionTemplate.execute(status -> decrementInDatabase(productId, quantity));
+    }
+
+    private StockDecrementResultDTO decrementInDatabase(Long productId, Long quantity) {
+        // Check and decrement in one conditional UPDATE: no read-modify-write race, no version conflicts
+        boolean decremented = productRepository.decrementStock(productId, quantity) == 1;
+        if (decremented) {
+            productCache.evictStockAfterCommit(productId);
+        }
+        // After a decrement this transaction holds the row lock, so this is exactly what it left
+        ProductStockView stock = productRepository.findStockByProductID(productId)
                 .orElseThrow(() -> new ProductNotFoundException("Product Not Found with ID: " + productId));
+        // Units held for checkouts cannot be sold, so they are not reported as remaining either
+        long available = Math.max(0L, stock.availableQuantity());
+        if (!decremented) {
+            log.debug("Insufficient stock for product {}: requested {}, available {}", productId, quantity, available);
+        }
+        return new StockDecrementResultDTO(productId, quantity, decremented, available);
+    }
 
-        Long currentStock = product.getStockQuantity();
-        if (currentStock == null || currentStock < quantity) {
-            throw new InsufficientStockException("Insufficient stock for product ID: " + productId);
+    @Override
+    public HotSkuStatusDTO setHotSku(Long productId, boolean hot) {
+        if (hot) {
+            hotSkuInventory.enable(productId);
+        } else {
+            hotSkuInventory.disable(productId);
+        }
+        return hotSkuInventory.status(productId);
+    }
+
+    @Override
+    public HotSkuStatusDTO getHotSkuStatus(Long productId) {
+        return hotSkuInventory.status(productId);
+    }
+
+    @Override
+    @Transactional
+    public StockReservationResultDTO reserveStock(List<StockReservationItemDTO> items) {
+        Map<Long, Long> requested = StockRequests.merge(items);
+        Map<Long, Product> locked = StockRequests.lock(productRepository, requested);
+        List<StockShortfallDTO> shortfalls = StockRequests.shortfalls(requested, locked);
+        if (!shortfalls.isEmpty()) {
+            // Nothing was changed; the row locks go with the transaction
+            log.debug("Reservation refused, shortfalls: {}", shortfalls);
+            return new StockReservationResultDTO(false, List.of(), shortfalls);
         }
 
-        product.setStockQuantity(currentStock - quantity);
-        productRepository.save(product);
+        List<StockDecrementResultDTO> reserved = new ArrayList<>(requested.size());
+        requested.forEach((productId, quantity) -> {
+            Product product = locked.get(productId);
+            product.setStockQuantity(product.getStockQuantity() - quantity);
+            productCache.evictStockAfterCommit(productId);
+            reserved.add(new StockDecrementResultDTO(productId, quantity, true, product.getStockQuantity()));
+        });
+        log.info("Reserved stock for {} products", reserved.size());
+        return new StockReservationResultDTO(true, reserved, List.of());
     }
 }
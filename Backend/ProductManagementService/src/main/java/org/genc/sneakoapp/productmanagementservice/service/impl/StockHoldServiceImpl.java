@@ -0,0 +1,201 @@
+package org.genc.sneakoapp.productmanagementservice.service.impl;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.productmanagementservice.dto.StockAvailabilityDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockHoldResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockShortfallDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.entity.StockHold;
+import org.genc.sneakoapp.productmanagementservice.exception.ProductNotFoundException;
+import org.genc.sneakoapp.productmanagementservice.exception.StockHoldNotFoundException;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductStockView;
+import org.genc.sneakoapp.productmanagementservice.repo.StockHoldRepository;
+import org.genc.sneakoapp.productmanagementservice.service.api.StockHoldService;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Time-limited stock holds for checkouts. A hold adds to the product's reservedQuantity, so available
+ * stock (on hand minus held) is always one row read away; confirming moves the held quantity off the
+ * shelf, releasing or expiring gives it back.
+ * <p>
+ * Confirm, release and the expiry sweeper can race for the same hold. Each first locks the hold rows
+ * by primary key and deletes the ones still there; only the one that deleted a row applies it to the
+ * product, so a hold is never counted twice. Product rows are always locked in id order.
+ */
+@Service
+@Slf4j
+public class StockHoldServiceImpl implements StockHoldService {
+
+    private final ProductRepository productRepository;
+    private final StockHoldRepository stockHoldRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final int sweepBatchSize;
+    private final Clock clock;
+
+    @Autowired
+    public StockHoldServiceImpl(ProductRepository productRepository,
+                                StockHoldRepository stockHoldRepository,
+                                ProductCache productCache,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${genc.stock-hold.ttl:PT10M}") Duration ttl,
+                                @Value("${genc.stock-hold.sweep-batch-size:500}") int sweepBatchSize) {
+        this(productRepository, stockHoldRepository, productCache, transactionManager, ttl, sweepBatchSize,
+                Clock.systemUTC());
+    }
+
+    public StockHoldServiceImpl(ProductRepository productRepository, StockHoldRepository stockHoldRepository,
+                                ProductCache productCache, PlatformTransactionManager transactionManager,
+                                Duration ttl, int sweepBatchSize, Clock clock) {
+        this.productRepository = productRepository;
+        this.stockHoldRepository = stockHoldRepository;
+        this.productCache = productCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.sweepBatchSize = sweepBatchSize;
+        this.clock = clock;
+    }
+
+    @Override
+    @Transactional
+    public StockHoldResultDTO hold(List<StockReservationItemDTO> items) {
+        Map<Long, Long> requested = StockRequests.merge(items);
+        Map<Long, Product> locked = StockRequests.lock(productRepository, requested);
+        List<StockShortfallDTO> shortfalls = StockRequests.shortfalls(requested, locked);
+        if (!shortfalls.isEmpty()) {
+            log.debug("Hold refused, shortfalls: {}", shortfalls);
+            return new StockHoldResultDTO(false, null, null, List.of(), shortfalls);
+        }
+
+        String reservationId = UUID.randomUUID().toString();
+        Instant expiresAt = clock.instant().plus(ttl);
+        List<StockHold> holds = new ArrayList<>(requested.size());
+        List<StockReservationItemDTO> held = new ArrayList<>(requested.size());
+        requested.forEach((productId, quantity) -> {
+            productRepository.holdStock(productId, quantity);
+            productCache.evictStockAfterCommit(productId);
+            holds.add(StockHold.builder()
+                    .reservationId(reservationId)
+                    .productId(productId)
+                    .quantity(quantity)
+                    .expiresAt(expiresAt)
+                    .build());
+            held.add(new StockReservationItemDTO(productId, quantity));
+        });
+        stockHoldRepository.saveAll(holds);
+        log.info("Created stock hold {} for {} products, expires at {}", reservationId, held.size(), expiresAt);
+        return new StockHoldResultDTO(true, reservationId, expiresAt, held, List.of());
+    }
+
+    @Override
+    @Transactional
+    public void confirm(String reservationId) {
+        List<StockHold> holds = stockHoldRepository.findByReservationIdOrderByProductId(reservationId);
+        if (holds.isEmpty()) {
+            throw new StockHoldNotFoundException("No stock hold with id: " + reservationId);
+        }
+        if (!holds.get(0).getExpiresAt().isAfter(clock.instant())) {
+            // Left for the sweeper, which gives the stock back
+            throw new StockHoldNotFoundException("Stock hold " + reservationId + " has expired");
+        }
+        if (claim(holds).size() != holds.size()) {
+            // Released or swept concurrently; throwing rolls back the part this call claimed
+            throw new StockHoldNotFoundException("Stock hold " + reservationId + " was already released");
+        }
+        for (StockHold hold : holds) {
+            productRepository.confirmHeldStock(hold.getProductId(), hold.getQuantity());
+            productCache.evictStockAfterCommit(hold.getProductId());
+        }
+        log.info("Confirmed stock hold {}", reservationId);
+    }
+
+    @Override
+    @Transactional
+    public void release(String reservationId) {
+        // Releasing a hold that is already gone is not an error, so a retried release is harmless
+        List<StockHold> holds = stockHoldRepository.findByReservationIdOrderByProductId(reservationId);
+        int released = giveBack(claim(holds));
+        log.info("Released stock hold {} ({} products)", reservationId, released);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${genc.stock-hold.sweep-interval:PT30S}")
+    public int releaseExpired() {
+        Instant now = clock.instant();
+        int released = 0;
+        SweepBatch batch;
+        do {
+            // One transaction per batch keeps lock times short while a flash sale is running
+            batch = transactionTemplate.execute(status -> sweepBatch(now));
+            released += batch.released();
+        } while (batch.found() == sweepBatchSize);
+        if (released > 0) {
+            log.info("Released {} expired stock holds", released);
+        }
+        return released;
+    }
+
+    @Override
+    public StockAvailabilityDTO getAvailability(Long productId) {
+        ProductStockView stock = productRepository.findStockByProductID(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product Not Found with ID: " + productId));
+        long onHand = stock.getStockQuantity() != null ? stock.getStockQuantity() : 0L;
+        long reserved = stock.getReservedQuantity() != null ? stock.getReservedQuantity() : 0L;
+        return new StockAvailabilityDTO(productId, stock.getStockQuantity(), reserved, Math.max(0L, onHand - reserved));
+    }
+
+    private SweepBatch sweepBatch(Instant now) {
+        List<StockHold> expired = stockHoldRepository.findExpired(now, Limit.of(sweepBatchSize));
+        return new SweepBatch(expired.size(), giveBack(claim(expired)));
+    }
+
+    /**
+     * Locks and deletes those of the given holds that still exist, returning them. The locks are taken
+     * on primary keys in id order, and held until the transaction ends.
+     */
+    private List<StockHold> claim(List<StockHold> holds) {
+        if (holds.isEmpty()) {
+            return List.of();
+        }
+        List<StockHold> claimed = stockHoldRepository.findAllForUpdateByIdIn(
+                holds.stream().map(StockHold::getId).toList());
+        if (!claimed.isEmpty()) {
+            stockHoldRepository.deleteByIdIn(claimed.stream().map(StockHold::getId).toList());
+        }
+        return claimed;
+    }
+
+    // Returns claimed holds to available stock, one update per product in id order
+    private int giveBack(List<StockHold> claimed) {
+        Map<Long, Long> perProduct = new TreeMap<>();
+        claimed.forEach(hold -> perProduct.merge(hold.getProductId(), hold.getQuantity(), Long::sum));
+        perProduct.forEach((productId, quantity) -> {
+            productRepository.releaseHeldStock(productId, quantity);
+            productCache.evictStockAfterCommit(productId);
+        });
+        return claimed.size();
+    }
+
+    private record SweepBatch(int found, int released) {
+    }
+}
@@ -0,0 +1,62 @@
+package org.genc.sneakoapp.productmanagementservice.service.impl;
+
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockShortfallDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.exception.InvalidQuantityException;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The steps shared by multi-item reservations and holds: merge the request per product, lock the
+ * products in id order, and find the items that cannot be met from the available stock.
+ */
+final class StockRequests {
+
+    private StockRequests() {
+    }
+
+    /**
+     * Quantities per product id, in ascending id order; the same product twice counts as the sum.
+     */
+    static Map<Long, Long> merge(List<StockReservationItemDTO> items) {
+        Map<Long, Long> requested = new TreeMap<>();
+        for (StockReservationItemDTO item : items) {
+            if (item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new InvalidQuantityException("Quantity must be at least 1 for product ID: "
+                        + item.getProductId());
+            }
+            requested.merge(item.getProductId(), item.getQuantity(), Long::sum);
+        }
+        return requested;
+    }
+
+    /**
+     * Locks the requested products until the transaction ends. Always in id order, so that two
+     * requests sharing products cannot deadlock; unknown ids are left out.
+     */
+    static Map<Long, Product> lock(ProductRepository productRepository, Map<Long, Long> requested) {
+        Map<Long, Product> locked = new TreeMap<>();
+        productRepository.findAllForUpdateByIdIn(requested.keySet())
+                .forEach(product -> locked.put(product.getProductID(), product));
+        return locked;
+    }
+
+    static List<StockShortfallDTO> shortfalls(Map<Long, Long> requested, Map<Long, Product> locked) {
+        List<StockShortfallDTO> shortfalls = new ArrayList<>();
+        requested.forEach((productId, quantity) -> {
+            Product product = locked.get(productId);
+            if (product == null) {
+                shortfalls.add(new StockShortfallDTO(productId, quantity, 0L, "Product Not Found with ID: " + productId));
+            } else if (product.getAvailableQuantity() < quantity) {
+                shortfalls.add(new StockShortfallDTO(productId, quantity, Math.max(0L, product.getAvailableQuantity()),
+                        "Insufficient stock for product ID: " + productId));
+            }
+        });
+        return shortfalls;
+    }
+}
@@ -0,0 +1,536 @@
+package org.genc.sneakoapp.productmanagementservice.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.productmanagementservice.dto.HotSkuStatusDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.HotSkuLease;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.exception.ProductNotFoundException;
+import org.genc.sneakoapp.productmanagementservice.repo.HotSkuLeaseRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Flash-sale ("hot SKU") stock for products that get more decrements than one row lock can serialize.
+ * <p>
+ * A product in hot mode has part of its available stock leased to this instance: the leased units
+ * are added to the row's reservedQuantity, so holds, reservations and the normal decrement already
+ * treat them as gone. The units are spread over striped counters, a cache line each, and a sale is a
+ * compare-and-set on the stripe picked by the calling thread; the database is only visited to lease
+ * more when the stripes run dry. Units sold are counted per stripe, and a write-behind flusher moves
+ * them from reserved to sold on the row, one update per product and flush. Turning hot mode off
+ * flushes and gives the unsold rest of the lease back.
+ * <p>
+ * Every sale is appended to a {@link StockJournal} before it is reported. Leases, flushes and
+ * releases are counted in a {@link HotSkuLease} row in the same transaction as the product update, so
+ * after a crash the last journal and its lease rows say exactly how much was sold but not flushed
+ * (moved to sold) and how much was never sold (given back). Reconciling deletes the lease rows in the
+ * same transaction, so a journal is never applied twice. The journal is forced to disk before each
+ * flush; a machine (not process) crash can lose the sales of the last flush interval.
+ * <p>
+ * A journal can also be lost with its file, e.g. a container restarted without a volume. Its lease
+ * rows stop getting heartbeats, and once they are older than the orphaned-lease timeout any instance
+ * gives their unsold units back. Sales it had not flushed are not known then and are given back as
+ * well, so the timeout must be far longer than an instance can go without reaching the database.
+ */
+@Component
+@Slf4j
+public class HotSkuInventory {
+
+    // Cells per stripe, so that each stripe has a cache line of its own
+    private static final int PAD = 8;
+    private static final int UNITS = 0;
+    private static final int SOLD = 1;
+    private static final int IN_FLIGHT = 2;
+
+    private final ProductRepository productRepository;
+    private final HotSkuLeaseRepository hotSkuLeaseRepository;
+    private final ProductCache productCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalPath;
+    private final DataSize journalSize;
+    private final int stripes;
+    private final long leaseSize;
+    private final long soldOutBackoffNanos;
+    private final Duration orphanedLeaseTimeout;
+    private final Clock clock;
+    private final Map<Long, HotSku> skus = new ConcurrentHashMap<>();
+    private volatile StockJournal journal;
+
+    @Autowired
+    public HotSkuInventory(ProductRepository productRepository,
+                           HotSkuLeaseRepository hotSkuLeaseRepository,
+                           ProductCache productCache,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${genc.hot-sku.journal-path:data/hot-sku.journal}") String journalPath,
+                           @Value("${genc.hot-sku.journal-size:64MB}") DataSize journalSize,
+                           @Value("${genc.hot-sku.stripes:0}") int stripes,
+                           @Value("${genc.hot-sku.lease-size:200}") long leaseSize,
+                           @Value("${genc.hot-sku.sold-out-backoff:PT1S}") Duration soldOutBackoff,
+                           @Value("${genc.hot-sku.orphaned-lease-timeout:PT30M}") Duration orphanedLeaseTimeout) {
+        this(productRepository, hotSkuLeaseRepository, productCache, transactionManager, journalPath, journalSize,
+                stripes, leaseSize, soldOutBackoff, orphanedLeaseTimeout, Clock.systemUTC());
+    }
+
+    public HotSkuInventory(ProductRepository productRepository, HotSkuLeaseRepository hotSkuLeaseRepository,
+                           ProductCache productCache, PlatformTransactionManager transactionManager,
+                           String journalPath, DataSize journalSize, int stripes, long leaseSize,
+                           Duration soldOutBackoff, Duration orphanedLeaseTimeout, Clock clock) {
+        this.productRepository = productRepository;
+        this.hotSkuLeaseRepository = hotSkuLeaseRepository;
+        this.productCache = productCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journalPath = Path.of(journalPath);
+        this.journalSize = journalSize;
+        int wanted = stripes > 0 ? stripes : 2 * Runtime.getRuntime().availableProcessors();
+        // A power of two, so that a stripe is picked with a mask
+        this.stripes = wanted == 1 ? 1 : Integer.highestOneBit(wanted - 1) << 1;
+        this.leaseSize = leaseSize;
+        this.soldOutBackoffNanos = soldOutBackoff.toNanos();
+        this.orphanedLeaseTimeout = orphanedLeaseTimeout;
+        this.clock = clock;
+    }
+
+    /**
+     * Settles what the journal of the previous run left outstanding, then starts a new journal. Hot
+     * mode cannot be turned on before this has run.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recover() {
+        if (journal != null) {
+            return;
+        }
+        try {
+            if (Files.exists(journalPath)) {
+                StockJournal.Replay replay = StockJournal.replay(journalPath);
+                if (replay.journalId() == null) {
+                    log.warn("Hot SKU journal {} has no header, ignored", journalPath);
+                } else {
+                    reconcile(replay);
+                }
+            }
+            journal = StockJournal.create(journalPath, journalSize.toBytes(), stripes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover hot SKU journal " + journalPath, e);
+        }
+        log.info("Hot SKU journal {} started at {} ({} stripes)", journal.id(), journalPath, stripes);
+    }
+
+    /**
+     * Puts a product in hot mode and leases its first units. Turning it on twice is harmless.
+     */
+    public synchronized void enable(Long productId) {
+        StockJournal current = journal;
+        if (current == null) {
+            throw new IllegalStateException("Hot SKU journal is not recovered yet");
+        }
+        if (skus.containsKey(productId)) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (productRepository.findStockByProductID(productId).isEmpty()) {
+                throw new ProductNotFoundException("Product Not Found with ID: " + productId);
+            }
+            // Kept when hot mode is turned off: the journal still holds the sales it counts against
+            if (!hotSkuLeaseRepository.existsByJournalIdAndProductId(current.id(), productId)) {
+                hotSkuLeaseRepository.save(HotSkuLease.builder().journalId(current.id()).productId(productId)
+                        .heartbeatAt(clock.instant()).build());
+            }
+        });
+        HotSku sku = new HotSku(productId, stripes);
+        skus.put(productId, sku);
+        // Up front, so that the opening burst finds stock in the stripes
+        sku.leaseLock.lock();
+        try {
+            sku.spread(lease(sku, leaseSize));
+        } finally {
+            sku.leaseLock.unlock();
+        }
+        log.info("Product {} is in hot SKU mode", productId);
+    }
+
+    /**
+     * Takes the product out of hot mode: waits for sales in progress, flushes what was sold and gives
+     * the unsold units back to the product.
+     */
+    public synchronized void disable(Long productId) {
+        HotSku sku = skus.remove(productId);
+        if (sku == null) {
+            return;
+        }
+        sku.active = false;
+        sku.awaitIdle();
+        StockJournal current = journal;
+        long sold = sku.drainSold();
+        current.force();
+        flush(sku, sold, current);
+        long unsold = sku.drain();
+        if (unsold > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.releaseHeldStock(productId, unsold);
+                    hotSkuLeaseRepository.addReleased(current.id(), productId, unsold);
+                    productCache.evictStockAfterCommit(productId);
+                });
+            } catch (RuntimeException e) {
+                log.error("Could not give back {} unsold units of product {}; they stay held until the next start",
+                        unsold, productId, e);
+            }
+        }
+        log.info("Product {} left hot SKU mode, {} unsold units given back", productId, unsold);
+    }
+
+    /**
+     * Sells {@code quantity} units of a product in hot mode without touching the database, unless
+     * the stripes need another lease. Returns null when the product is not in hot mode, and the caller
+     * should use the database. The remaining stock reported is what this instance can still sell: its
+     * unsold leased units plus the unleased stock seen at its last lease.
+     */
+    public StockDecrementResultDTO tryDecrement(Long productId, long quantity) {
+        HotSku sku = skus.get(productId);
+        if (sku == null) {
+            return null;
+        }
+        int home = homeStripe();
+        boolean journalFull = false;
+        sku.cells.getAndIncrement(home * PAD + IN_FLIGHT);
+        try {
+            // Read after announcing the sale: disable() either sees it in flight or this sees inactive
+            if (!sku.active) {
+                return null;
+            }
+            if (!sku.take(home, quantity)) {
+                if (sku.soldOut()) {
+                    return new StockDecrementResultDTO(productId, quantity, false, sku.remaining());
+                }
+                Refill refill = refillAndTake(sku, home, quantity);
+                if (refill == Refill.INACTIVE) {
+                    return null;
+                }
+                if (refill == Refill.SOLD_OUT) {
+                    return new StockDecrementResultDTO(productId, quantity, false, sku.remaining());
+                }
+            }
+            if (!journal.appendSale(home, productId, quantity)) {
+                sku.cells.getAndAdd(home * PAD + UNITS, quantity);
+                journalFull = true;
+                return null;
+            }
+            sku.cells.getAndAdd(home * PAD + SOLD, quantity);
+            return new StockDecrementResultDTO(productId, quantity, true, sku.remaining());
+        } finally {
+            sku.cells.getAndDecrement(home * PAD + IN_FLIGHT);
+            if (journalFull) {
+                // Unjournaled sales could not be recovered; the database takes over this product
+                log.warn("Hot SKU journal is full, product {} goes back to database decrements", productId);
+                disable(productId);
+            }
+        }
+    }
+
+    public HotSkuStatusDTO status(Long productId) {
+        HotSku sku = skus.get(productId);
+        if (sku == null) {
+            return new HotSkuStatusDTO(productId, false, 0L, 0L);
+        }
+        return new HotSkuStatusDTO(productId, true, sku.sum(UNITS), sku.sum(SOLD));
+    }
+
+    /**
+     * Units of the product leased to this instance and not sold yet: held on the row, but for sale
+     * here. Zero when the product is not hot.
+     */
+    public long leasedUnsold(Long productId) {
+        HotSku sku = skus.get(productId);
+        return sku != null ? sku.sum(UNITS) : 0L;
+    }
+
+    /**
+     * Writes what hot products sold since the last flush to their rows. Never runs alongside
+     * disable() or shutdown(), which flush and close the same journal.
+     */
+    @Scheduled(fixedDelayString = "${genc.hot-sku.flush-interval:PT1S}")
+    public synchronized void flush() {
+        StockJournal current = journal;
+        if (current == null || skus.isEmpty()) {
+            return;
+        }
+        Map<HotSku, Long> sold = new HashMap<>();
+        skus.values().forEach(sku -> sold.put(sku, sku.drainSold()));
+        // Every sale counted above was appended before this, so no sale reaches a row before the disk
+        current.force();
+        sold.forEach((sku, units) -> flush(sku, units, current));
+    }
+
+    /**
+     * Keeps the lease rows of this instance's journal alive, then gives back the unsold units of
+     * leases whose journal stopped sending heartbeats.
+     */
+    @Scheduled(fixedDelayString = "${genc.hot-sku.heartbeat-interval:PT1M}")
+    public int releaseOrphanedLeases() {
+        StockJournal current = journal;
+        if (current == null) {
+            // Not recovered yet: the rows of this instance's last journal are settled from its file
+            return 0;
+        }
+        Instant now = clock.instant();
+        transactionTemplate.executeWithoutResult(status -> hotSkuLeaseRepository.heartbeat(current.id(), now));
+        Integer released = transactionTemplate.execute(status -> {
+            List<HotSkuLease> orphaned = claim(hotSkuLeaseRepository.findOrphanedIds(current.id(),
+                    now.minus(orphanedLeaseTimeout)));
+            Map<Long, Long> unsold = new TreeMap<>();
+            for (HotSkuLease lease : orphaned) {
+                long units = lease.getLeased() - lease.getReleased() - lease.getFlushed();
+                if (units > 0) {
+                    unsold.merge(lease.getProductId(), units, Long::sum);
+                }
+                log.warn("Hot SKU journal {} is gone: product {} gets {} units back, including sales it did not flush",
+                        lease.getJournalId(), lease.getProductId(), Math.max(0L, units));
+            }
+            // One update per product, in id order
+            unsold.forEach((productId, units) -> {
+                productRepository.releaseHeldStock(productId, units);
+                productCache.evictStockAfterCommit(productId);
+            });
+            return orphaned.size();
+        });
+        return released != null ? released : 0;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() throws IOException {
+        List.copyOf(skus.keySet()).forEach(this::disable);
+        StockJournal current = journal;
+        journal = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void flush(HotSku sku, long sold, StockJournal current) {
+        if (sold == 0) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                productRepository.confirmHeldStock(sku.productId, sold);
+                hotSkuLeaseRepository.addFlushed(current.id(), sku.productId, sold);
+                productCache.evictStockAfterCommit(sku.productId);
+            });
+        } catch (RuntimeException e) {
+            // Counted again by the next flush
+            sku.cells.getAndAdd(SOLD, sold);
+            log.warn("Could not flush {} sold units of product {}", sold, sku.productId, e);
+        }
+    }
+
+    private Refill refillAndTake(HotSku sku, int home, long quantity) {
+        sku.leaseLock.lock();
+        try {
+            if (!sku.active) {
+                return Refill.INACTIVE;
+            }
+            // Another thread may have leased while this one waited
+            if (sku.take(home, quantity)) {
+                return Refill.TAKEN;
+            }
+            // The quantity may be more than any one stripe has left
+            long units = sku.drain();
+            if (units < quantity && !sku.soldOut()) {
+                try {
+                    units += lease(sku, Math.max(leaseSize, quantity - units));
+                } catch (RuntimeException e) {
+                    sku.spread(units);
+                    throw e;
+                }
+            }
+            if (units < quantity) {
+                sku.spread(units);
+                return Refill.SOLD_OUT;
+            }
+            sku.spread(units - quantity);
+            return Refill.TAKEN;
+        } finally {
+            sku.leaseLock.unlock();
+        }
+    }
+
+    // Moves up to wanted units of available stock into the lease; callers hold the lease lock
+    private long lease(HotSku sku, long wanted) {
+        long[] seen = new long[2];
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Product> locked = productRepository.findAllForUpdateByIdIn(List.of(sku.productId));
+            long available = locked.isEmpty() ? 0L : locked.get(0).getAvailableQuantity();
+            long units = Math.min(wanted, available);
+            if (units > 0) {
+                productRepository.holdStock(sku.productId, units);
+                hotSkuLeaseRepository.addLeased(journal.id(), sku.productId, units);
+                productCache.evictStockAfterCommit(sku.productId);
+            }
+            seen[0] = units;
+            seen[1] = available - units;
+        });
+        sku.unleased = seen[1];
+        if (seen[0] == 0) {
+            // Every request would otherwise queue for the lock and read the row again
+            sku.soldOutUntil = System.nanoTime() + soldOutBackoffNanos;
+        }
+        return seen[0];
+    }
+
+    private void reconcile(StockJournal.Replay replay) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<HotSkuLease> leases = claim(hotSkuLeaseRepository.findByJournalIdOrderByProductId(replay.journalId())
+                    .stream().map(HotSkuLease::getId).toList());
+            leases.sort(Comparator.comparing(HotSkuLease::getProductId));
+            for (HotSkuLease lease : leases) {
+                long sold = Math.max(replay.sold(lease.getProductId()), lease.getFlushed());
+                long unflushed = sold - lease.getFlushed();
+                long unsold = Math.max(0L, lease.getLeased() - lease.getReleased() - sold);
+                if (unflushed > 0) {
+                    productRepository.confirmHeldStock(lease.getProductId(), unflushed);
+                    productCache.evictStockAfterCommit(lease.getProductId());
+                }
+                if (unsold > 0) {
+                    productRepository.releaseHeldStock(lease.getProductId(), unsold);
+                    productCache.evictStockAfterCommit(lease.getProductId());
+                }
+                log.warn("Hot SKU journal {}: product {} had {} sold units not flushed and {} unsold units held",
+                        replay.journalId(), lease.getProductId(), unflushed, unsold);
+            }
+        });
+        if (replay.damaged() > 0) {
+            log.warn("Hot SKU journal {} had {} damaged records", replay.journalId(), replay.damaged());
+        }
+    }
+
+    /**
+     * Locks and deletes those of the given lease rows that still exist, returning them, so that a
+     * lease is settled once when recovery and the orphan sweep of another instance race.
+     */
+    private List<HotSkuLease> claim(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<HotSkuLease> claimed = new ArrayList<>(hotSkuLeaseRepository.findAllForUpdateByIdIn(ids));
+        if (!claimed.isEmpty()) {
+            hotSkuLeaseRepository.deleteByIdIn(claimed.stream().map(HotSkuLease::getId).toList());
+        }
+        return claimed;
+    }
+
+    private int homeStripe() {
+        return (int) (Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L >>> 32) & (stripes - 1);
+    }
+
+    private enum Refill {
+        TAKEN, SOLD_OUT, INACTIVE
+    }
+
+    private static final class HotSku {
+        private final Long productId;
+        private final int stripes;
+        // Per stripe: unsold leased units, sold units not yet flushed, sales in progress
+        private final AtomicLongArray cells;
+        private final ReentrantLock leaseLock = new ReentrantLock();
+        private volatile boolean active = true;
+        private volatile long unleased;
+        private volatile long soldOutUntil = System.nanoTime();
+
+        private HotSku(Long productId, int stripes) {
+            this.productId = productId;
+            this.stripes = stripes;
+            this.cells = new AtomicLongArray(stripes * PAD);
+        }
+
+        // From the home stripe, or the first other one with enough units
+        private boolean take(int home, long quantity) {
+            for (int i = 0; i < stripes; i++) {
+                int at = ((home + i) & (stripes - 1)) * PAD + UNITS;
+                long units = cells.get(at);
+                while (units >= quantity) {
+                    long witness = cells.compareAndExchange(at, units, units - quantity);
+                    if (witness == units) {
+                        return true;
+                    }
+                    units = witness;
+                }
+            }
+            return false;
+        }
+
+        private void spread(long units) {
+            for (int s = 0; s < stripes; s++) {
+                long share = units / stripes + (s < units % stripes ? 1 : 0);
+                if (share > 0) {
+                    cells.getAndAdd(s * PAD + UNITS, share);
+                }
+            }
+        }
+
+        private long drain() {
+            long units = 0;
+            for (int s = 0; s < stripes; s++) {
+                units += cells.getAndSet(s * PAD + UNITS, 0);
+            }
+            return units;
+        }
+
+        private long drainSold() {
+            long sold = 0;
+            for (int s = 0; s < stripes; s++) {
+                sold += cells.getAndSet(s * PAD + SOLD, 0);
+            }
+            return sold;
+        }
+
+        private long sum(int cell) {
+            long total = 0;
+            for (int s = 0; s < stripes; s++) {
+                total += cells.get(s * PAD + cell);
+            }
+            return total;
+        }
+
+        private long remaining() {
+            return sum(UNITS) + unleased;
+        }
+
+        private boolean soldOut() {
+            return System.nanoTime() - soldOutUntil < 0;
+        }
+
+        private void awaitIdle() {
+            while (sum(IN_FLIGHT) > 0) {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.genc.sneakoapp.productmanagementservice.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.productmanagementservice.dto.ProductDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductStockView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Read-through cache for product reads, in three parts:
+ * <ul>
+ *     <li>product details (name, price, category, ...) by id, kept for the long TTL;</li>
+ *     <li>stock levels by id (on hand, and available: not held for a checkout or a flash sale), kept
+ *     for the much shorter stock TTL and re-read with a stock-only query, so a cached product never
+ *     shows a stock level older than that;</li>
+ *     <li>listing pages, cached as the product ids on the page plus the total, and filled from the
+ *     details cache.</li>
+ * </ul>
+ * ProductServiceImpl evicts entries after each write. Eviction is local to this instance; on other
+ * instances the TTLs bound how long a change stays invisible. A product whose stock row is gone is
+ * treated as deleted. Hits, misses, evictions, load times and the hit ratio are published under the
+ * "product.details", "product.stock" and "product.pages" cache names.
+ */
+@Component
+@Slf4j
+public class ProductCache implements MeterBinder {
+
+    private static final String DETAILS_CACHE = "product.details";
+    private static final String STOCK_CACHE = "product.stock";
+    private static final String PAGES_CACHE = "product.pages";
+
+    private final ProductRepository productRepository;
+    private final LoadingCache<Long, Stock> stock;
+    private final LoadingCache<Long, ProductDTO> products;
+    private final Cache<PageKey, CachedPage> pages;
+
+    public ProductCache(ProductRepository productRepository,
+                        @Value("${genc.product-cache.max-size:10000}") long maxSize,
+                        @Value("${genc.product-cache.ttl:PT10M}") Duration ttl,
+                        @Value("${genc.product-cache.stock-ttl:PT5S}") Duration stockTtl,
+                        @Value("${genc.product-cache.page-max-size:1000}") long pageMaxSize,
+                        @Value("${genc.product-cache.page-ttl:PT1M}") Duration pageTtl) {
+        this.productRepository = productRepository;
+        this.stock = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(stockTtl)
+                .recordStats()
+                .build(new CacheLoader<Long, Stock>() {
+                    @Override
+                    public Stock load(Long id) {
+                        return loadStock(List.of(id)).get(id);
+                    }
+
+                    @Override
+                    public Map<Long, Stock> loadAll(Set<? extends Long> ids) {
+                        return loadStock(ids);
+                    }
+                });
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(new CacheLoader<Long, ProductDTO>() {
+                    @Override
+                    public ProductDTO load(Long id) {
+                        return productRepository.findById(id).map(ProductCache.this::loaded).orElse(null);
+                    }
+
+                    @Override
+                    public Map<Long, ProductDTO> loadAll(Set<? extends Long> ids) {
+                        Map<Long, ProductDTO> loaded = new HashMap<>();
+                        for (Product product : productRepository.findAllWithCategoryByIdIn(Set.copyOf(ids))) {
+                            loaded.put(product.getProductID(), loaded(product));
+                        }
+                        return loaded;
+                    }
+                });
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(pageMaxSize)
+                .expireAfterWrite(pageTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The product with its current stock level, loading it only on a miss; empty when it does not exist.
+     */
+    public Optional<ProductDTO> get(Long id) {
+        ProductDTO product = products.get(id);
+        if (product == null) {
+            return Optional.empty();
+        }
+        Stock current = stock.get(id);
+        if (current == null) {
+            products.invalidate(id);
+            return Optional.empty();
+        }
+        return Optional.of(withStock(product, current));
+    }
+
+    /**
+     * The products that exist among {@code ids}, in the order given, with one query for all misses
+     * and one for all stale stock levels.
+     */
+    public List<ProductDTO> getAll(Collection<Long> ids) {
+        Map<Long, ProductDTO> found = products.getAll(ids);
+        Map<Long, Stock> levels = stock.getAll(found.keySet());
+        List<ProductDTO> result = new ArrayList<>(found.size());
+        found.forEach((id, product) -> {
+            Stock current = levels.get(id);
+            if (current == null) {
+                products.invalidate(id);
+            } else {
+                result.add(withStock(product, current));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * A listing page. Which products are on it is cached for the page TTL; the products themselves
+     * come from the details and stock caches.
+     */
+    public Page<ProductDTO> getPage(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return productRepository.findAll(pageable).map(ProductDTO::new);
+        }
+        PageKey key = new PageKey(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        CachedPage page = pages.get(key, k -> {
+            Page<Long> ids = productRepository.findPageIds(pageable);
+            return new CachedPage(List.copyOf(ids.getContent()), ids.getTotalElements());
+        });
+        return new PageImpl<>(getAll(page.ids()), pageable, page.total());
+    }
+
+    /**
+     * Evicts the product, its stock level and all listing pages (name, price or membership may have
+     * changed) once the current transaction commits, or right away outside a transaction.
+     */
+    public void evictProductAfterCommit(Long id) {
+        afterCommit(() -> {
+            products.invalidate(id);
+            stock.invalidate(id);
+            pages.invalidateAll();
+            log.debug("Evicted cached product {}", id);
+        });
+    }
+
+    /**
+     * Evicts only the stock level of the product, for writes that change nothing else.
+     */
+    public void evictStockAfterCommit(Long id) {
+        afterCommit(() -> stock.invalidate(id));
+    }
+
+    /**
+     * Evicts all listing pages, e.g. after a product was added.
+     */
+    public void evictPagesAfterCommit() {
+        afterCommit(pages::invalidateAll);
+    }
+
+    public void evictAll() {
+        products.invalidateAll();
+        stock.invalidateAll();
+        pages.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        monitor(registry, products, DETAILS_CACHE);
+        monitor(registry, stock, STOCK_CACHE);
+        monitor(registry, pages, PAGES_CACHE);
+    }
+
+    private static <K, V> void monitor(MeterRegistry registry, Cache<K, V> cache, String name) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("Share of lookups served from the cache")
+                .register(registry);
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    // The row just read also carries the stock level, so the stock cache does not need a query of its own.
+    // A stock write racing with this load can put back an old level, but only for the stock TTL.
+    private ProductDTO loaded(Product product) {
+        stock.put(product.getProductID(), new Stock(product.getStockQuantity(), product.getAvailableQuantity()));
+        return new ProductDTO(product);
+    }
+
+    private Map<Long, Stock> loadStock(Collection<? extends Long> ids) {
+        Map<Long, Stock> levels = new HashMap<>();
+        for (ProductStockView view : productRepository.findStockByIdIn(Set.copyOf(ids))) {
+            levels.put(view.getProductID(), new Stock(view.getStockQuantity(), view.availableQuantity()));
+        }
+        return levels;
+    }
+
+    private static ProductDTO withStock(ProductDTO product, Stock current) {
+        // A copy, so callers cannot change what other requests get from the cache
+        return new ProductDTO(product.getProductID(), product.getImageUrl(), product.getProductName(),
+                product.getDescription(), product.getPrice(), current.quantity(), current.available(),
+                product.getCategoryName());
+    }
+
+    // The stock column is nullable and Caffeine does not store nulls
+    private record Stock(Long quantity, long available) {
+    }
+
+    private record PageKey(int page, int size, Sort sort) {
+    }
+
+    private record CachedPage(List<Long> ids, long total) {
+    }
+}
@@ -0,0 +1,186 @@
+package org.genc.sneakoapp.productmanagementservice.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Append-only log of hot SKU sales in a memory-mapped file. Each sale is one 24-byte record (product
+ * id, quantity, check value, type) written straight into the mapping, so appending is a few stores,
+ * and what was appended survives the process dying. The file is split into one segment per counter
+ * stripe, each with its own write position, so that appends from different stripes do not contend.
+ * <p>
+ * The type is written last with release semantics: a record with a type is complete, and a slot
+ * claimed by a writer that died before finishing reads as empty. The first record holds the id of
+ * the journal, which ties it to the lease bookkeeping in the database.
+ */
+public final class StockJournal implements Closeable {
+
+    public static final int RECORD_BYTES = 24;
+
+    private static final int HEADER = 0x48534A31;
+    private static final int SALE = 1;
+    // Positions of different segments a cache line apart
+    private static final int PAD = 8;
+    private static final int READ_CHUNK_RECORDS = 4096;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final String id;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int segments;
+    private final long segmentBytes;
+    private final AtomicLongArray positions;
+
+    private StockJournal(String id, FileChannel channel, MappedByteBuffer buffer, int segments, long segmentBytes) {
+        this.id = id;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.segments = segments;
+        this.segmentBytes = segmentBytes;
+        this.positions = new AtomicLongArray(segments * PAD);
+    }
+
+    /**
+     * Starts a new, empty journal of about {@code sizeBytes} at {@code path}, replacing whatever was
+     * there; replay the old one first.
+     */
+    public static StockJournal create(Path path, long sizeBytes, int segments) throws IOException {
+        if (segments < 1 || sizeBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Journal size must be at most 2GB with at least one segment");
+        }
+        long segmentBytes = (sizeBytes - RECORD_BYTES) / segments / RECORD_BYTES * RECORD_BYTES;
+        if (segmentBytes < RECORD_BYTES) {
+            throw new IllegalArgumentException("Journal of " + sizeBytes + " bytes is too small for " + segments + " segments");
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, RECORD_BYTES + segmentBytes * segments);
+            UUID id = UUID.randomUUID();
+            write(buffer, 0, HEADER, id.getMostSignificantBits(), id.getLeastSignificantBits());
+            buffer.force();
+            return new StockJournal(id.toString(), channel, buffer, segments, segmentBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the sales recorded in the journal at {@code path}, totalled per product. Empty and
+     * damaged records are skipped; the journal id is null when the header is missing.
+     */
+    public static Replay replay(Path path) throws IOException {
+        Map<Long, Long> sold = new TreeMap<>();
+        String id = null;
+        int damaged = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer chunk = ByteBuffer.allocate(RECORD_BYTES * READ_CHUNK_RECORDS);
+            long offset = 0;
+            while (readFully(channel, chunk, offset)) {
+                for (int at = 0; at + RECORD_BYTES <= chunk.limit(); at += RECORD_BYTES, offset += RECORD_BYTES) {
+                    int type = (int) INT.get(chunk, at + 20);
+                    if (type == 0) {
+                        continue;
+                    }
+                    long first = (long) LONG.get(chunk, at);
+                    long second = (long) LONG.get(chunk, at + 8);
+                    if ((int) INT.get(chunk, at + 16) != check(type, first, second)) {
+                        damaged++;
+                    } else if (offset == 0 && type == HEADER) {
+                        id = new UUID(first, second).toString();
+                    } else if (offset > 0 && type == SALE && second > 0) {
+                        sold.merge(first, second, Long::sum);
+                    } else {
+                        damaged++;
+                    }
+                }
+            }
+        }
+        return new Replay(id, sold, damaged);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Records the sale of {@code quantity} units in the given segment; false when that segment is
+     * full and nothing was recorded.
+     */
+    public boolean appendSale(int segment, long productId, long quantity) {
+        int s = Math.floorMod(segment, segments);
+        long position = positions.getAndAdd(s * PAD, RECORD_BYTES);
+        if (position >= segmentBytes) {
+            return false;
+        }
+        write(buffer, (int) (RECORD_BYTES + s * segmentBytes + position), SALE, productId, quantity);
+        return true;
+    }
+
+    // Writes the mapped pages to disk, so that the records also survive the machine going down
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void write(ByteBuffer buffer, int at, int type, long first, long second) {
+        LONG.set(buffer, at, first);
+        LONG.set(buffer, at + 8, second);
+        INT.set(buffer, at + 16, check(type, first, second));
+        // Last: a reader that sees the type sees the whole record
+        INT.setRelease(buffer, at + 20, type);
+    }
+
+    private static int check(int type, long first, long second) {
+        long h = first * 0x9E3779B97F4A7C15L ^ second * 0xC2B2AE3D27D4EB4FL ^ type;
+        h ^= h >>> 29;
+        return (int) (h ^ h >>> 32) | 1;
+    }
+
+    // Reads whole records from offset on into chunk; false at the end of the file
+    private static boolean readFully(FileChannel channel, ByteBuffer chunk, long offset) throws IOException {
+        chunk.clear();
+        while (chunk.hasRemaining()) {
+            if (channel.read(chunk, offset + chunk.position()) < 0) {
+                break;
+            }
+        }
+        chunk.flip();
+        chunk.limit(chunk.limit() - chunk.limit() % RECORD_BYTES);
+        return chunk.hasRemaining();
+    }
+
+    /**
+     * What a journal says: its id, and the units sold per product.
+     */
+    public record Replay(String journalId, Map<Long, Long> sold, int damaged) {
+
+        public long sold(Long productId) {
+            return sold.getOrDefault(productId, 0L);
+        }
+    }
+}
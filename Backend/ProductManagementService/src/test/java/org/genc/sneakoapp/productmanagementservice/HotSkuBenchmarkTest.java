@@ -0,0 +1,139 @@
+package org.genc.sneakoapp.productmanagementservice;
+
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.repo.HotSkuLeaseRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.service.api.CategoryService;
+import org.genc.sneakoapp.productmanagementservice.service.impl.ProductServiceImpl;
+import org.genc.sneakoapp.productmanagementservice.util.HotSkuInventory;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Decrements per second on one product through reduceStock, first with the conditional UPDATE on
+ * the row, then in hot SKU mode with the flusher running, on an in-memory H2 database. H2 is much
+ * faster than a networked MySQL, so the gap in production is wider. Only runs with -Dbenchmark=true:
+ * mvn test -Dtest=HotSkuBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hotbench;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HotSkuBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int DECREMENTS_PER_THREAD = 2_000;
+    private static final long INITIAL_STOCK = 1_000_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotSkuLeaseRepository hotSkuLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path journals;
+
+    @Test
+    void measureDecrementThroughput() throws Exception {
+        ProductCache productCache = new ProductCache(productRepository, 100, Duration.ofMinutes(10),
+                Duration.ofSeconds(5), 100, Duration.ofMinutes(1));
+        HotSkuInventory inventory = new HotSkuInventory(productRepository, hotSkuLeaseRepository, productCache,
+                transactionManager, journals.resolve("bench.journal").toString(), DataSize.ofMegabytes(64), 0,
+                1_000, Duration.ofSeconds(1), Duration.ofMinutes(30));
+        inventory.recover();
+        ProductServiceImpl productService = new ProductServiceImpl(productRepository, mock(CategoryService.class),
+                productCache, inventory, new TransactionTemplate(transactionManager));
+
+        Long databaseProduct = saveProduct();
+        double databaseRate = decrementsPerSecond(productService, databaseProduct);
+
+        Long hotProduct = saveProduct();
+        inventory.enable(hotProduct);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(inventory::flush, 100, 100, TimeUnit.MILLISECONDS);
+        double hotRate = decrementsPerSecond(productService, hotProduct);
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        inventory.disable(hotProduct);
+
+        System.out.printf("%d threads, %d single-unit decrements on one product: database %.0f/s, hot SKU %.0f/s (%.1fx)%n",
+                THREADS, THREADS * DECREMENTS_PER_THREAD, databaseRate, hotRate, hotRate / databaseRate);
+        long sold = (long) THREADS * DECREMENTS_PER_THREAD;
+        assertThat(productRepository.findById(databaseProduct).orElseThrow().getStockQuantity()).isEqualTo(INITIAL_STOCK - sold);
+        Product hot = productRepository.findById(hotProduct).orElseThrow();
+        assertThat(hot.getStockQuantity()).isEqualTo(INITIAL_STOCK - sold);
+        assertThat(hot.getReservedQuantity()).isZero();
+    }
+
+    private double decrementsPerSecond(ProductServiceImpl productService, Long productId) {
+        AtomicInteger succeeded = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(THREADS);
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        for (int c = 0; c < THREADS; c++) {
+            runs.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < DECREMENTS_PER_THREAD; i++) {
+                    StockDecrementResultDTO result = productService.reduceStock(productId, 1L);
+                    if (result.isSuccess()) {
+                        succeeded.incrementAndGet();
+                    }
+                }
+            }, clients));
+        }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        clients.shutdown();
+        assertThat(succeeded.get()).isEqualTo(THREADS * DECREMENTS_PER_THREAD);
+        return succeeded.get() / seconds;
+    }
+
+    private Long saveProduct() {
+        return productRepository.save(Product.builder()
+                .productName("Limited drop")
+                .description("desc")
+                .imageUrl("http://image.png")
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(INITIAL_STOCK)
+                .build()).getProductID();
+    }
+}
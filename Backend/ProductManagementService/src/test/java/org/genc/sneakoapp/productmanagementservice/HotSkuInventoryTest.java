@@ -0,0 +1,328 @@
+package org.genc.sneakoapp.productmanagementservice;
+
+import org.genc.sneakoapp.productmanagementservice.dto.HotSkuStatusDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.exception.ProductNotFoundException;
+import org.genc.sneakoapp.productmanagementservice.repo.HotSkuLeaseRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.util.HotSkuInventory;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Hot SKU mode against an in-memory H2 database: leases show up as reserved stock, sales reach the
+ * product row only when flushed, and a run that died without flushing is settled from its journal,
+ * once, or released by another instance when its journal is gone. A "crash" is an inventory that is
+ * simply dropped without being shut down.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hotsku;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HotSkuInventoryTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotSkuLeaseRepository hotSkuLeaseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path journals;
+
+    @BeforeEach
+    void setUp() {
+        hotSkuLeaseRepository.deleteAll();
+    }
+
+    @Test
+    void testEnable_leasesIntoReservedStock() {
+        Long productId = saveProduct(100L);
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 30);
+
+        inventory.enable(productId);
+
+        assertStock(productId, 100L, 30L);
+        HotSkuStatusDTO status = inventory.status(productId);
+        assertThat(status.isHot()).isTrue();
+        assertThat(status.getLeasedUnsold()).isEqualTo(30L);
+        assertThat(inventory.leasedUnsold(productId)).isEqualTo(30L);
+    }
+
+    @Test
+    void testEnable_unknownProduct_throwsException() {
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 30);
+
+        assertThrows(ProductNotFoundException.class, () -> inventory.enable(999_999L));
+        assertThat(inventory.status(999_999L).isHot()).isFalse();
+    }
+
+    @Test
+    void testTryDecrement_notHot_returnsNull() {
+        Long productId = saveProduct(100L);
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 30);
+
+        assertThat(inventory.tryDecrement(productId, 1L)).isNull();
+        assertStock(productId, 100L, 0L);
+    }
+
+    @Test
+    void testFlush_movesSoldUnitsFromReservedToSold() {
+        Long productId = saveProduct(100L);
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 30);
+        inventory.enable(productId);
+
+        StockDecrementResultDTO result = inventory.tryDecrement(productId, 5L);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getRemainingStock()).isEqualTo(95L);
+        // Write-behind: the row has not seen the sale yet, but nobody else can sell those units
+        assertStock(productId, 100L, 30L);
+        assertThat(inventory.status(productId).getSoldUnflushed()).isEqualTo(5L);
+
+        inventory.flush();
+
+        assertStock(productId, 95L, 25L);
+        assertThat(inventory.status(productId).getSoldUnflushed()).isZero();
+    }
+
+    @Test
+    void testTryDecrement_soldOut_refusesWithoutOverselling() {
+        Long productId = saveProduct(5L);
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 50);
+        inventory.enable(productId);
+
+        assertThat(inventory.tryDecrement(productId, 3L).isSuccess()).isTrue();
+        assertThat(inventory.tryDecrement(productId, 2L).isSuccess()).isTrue();
+        StockDecrementResultDTO refused = inventory.tryDecrement(productId, 1L);
+
+        assertThat(refused.isSuccess()).isFalse();
+        assertThat(refused.getRemainingStock()).isZero();
+        inventory.flush();
+        assertStock(productId, 0L, 0L);
+    }
+
+    @Test
+    void testDisable_flushesAndGivesUnsoldUnitsBack() {
+        Long productId = saveProduct(100L);
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 30);
+        inventory.enable(productId);
+        inventory.tryDecrement(productId, 7L);
+
+        inventory.disable(productId);
+
+        assertStock(productId, 93L, 0L);
+        assertThat(inventory.tryDecrement(productId, 1L)).isNull();
+        assertThat(inventory.status(productId).isHot()).isFalse();
+    }
+
+    @Test
+    void testTryDecrement_concurrentSalesWithFlushesNeverOversell() throws Exception {
+        Long productId = saveProduct(2_000L);
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 50);
+        inventory.enable(productId);
+
+        AtomicBoolean selling = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (selling.get()) {
+                inventory.flush();
+            }
+        });
+        flusher.start();
+        AtomicLong taken = new AtomicLong();
+        AtomicInteger refused = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < 4_000; i++) {
+            runs.add(pool.submit(() -> {
+                long quantity = ThreadLocalRandom.current().nextLong(1, 4);
+                StockDecrementResultDTO result = inventory.tryDecrement(productId, quantity);
+                if (result.isSuccess()) {
+                    taken.addAndGet(quantity);
+                } else {
+                    refused.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        pool.shutdown();
+        selling.set(false);
+        flusher.join();
+        inventory.disable(productId);
+
+        // Every unit sold in memory reached the row exactly once, and the rest of the lease came back
+        assertThat(taken.get()).isBetween(1L, 2_000L);
+        assertStock(productId, 2_000L - taken.get(), 0L);
+        assertThat(refused.get()).isPositive();
+    }
+
+    @Test
+    void testShutdown_whileTheFlusherRuns_settlesEverySaleOnce() throws Exception {
+        Long productId = saveProduct(100L);
+        HotSkuInventory inventory = inventory(journals.resolve("a.journal"), 30);
+        inventory.enable(productId);
+        inventory.tryDecrement(productId, 6L);
+
+        AtomicBoolean flushing = new AtomicBoolean(true);
+        List<Throwable> failures = new ArrayList<>();
+        Thread flusher = new Thread(() -> {
+            try {
+                while (flushing.get()) {
+                    inventory.flush();
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+        flusher.start();
+        inventory.shutdown();
+        inventory.flush();
+        flushing.set(false);
+        flusher.join();
+
+        assertThat(failures).isEmpty();
+        assertStock(productId, 94L, 0L);
+    }
+
+    @Test
+    void testRecover_settlesACrashedRunOnce() throws Exception {
+        Long productId = saveProduct(100L);
+        Path crashed = journals.resolve("crashed.journal");
+        HotSkuInventory inventory = inventory(crashed, 30);
+        inventory.enable(productId);
+        inventory.tryDecrement(productId, 4L);
+        inventory.flush();
+        inventory.tryDecrement(productId, 3L);
+        assertStock(productId, 96L, 26L);
+
+        // Crash: nothing is flushed or given back; the next run finds the journal
+        Path restarted = Files.copy(crashed, journals.resolve("restarted.journal"));
+        Path again = Files.copy(crashed, journals.resolve("again.journal"));
+        inventory(restarted, 30);
+
+        assertStock(productId, 93L, 0L);
+        assertThat(hotSkuLeaseRepository.count()).isZero();
+
+        // The same journal found again, e.g. after dying before the new one was started
+        inventory(again, 30);
+
+        assertStock(productId, 93L, 0L);
+    }
+
+    @Test
+    void testReleaseOrphanedLeases_journalGone_givesUnsoldUnitsBack() {
+        Long productId = saveProduct(100L);
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        HotSkuInventory lost = inventory(journals.resolve("lost.journal"), 30, start);
+        lost.enable(productId);
+        lost.tryDecrement(productId, 4L);
+        lost.flush();
+        lost.tryDecrement(productId, 3L);
+        assertStock(productId, 96L, 26L);
+
+        // The instance is gone with its journal; another one sweeps before and after the timeout
+        HotSkuInventory early = inventory(journals.resolve("other.journal"), 30, start.plus(Duration.ofMinutes(29)));
+        assertThat(early.releaseOrphanedLeases()).isZero();
+        assertStock(productId, 96L, 26L);
+
+        HotSkuInventory late = inventory(journals.resolve("late.journal"), 30, start.plus(Duration.ofMinutes(31)));
+        assertThat(late.releaseOrphanedLeases()).isEqualTo(1);
+
+        // The unflushed sale is not known any more and comes back with the unsold units
+        assertStock(productId, 96L, 0L);
+        assertThat(hotSkuLeaseRepository.count()).isZero();
+        assertThat(late.releaseOrphanedLeases()).isZero();
+    }
+
+    @Test
+    void testReleaseOrphanedLeases_leasesWithinTheTimeoutAreKept() {
+        Long productId = saveProduct(100L);
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        HotSkuInventory live = inventory(journals.resolve("live.journal"), 30, start.plus(Duration.ofMinutes(20)));
+        HotSkuInventory other = inventory(journals.resolve("other.journal"), 30, start.plus(Duration.ofMinutes(40)));
+        live.enable(productId);
+
+        // Its own leases are never orphaned, whatever its clock says
+        assertThat(live.releaseOrphanedLeases()).isZero();
+        assertThat(other.releaseOrphanedLeases()).isZero();
+
+        assertStock(productId, 100L, 30L);
+        assertThat(live.status(productId).getLeasedUnsold()).isEqualTo(30L);
+    }
+
+    private HotSkuInventory inventory(Path journal, long leaseSize) {
+        return inventory(journal, leaseSize, Instant.now());
+    }
+
+    private HotSkuInventory inventory(Path journal, long leaseSize, Instant now) {
+        ProductCache productCache = new ProductCache(productRepository, 100, Duration.ofMinutes(10),
+                Duration.ofSeconds(5), 100, Duration.ofMinutes(1));
+        HotSkuInventory inventory = new HotSkuInventory(productRepository, hotSkuLeaseRepository, productCache,
+                transactionManager, journal.toString(), DataSize.ofMegabytes(1), 4, leaseSize, Duration.ofSeconds(1),
+                Duration.ofMinutes(30), Clock.fixed(now, ZoneOffset.UTC));
+        inventory.recover();
+        return inventory;
+    }
+
+    private void assertStock(Long productId, long onHand, long reserved) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertThat(product.getStockQuantity()).isEqualTo(onHand);
+        assertThat(product.getReservedQuantity()).isEqualTo(reserved);
+    }
+
+    private Long saveProduct(Long stock) {
+        return productRepository.save(Product.builder()
+                .productName("Limited drop")
+                .description("desc")
+                .imageUrl("http://image.png")
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(stock)
+                .build()).getProductID();
+    }
+}
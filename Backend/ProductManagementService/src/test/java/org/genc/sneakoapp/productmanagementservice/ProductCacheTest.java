@@ -0,0 +1,175 @@
+package org.genc.sneakoapp.productmanagementservice;
+
+import org.genc.sneakoapp.productmanagementservice.dto.ProductDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Category;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductStockView;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCache productCache;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        productCache = cacheWithStockTtl(Duration.ofSeconds(5));
+
+        product = Product.builder()
+                .productID(1L)
+                .productName("Runner")
+                .description("desc")
+                .imageUrl("http://image.png")
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(10L)
+                .category(Category.builder().categoryID(1L).name("Shoes").build())
+                .build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    }
+
+    @Test
+    void testGet_loadsOnceThenServesFromCache() {
+        ProductDTO first = productCache.get(1L).orElseThrow();
+        ProductDTO second = productCache.get(1L).orElseThrow();
+
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        assertThat(second.getCategoryName()).isEqualTo("Shoes");
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, never()).findStockByIdIn(anyCollection());
+    }
+
+    @Test
+    void testGet_expiredStockIsReadAgainWithoutReloadingTheProduct() {
+        productCache = cacheWithStockTtl(Duration.ZERO);
+        when(productRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(stock(1L, 3L)));
+
+        assertThat(productCache.get(1L).orElseThrow().getStockQuantity()).isEqualTo(3L);
+        assertThat(productCache.get(1L).orElseThrow().getStockQuantity()).isEqualTo(3L);
+
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(2)).findStockByIdIn(anyCollection());
+    }
+
+    @Test
+    void testGet_reportsStockHeldForCheckoutsAsUnavailable() {
+        product.setReservedQuantity(4L);
+        assertThat(productCache.get(1L).orElseThrow().getAvailableQuantity()).isEqualTo(6L);
+
+        when(productRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(stock(1L, 10L, 7L)));
+        productCache.evictStockAfterCommit(1L);
+
+        ProductDTO reread = productCache.get(1L).orElseThrow();
+        assertThat(reread.getStockQuantity()).isEqualTo(10L);
+        assertThat(reread.getAvailableQuantity()).isEqualTo(3L);
+    }
+
+    @Test
+    void testGet_productWithoutStockRowIsTreatedAsDeleted() {
+        productCache = cacheWithStockTtl(Duration.ZERO);
+
+        assertThat(productCache.get(1L)).isEmpty();
+    }
+
+    @Test
+    void testGet_unknownProductIsNotCached() {
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThat(productCache.get(99L)).isEmpty();
+        assertThat(productCache.get(99L)).isEmpty();
+
+        verify(productRepository, times(2)).findById(99L);
+    }
+
+    @Test
+    void testEvictStockAfterCommit_withoutTransactionKeepsDetails() {
+        productCache.get(1L);
+        when(productRepository.findStockByIdIn(anyCollection())).thenReturn(List.of(stock(1L, 4L)));
+
+        productCache.evictStockAfterCommit(1L);
+
+        assertThat(productCache.get(1L).orElseThrow().getStockQuantity()).isEqualTo(4L);
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testEvictProductAfterCommit_withoutTransactionReloads() {
+        productCache.get(1L);
+        product.setPrice(BigDecimal.valueOf(80));
+
+        productCache.evictProductAfterCommit(1L);
+
+        assertThat(productCache.get(1L).orElseThrow().getPrice()).isEqualByComparingTo("80");
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testGetPage_cachesPageIdsAndReusesCachedProducts() {
+        PageRequest pageable = PageRequest.of(0, 10);
+        Page<Long> ids = new PageImpl<>(List.of(1L), pageable, 1);
+        when(productRepository.findPageIds(pageable)).thenReturn(ids);
+        when(productRepository.findAllWithCategoryByIdIn(anyCollection())).thenReturn(List.of(product));
+
+        productCache.get(1L);
+        Page<ProductDTO> first = productCache.getPage(pageable);
+        Page<ProductDTO> second = productCache.getPage(pageable);
+
+        assertThat(second.getContent()).extracting(ProductDTO::getProductName).containsExactly("Runner");
+        assertThat(second.getTotalElements()).isEqualTo(first.getTotalElements()).isEqualTo(1);
+        verify(productRepository, times(1)).findPageIds(pageable);
+        verify(productRepository, never()).findAllWithCategoryByIdIn(anyCollection());
+
+        productCache.evictPagesAfterCommit();
+        productCache.getPage(pageable);
+
+        verify(productRepository, times(2)).findPageIds(pageable);
+    }
+
+    private ProductCache cacheWithStockTtl(Duration stockTtl) {
+        return new ProductCache(productRepository, 100, Duration.ofMinutes(10), stockTtl, 100, Duration.ofMinutes(1));
+    }
+
+    private static ProductStockView stock(Long id, Long quantity) {
+        return stock(id, quantity, 0L);
+    }
+
+    private static ProductStockView stock(Long id, Long quantity, Long reserved) {
+        return new ProductStockView() {
+            @Override
+            public Long getProductID() {
+                return id;
+            }
+
+            @Override
+            public Long getStockQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Long getReservedQuantity() {
+                return reserved;
+            }
+        };
+    }
+}
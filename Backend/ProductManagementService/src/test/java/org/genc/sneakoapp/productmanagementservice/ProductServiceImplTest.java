@@ -1,19 +1,31 @@
 package org.genc.sneakoapp.productmanagementservice;
 
 import org.genc.sneakoapp.productmanagementservice.dto.ProductDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockShortfallDTO;
 import org.genc.sneakoapp.productmanagementservice.entity.Category;
 import org.genc.sneakoapp.productmanagementservice.entity.Product;
 import org.genc.sneakoapp.productmanagementservice.exception.ProductNotFoundException;
-import org.genc.sneakoapp.productmanagementservice.exception.InsufficientStockException;
+import org.genc.sneakoapp.productmanagementservice.exception.InvalidQuantityException;
 import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductStockView;
 import org.genc.sneakoapp.productmanagementservice.service.api.CategoryService;
 import org.genc.sneakoapp.productmanagementservice.service.impl.ProductServiceImpl;
+import org.genc.sneakoapp.productmanagementservice.util.HotSkuInventory;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -28,7 +40,9 @@ class ProductServiceImplTest {
     @Mock
     private CategoryService categoryService;
 
-    @InjectMocks
+    @Mock
+    private HotSkuInventory hotSkuInventory;
+
     private ProductServiceImpl productService;
 
     private Product product;
@@ -37,6 +51,10 @@ class ProductServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ProductCache productCache = new ProductCache(productRepository, 100, Duration.ofMinutes(10),
+                Duration.ofSeconds(5), 100, Duration.ofMinutes(1));
+        productService = new ProductServiceImpl(productRepository, categoryService, productCache, hotSkuInventory,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
 
         category = Category.builder().categoryID(1L).name("Shoes").build();
 
@@ -54,7 +72,7 @@ class ProductServiceImplTest {
     @Test
     void testCreateProduct_success() {
         ProductDTO dto = new ProductDTO(null, "http://image.png", "New Product", "desc",
-                BigDecimal.valueOf(50), 5L, "Shoes");
+                BigDecimal.valueOf(50), 5L, null, "Shoes");
 
         when(categoryService.findByCategoryEntityByName("Shoes")).thenReturn(category);
         when(productRepository.save(any(Product.class))).thenReturn(product);
@@ -68,7 +86,7 @@ class ProductServiceImplTest {
     @Test
     void testUpdateProduct_success() {
         ProductDTO dto = new ProductDTO(null, "http://new.png", "Updated Product", "new desc",
-                BigDecimal.valueOf(200), 20L, "Shoes");
+                BigDecimal.valueOf(200), 20L, null, "Shoes");
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
         when(categoryService.findByCategoryEntityByName("Shoes")).thenReturn(category);
@@ -113,6 +131,37 @@ class ProductServiceImplTest {
         assertThat(result.getProductName()).isEqualTo("Test Product");
     }
 
+    @Test
+    void testFindById_hotSku_unsoldLeaseStillAvailable() {
+        // 30 units leased to this instance, 2 of them sold: the row holds 30, 28 are still for sale here
+        product.setStockQuantity(40L);
+        product.setReservedQuantity(30L);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(hotSkuInventory.leasedUnsold(1L)).thenReturn(28L);
+
+        ProductDTO result = productService.findById(1L);
+
+        assertThat(result.getStockQuantity()).isEqualTo(40L);
+        assertThat(result.getAvailableQuantity()).isEqualTo(38L);
+    }
+
+    @Test
+    void testFindById_servedFromCacheUntilUpdated() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(any(Product.class))).thenReturn(product);
+
+        productService.findById(1L);
+        productService.findById(1L);
+        verify(productRepository, times(1)).findById(1L);
+
+        ProductDTO rename = new ProductDTO();
+        rename.setProductName("Renamed");
+        productService.updateProduct(1L, rename);
+
+        assertThat(productService.findById(1L).getProductName()).isEqualTo("Renamed");
+        verify(productRepository, times(3)).findById(1L);
+    }
+
     @Test
     void testFindById_notFound_throwsException() {
         when(productRepository.findById(99L)).thenReturn(Optional.empty());
@@ -120,6 +169,22 @@ class ProductServiceImplTest {
         assertThrows(ProductNotFoundException.class, () -> productService.findById(99L));
     }
 
+    @Test
+    void testFindByIds_singleBatchQuery() {
+        when(productRepository.findAllWithCategoryByIdIn(anyCollection())).thenReturn(List.of(product));
+
+        List<ProductDTO> result = productService.findByIds(List.of(1L, 1L, 99L));
+
+        assertThat(result).extracting(ProductDTO::getProductID).containsExactly(1L);
+        verify(productRepository, times(1)).findAllWithCategoryByIdIn(Set.of(1L, 99L));
+    }
+
+    @Test
+    void testFindByIds_emptyIds_noQuery() {
+        assertThat(productService.findByIds(List.of())).isEmpty();
+        verifyNoInteractions(productRepository);
+    }
+
     @Test
     void testTotalProduct_returnsCount() {
         when(productRepository.count()).thenReturn(5L);
@@ -131,27 +196,128 @@ class ProductServiceImplTest {
 
     @Test
     void testReduceStock_success() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(productRepository.decrementStock(1L, 5L)).thenReturn(1);
+        when(productRepository.findStockByProductID(1L)).thenReturn(Optional.of(stock(1L, 5L)));
 
-        productService.reduceStock(1L, 5L);
+        StockDecrementResultDTO result = productService.reduceStock(1L, 5L);
 
-        assertThat(product.getStockQuantity()).isEqualTo(5L);
-        verify(productRepository, times(1)).save(product);
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getRemainingStock()).isEqualTo(5L);
+        verify(productRepository, never()).save(any(Product.class));
     }
 
     @Test
-    void testReduceStock_insufficientStock_throwsException() {
-        product.setStockQuantity(2L);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+    void testReduceStock_insufficientStock_reportsShortfall() {
+        when(productRepository.decrementStock(1L, 5L)).thenReturn(0);
+        when(productRepository.findStockByProductID(1L)).thenReturn(Optional.of(stock(1L, 2L)));
 
-        assertThrows(InsufficientStockException.class, () -> productService.reduceStock(1L, 5L));
+        StockDecrementResultDTO result = productService.reduceStock(1L, 5L);
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getRemainingStock()).isEqualTo(2L);
+    }
+
+    @Test
+    void testReduceStock_insufficientStock_heldUnitsNotReportedAsRemaining() {
+        when(productRepository.decrementStock(1L, 3L)).thenReturn(0);
+        when(productRepository.findStockByProductID(1L)).thenReturn(Optional.of(stock(1L, 5L, 4L)));
+
+        StockDecrementResultDTO result = productService.reduceStock(1L, 3L);
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getRemainingStock()).isEqualTo(1L);
     }
 
     @Test
     void testReduceStock_productNotFound_throwsException() {
-        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+        when(productRepository.decrementStock(99L, 1L)).thenReturn(0);
+        when(productRepository.findStockByProductID(99L)).thenReturn(Optional.empty());
 
         assertThrows(ProductNotFoundException.class, () -> productService.reduceStock(99L, 1L));
     }
+
+    @Test
+    void testReduceStock_hotSku_soldWithoutTheDatabase() {
+        when(hotSkuInventory.tryDecrement(1L, 2L)).thenReturn(new StockDecrementResultDTO(1L, 2L, true, 48L));
+
+        StockDecrementResultDTO result = productService.reduceStock(1L, 2L);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getRemainingStock()).isEqualTo(48L);
+        verify(productRepository, never()).decrementStock(anyLong(), anyLong());
+        verify(productRepository, never()).findStockByProductID(anyLong());
+    }
+
+    @Test
+    void testReduceStock_nonPositiveQuantity_throwsException() {
+        assertThrows(InvalidQuantityException.class, () -> productService.reduceStock(1L, 0L));
+        assertThrows(InvalidQuantityException.class, () -> productService.reduceStock(1L, -3L));
+        verify(productRepository, never()).decrementStock(anyLong(), anyLong());
+    }
+
+    @Test
+    void testReserveStock_allAvailable_decrementsEveryItem() {
+        Product other = Product.builder().productID(2L).productName("Other").stockQuantity(3L).category(category).build();
+        when(productRepository.findAllForUpdateByIdIn(anyCollection())).thenReturn(List.of(product, other));
+
+        StockReservationResultDTO result = productService.reserveStock(List.of(
+                new StockReservationItemDTO(2L, 1L),
+                new StockReservationItemDTO(1L, 4L),
+                new StockReservationItemDTO(1L, 2L)));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getShortfalls()).isEmpty();
+        assertThat(result.getReserved()).extracting(StockDecrementResultDTO::getProductID).containsExactly(1L, 2L);
+        assertThat(product.getStockQuantity()).isEqualTo(4L);
+        assertThat(other.getStockQuantity()).isEqualTo(2L);
+        verify(productRepository).findAllForUpdateByIdIn(argThat(ids -> List.copyOf(ids).equals(List.of(1L, 2L))));
+    }
+
+    @Test
+    void testReserveStock_shortfall_changesNothing() {
+        Product other = Product.builder().productID(2L).productName("Other").stockQuantity(1L).category(category).build();
+        when(productRepository.findAllForUpdateByIdIn(anyCollection())).thenReturn(List.of(product, other));
+
+        StockReservationResultDTO result = productService.reserveStock(List.of(
+                new StockReservationItemDTO(1L, 5L),
+                new StockReservationItemDTO(2L, 2L),
+                new StockReservationItemDTO(99L, 1L)));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getReserved()).isEmpty();
+        assertThat(result.getShortfalls()).extracting(StockShortfallDTO::getProductId).containsExactly(2L, 99L);
+        assertThat(result.getShortfalls()).extracting(StockShortfallDTO::getAvailable).containsExactly(1L, 0L);
+        assertThat(product.getStockQuantity()).isEqualTo(10L);
+        assertThat(other.getStockQuantity()).isEqualTo(1L);
+    }
+
+    @Test
+    void testReserveStock_nonPositiveQuantity_throwsException() {
+        assertThrows(InvalidQuantityException.class,
+                () -> productService.reserveStock(List.of(new StockReservationItemDTO(1L, 0L))));
+        verify(productRepository, never()).findAllForUpdateByIdIn(anyCollection());
+    }
+
+    private static ProductStockView stock(Long id, Long quantity) {
+        return stock(id, quantity, 0L);
+    }
+
+    private static ProductStockView stock(Long id, Long quantity, Long reserved) {
+        return new ProductStockView() {
+            @Override
+            public Long getProductID() {
+                return id;
+            }
+
+            @Override
+            public Long getStockQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Long getReservedQuantity() {
+                return reserved;
+            }
+        };
+    }
 }
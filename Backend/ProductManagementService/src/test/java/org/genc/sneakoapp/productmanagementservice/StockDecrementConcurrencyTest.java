@@ -0,0 +1,154 @@
+package org.genc.sneakoapp.productmanagementservice;
+
+import org.genc.sneakoapp.productmanagementservice.dto.StockDecrementResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationResultDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.service.api.CategoryService;
+import org.genc.sneakoapp.productmanagementservice.service.impl.ProductServiceImpl;
+import org.genc.sneakoapp.productmanagementservice.util.HotSkuInventory;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Many concurrent checkouts, each in its own committed transaction, on an in-memory H2 database: the
+ * stock taken by the successful decrements and reservations must add up to exactly what left the
+ * shelf, it must never go negative, and reservations over the same products must not deadlock.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockDecrementConcurrencyTest {
+
+    private static final long INITIAL_STOCK = 2_000;
+    private static final int THREADS = 32;
+    private static final int DECREMENTS = 4_000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testReduceStock_concurrentDecrementsNeverOversell() throws Exception {
+        Long productId = saveProduct("Limited drop");
+        ProductServiceImpl productService = productService();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicLong taken = new AtomicLong();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < DECREMENTS; i++) {
+            runs.add(pool.submit(() -> {
+                long quantity = ThreadLocalRandom.current().nextLong(1, 4);
+                StockDecrementResultDTO result = transactionTemplate.execute(
+                        status -> productService.reduceStock(productId, quantity));
+                assertThat(result.getRemainingStock()).isNotNegative();
+                if (result.isSuccess()) {
+                    taken.addAndGet(quantity);
+                    succeeded.incrementAndGet();
+                } else {
+                    refused.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> run : runs) {
+            // Rethrows any failure from the worker, e.g. a lock timeout or a negative stock
+            run.get();
+        }
+        pool.shutdown();
+
+        Long remaining = productRepository.findById(productId).orElseThrow().getStockQuantity();
+        assertThat(remaining).isNotNegative();
+        assertThat(INITIAL_STOCK - remaining).isEqualTo(taken.get());
+        assertThat(succeeded.get() + refused.get()).isEqualTo(DECREMENTS);
+        // 4000 decrements of 1 to 3 units always ask for more than 2000, so some must be refused
+        assertThat(refused.get()).isPositive();
+    }
+
+    @Test
+    void testReserveStock_opposingItemOrdersNeitherDeadlockNorOversell() throws Exception {
+        Long left = saveProduct("Left shoe");
+        Long right = saveProduct("Right shoe");
+        ProductServiceImpl productService = productService();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        AtomicLong taken = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < DECREMENTS; i++) {
+            // Half the carts list the products one way round, half the other
+            List<StockReservationItemDTO> items = i % 2 == 0
+                    ? List.of(new StockReservationItemDTO(left, 1L), new StockReservationItemDTO(right, 1L))
+                    : List.of(new StockReservationItemDTO(right, 1L), new StockReservationItemDTO(left, 1L));
+            runs.add(pool.submit(() -> {
+                StockReservationResultDTO result = transactionTemplate.execute(
+                        status -> productService.reserveStock(items));
+                if (result.isSuccess()) {
+                    taken.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        pool.shutdown();
+
+        // All or none: both products lost exactly one unit per successful reservation
+        assertThat(productRepository.findById(left).orElseThrow().getStockQuantity()).isEqualTo(INITIAL_STOCK - taken.get());
+        assertThat(productRepository.findById(right).orElseThrow().getStockQuantity()).isEqualTo(INITIAL_STOCK - taken.get());
+        assertThat(taken.get()).isEqualTo(INITIAL_STOCK);
+    }
+
+    private Long saveProduct(String name) {
+        return productRepository.save(Product.builder()
+                .productName(name)
+                .description("desc")
+                .imageUrl("http://image.png")
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(INITIAL_STOCK)
+                .build()).getProductID();
+    }
+
+    private ProductServiceImpl productService() {
+        ProductCache productCache = new ProductCache(productRepository, 100, Duration.ofMinutes(10),
+                Duration.ofSeconds(5), 100, Duration.ofMinutes(1));
+        return new ProductServiceImpl(productRepository, mock(CategoryService.class), productCache,
+                mock(HotSkuInventory.class), new TransactionTemplate(transactionManager));
+    }
+}
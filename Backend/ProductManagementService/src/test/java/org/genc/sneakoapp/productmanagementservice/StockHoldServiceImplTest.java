@@ -0,0 +1,219 @@
+package org.genc.sneakoapp.productmanagementservice;
+
+import org.genc.sneakoapp.productmanagementservice.dto.StockAvailabilityDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockHoldResultDTO;
+import org.genc.sneakoapp.productmanagementservice.dto.StockReservationItemDTO;
+import org.genc.sneakoapp.productmanagementservice.entity.Product;
+import org.genc.sneakoapp.productmanagementservice.exception.StockHoldNotFoundException;
+import org.genc.sneakoapp.productmanagementservice.repo.ProductRepository;
+import org.genc.sneakoapp.productmanagementservice.repo.StockHoldRepository;
+import org.genc.sneakoapp.productmanagementservice.service.impl.StockHoldServiceImpl;
+import org.genc.sneakoapp.productmanagementservice.util.ProductCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Stock holds against an in-memory H2 database, each call in its own committed transaction.
+ * "later" is the same service with its clock moved past the hold TTL.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:holds;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql=INFO"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockHoldServiceImplTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Instant NOW = Instant.parse("2025-11-01T10:00:00Z");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockHoldRepository stockHoldRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private StockHoldServiceImpl stockHoldService;
+    private StockHoldServiceImpl later;
+
+    @BeforeEach
+    void setUp() {
+        stockHoldRepository.deleteAll();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        stockHoldService = service(NOW);
+        later = service(NOW.plus(TTL).plusSeconds(1));
+    }
+
+    @Test
+    void testHold_reducesAvailableButNotOnHand() {
+        Long productId = saveProduct(10L);
+
+        StockHoldResultDTO result = hold(stockHoldService, productId, 3L);
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getExpiresAt()).isEqualTo(NOW.plus(TTL));
+        StockAvailabilityDTO availability = stockHoldService.getAvailability(productId);
+        assertThat(availability.getStockQuantity()).isEqualTo(10L);
+        assertThat(availability.getReservedQuantity()).isEqualTo(3L);
+        assertThat(availability.getAvailableQuantity()).isEqualTo(7L);
+    }
+
+    @Test
+    void testHold_shortfallHoldsNothing() {
+        Long plenty = saveProduct(10L);
+        Long scarce = saveProduct(1L);
+
+        StockHoldResultDTO result = transactionTemplate.execute(status -> stockHoldService.hold(List.of(
+                new StockReservationItemDTO(plenty, 2L),
+                new StockReservationItemDTO(scarce, 2L))));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getShortfalls()).singleElement()
+                .satisfies(shortfall -> assertThat(shortfall.getProductId()).isEqualTo(scarce));
+        assertThat(stockHoldService.getAvailability(plenty).getReservedQuantity()).isZero();
+        assertThat(stockHoldRepository.count()).isZero();
+    }
+
+    @Test
+    void testHold_heldStockCannotBeSoldElsewhere() {
+        Long productId = saveProduct(5L);
+        hold(stockHoldService, productId, 4L);
+
+        assertThat(hold(stockHoldService, productId, 2L).isSuccess()).isFalse();
+        Integer decremented = transactionTemplate.execute(status -> productRepository.decrementStock(productId, 2L));
+        assertThat(decremented).isZero();
+    }
+
+    @Test
+    void testConfirm_movesHeldStockOffTheShelf() {
+        Long productId = saveProduct(10L);
+        String reservationId = hold(stockHoldService, productId, 3L).getReservationId();
+
+        transactionTemplate.executeWithoutResult(status -> stockHoldService.confirm(reservationId));
+
+        StockAvailabilityDTO availability = stockHoldService.getAvailability(productId);
+        assertThat(availability.getStockQuantity()).isEqualTo(7L);
+        assertThat(availability.getReservedQuantity()).isZero();
+        assertThat(availability.getAvailableQuantity()).isEqualTo(7L);
+        assertThrows(StockHoldNotFoundException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> stockHoldService.confirm(reservationId)));
+    }
+
+    @Test
+    void testRelease_givesStockBackAndIsIdempotent() {
+        Long productId = saveProduct(10L);
+        String reservationId = hold(stockHoldService, productId, 3L).getReservationId();
+
+        transactionTemplate.executeWithoutResult(status -> stockHoldService.release(reservationId));
+        transactionTemplate.executeWithoutResult(status -> stockHoldService.release(reservationId));
+
+        StockAvailabilityDTO availability = stockHoldService.getAvailability(productId);
+        assertThat(availability.getStockQuantity()).isEqualTo(10L);
+        assertThat(availability.getAvailableQuantity()).isEqualTo(10L);
+    }
+
+    @Test
+    void testReleaseExpired_expiredHoldIsSweptAndCannotBeConfirmed() {
+        Long productId = saveProduct(10L);
+        String reservationId = hold(stockHoldService, productId, 3L).getReservationId();
+
+        assertThrows(StockHoldNotFoundException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> later.confirm(reservationId)));
+        assertThat(stockHoldService.releaseExpired()).isZero();
+        assertThat(later.releaseExpired()).isEqualTo(1);
+
+        assertThat(later.getAvailability(productId).getAvailableQuantity()).isEqualTo(10L);
+        assertThat(stockHoldRepository.count()).isZero();
+    }
+
+    @Test
+    void testReleaseExpired_sweepsInBatches() {
+        Long productId = saveProduct(100L);
+        for (int i = 0; i < 25; i++) {
+            hold(stockHoldService, productId, 1L);
+        }
+
+        assertThat(later.releaseExpired()).isEqualTo(25);
+
+        assertThat(later.getAvailability(productId).getReservedQuantity()).isZero();
+    }
+
+    @Test
+    void testHold_concurrentHoldsOnOneProductNeverExceedStock() throws Exception {
+        Long productId = saveProduct(200L);
+        AtomicInteger held = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<Future<?>> runs = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            runs.add(pool.submit(() -> {
+                if (hold(stockHoldService, productId, 1L).isSuccess()) {
+                    held.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> run : runs) {
+            run.get();
+        }
+        pool.shutdown();
+
+        assertThat(held.get()).isEqualTo(200);
+        assertThat(stockHoldService.getAvailability(productId).getAvailableQuantity()).isZero();
+
+        later.releaseExpired();
+        assertThat(later.getAvailability(productId).getAvailableQuantity()).isEqualTo(200L);
+    }
+
+    private StockHoldResultDTO hold(StockHoldServiceImpl service, Long productId, Long quantity) {
+        return transactionTemplate.execute(status -> service.hold(List.of(new StockReservationItemDTO(productId, quantity))));
+    }
+
+    private Long saveProduct(Long stock) {
+        return productRepository.save(Product.builder()
+                .productName("Limited drop")
+                .description("desc")
+                .imageUrl("http://image.png")
+                .price(BigDecimal.valueOf(100))
+                .stockQuantity(stock)
+                .build()).getProductID();
+    }
+
+    private StockHoldServiceImpl service(Instant now) {
+        ProductCache productCache = new ProductCache(productRepository, 100, Duration.ofMinutes(10),
+                Duration.ofSeconds(5), 100, Duration.ofMinutes(1));
+        return new StockHoldServiceImpl(productRepository, stockHoldRepository, productCache, transactionManager,
+                TTL, 10, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -2,8 +2,10 @@ package org.genc.sneakoapp.usermanagementservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class UserManagementServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,67 @@
+package org.genc.sneakoapp.usermanagementservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dedicated pools for password hashing. BCrypt is deliberately slow and CPU bound, so logins run
+ * here instead of on Tomcat request threads: the pool is sized to the CPUs, the queue is bounded,
+ * and when both are full new logins are rejected right away (503) instead of piling up.
+ * Bulk imports hash on a pool of their own so that a migration cannot starve logins, and the
+ * database work that completes a login (issuing the refresh token) runs on a third pool, so that
+ * hashing threads never wait on the connection pool.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+    public static final String PASSWORD_IMPORT_EXECUTOR = "passwordImportExecutor";
+    public static final String LOGIN_COMPLETION_EXECUTOR = "loginCompletionExecutor";
+
+    @Bean(name = PASSWORD_HASHING_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(@Value("${genc.login.bcrypt.threads:0}") int threads,
+                                                      @Value("${genc.login.bcrypt.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("bcrypt-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * When the queue is full the importing request thread hashes the row itself, which slows the
+     * reader down to the pool's pace instead of failing the import.
+     */
+    @Bean(name = PASSWORD_IMPORT_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordImportExecutor(@Value("${genc.user-import.threads:0}") int threads,
+                                                     @Value("${genc.user-import.queue-capacity:1000}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("bcrypt-import-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Sized like the connection pool, which bounds the work anyway. When the queue is full the
+     * hashing thread issues the token itself, which slows logins down to the database's pace.
+     */
+    @Bean(name = LOGIN_COMPLETION_EXECUTOR, destroyMethod = "shutdown")
+    public ThreadPoolExecutor loginCompletionExecutor(@Value("${genc.login.completion.threads:10}") int threads,
+                                                      @Value("${genc.login.completion.queue-capacity:256}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory("login-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
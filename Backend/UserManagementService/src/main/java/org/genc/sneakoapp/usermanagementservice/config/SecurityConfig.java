@@ -5,6 +5,8 @@ import lombok.RequiredArgsConstructor;
 
 import org.genc.sneakoapp.usermanagementservice.filter.JwtAuthenticationFilter;
 import org.genc.sneakoapp.usermanagementservice.security.CustomAuthenticationEntryPoint;
+import org.genc.sneakoapp.usermanagementservice.security.RehashingBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -15,7 +17,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -60,6 +61,8 @@ public class SecurityConfig {
                         // Specific public endpoints for auth
                         .requestMatchers(HttpMethod.POST, BASE_SERVICE_PATH + "/login/**").permitAll()
                         .requestMatchers(HttpMethod.POST, BASE_SERVICE_PATH + "/register/**").permitAll()
+                        .requestMatchers(HttpMethod.POST, BASE_SERVICE_PATH + "/token/refresh", BASE_SERVICE_PATH + "/logout").permitAll()
+                        .requestMatchers(HttpMethod.GET, BASE_SERVICE_PATH + "/username-available").permitAll()
                         .requestMatchers( BASE_SERVICE_PATH + "/users/**").permitAll()
 
 
@@ -85,9 +88,10 @@ public class SecurityConfig {
     }
 
 
+    // Hashes made with another cost are re-hashed on the user's next successful login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${genc.security.bcrypt.strength:10}") int strength) {
+        return new RehashingBCryptPasswordEncoder(strength);
     }
 
     @Bean
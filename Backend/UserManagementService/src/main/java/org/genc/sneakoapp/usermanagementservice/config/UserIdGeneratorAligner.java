@@ -0,0 +1,58 @@
+package org.genc.sneakoapp.usermanagementservice.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * User ids used to come from an AUTO_INCREMENT column and now come from the "users" row of the
+ * id generator table. This moves that row past the highest existing id so that databases created
+ * under the old strategy keep working. It runs while the context is refreshed, once Hibernate has
+ * created the tables and before the web server starts, so no request (and no SeedDataLoader run)
+ * can create a user first.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class UserIdGeneratorAligner {
+
+    private static final String TABLE = User.ID_GENERATOR_TABLE;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM users", Long.class);
+        // A full block above the highest id is safe whichever end of the block the optimizer hands out first
+        long floor = maxId + User.ID_ALLOCATION_SIZE;
+        if (raiseTo(floor) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " (name, next_val) VALUES (?, ?)", User.ID_GENERATOR_KEY, floor);
+            log.info("Initialised user id generator at {}", floor);
+        } catch (DuplicateKeyException e) {
+            // Either it is already high enough or another instance inserted it first
+            raiseTo(floor);
+        }
+    }
+
+    private int raiseTo(long floor) {
+        int updated = jdbcTemplate.update("UPDATE " + TABLE + " SET next_val = ? WHERE name = ? AND next_val < ?",
+                floor, User.ID_GENERATOR_KEY, floor);
+        if (updated > 0) {
+            log.info("Moved user id generator to {}", floor);
+            return updated;
+        }
+        Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE + " WHERE name = ?",
+                Integer.class, User.ID_GENERATOR_KEY);
+        return rows == null ? 0 : rows;
+    }
+}
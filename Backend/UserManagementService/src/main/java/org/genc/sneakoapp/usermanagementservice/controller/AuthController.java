@@ -3,38 +3,45 @@ package org.genc.sneakoapp.usermanagementservice.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
+import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 
+import org.genc.sneakoapp.usermanagementservice.config.PasswordHashingConfig;
 import org.genc.sneakoapp.usermanagementservice.dto.AuthRequestDTO;
 import org.genc.sneakoapp.usermanagementservice.dto.AuthResponseDTO;
-import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
 import org.genc.sneakoapp.usermanagementservice.dto.ErrorResponse;
+import org.genc.sneakoapp.usermanagementservice.dto.RefreshTokenRequestDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.TokenRefreshResponseDTO;
+import org.genc.sneakoapp.usermanagementservice.exception.RoleMismatchException;
+import org.genc.sneakoapp.usermanagementservice.service.api.LoginService;
+import org.genc.sneakoapp.usermanagementservice.service.api.RefreshTokenService;
 import org.genc.sneakoapp.usermanagementservice.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
 @RestController
 @RequestMapping({"/api/v1/user-service"})
 @Slf4j
-@RequiredArgsConstructor
 public class AuthController {
-    private final AuthenticationManager authenticationManager;
+    private final LoginService loginService;
 
-    private final UserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
 
     private final JwtUtil jwtUtil;
 
+    private final Executor loginCompletionExecutor;
+
     @Value("${eureka.instance.instance-id}")
     private String instanceId;
     @Value("${spring.application.name}")
@@ -42,57 +49,77 @@ public class AuthController {
     @Value("${server.port}")
     private String serverPort;
 
-   @PostMapping("/login")
+    public AuthController(LoginService loginService, RefreshTokenService refreshTokenService, JwtUtil jwtUtil,
+                          @Qualifier(PasswordHashingConfig.LOGIN_COMPLETION_EXECUTOR) Executor loginCompletionExecutor) {
+        this.loginService = loginService;
+        this.refreshTokenService = refreshTokenService;
+        this.jwtUtil = jwtUtil;
+        this.loginCompletionExecutor = loginCompletionExecutor;
+    }
+
+    @PostMapping("/login")
     @Operation(security = {@SecurityRequirement(name = "")})
-    public ResponseEntity<?> login(@RequestBody AuthRequestDTO request , HttpServletRequest servletRequest) {
-        try {
-            authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-            );
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody AuthRequestDTO request, HttpServletRequest servletRequest) {
+        String requestUri = servletRequest.getRequestURI();
+        // Password checking runs on the bounded BCrypt pool; a full pool fails fast with 503 (ServiceBusyException).
+        // The refresh token insert then moves off that pool, so hashing threads never wait on the database.
+        return loginService.login(request.getUsername(), request.getPassword(), request.getRole())
+                .<ResponseEntity<?>>thenApplyAsync(user -> {
+                    String token = jwtUtil.generateToken(user);
+                    String refreshToken = refreshTokenService.issue(user.getId());
+
+                    AuthResponseDTO response = new AuthResponseDTO(token, user.getId(), user.getUsername(), user.getAddress(),
+                            request.getRole(), user.getEmail(), user.getPhone(), instanceId + appName, refreshToken);
 
-           /*  --- OPTIMIZATION START: Access authenticated principal ---
-             Retrieve the authenticated object from the SecurityContextHolder.
-             The Principal object contains the UserDetails that was just loaded by the DaoAuthenticationProvider.
-            CustomUserDetails user = (CustomUserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            --- OPTIMIZATION END ---
-            */
-            //If  your business requires  additional  Details
-           CustomUserDetails user = (CustomUserDetails) userDetailsService.loadUserByUsername(request.getUsername());
-            if (!user.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .anyMatch(auth -> auth.equalsIgnoreCase(request.getRole()))) {
-                log.warn("Role mismatch for user {}: expected {}, got {}", user.getUsername(), user.getAuthorities(), request.getRole());
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                        .body(ErrorResponse.of(
-                                HttpStatus.UNAUTHORIZED,
-                                "Role mismatch: unauthorized access",
-                                servletRequest.getRequestURI()
-                        ));
-            }
-            String token = jwtUtil.generateToken(user);
+                    log.info("Access from {} on port {} (instance: {})", appName, serverPort, instanceId);
+                    return ResponseEntity.ok(response);
+                }, loginCompletionExecutor)
+                .exceptionally(e -> loginFailure(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e,
+                        requestUri));
+    }
 
-            AuthResponseDTO response = new AuthResponseDTO(token,user.getId(), user.getUsername(), user.getAddress(),
-                  request.getRole(),  user.getEmail(), user.getPhone(),instanceId + appName);
+    /**
+     * Issues a new access JWT for a valid refresh token, without a password check. The refresh
+     * token is single use: the response carries its replacement.
+     */
+    @PostMapping("/token/refresh")
+    @Operation(security = {@SecurityRequirement(name = "")})
+    public ResponseEntity<TokenRefreshResponseDTO> refresh(@Valid @RequestBody RefreshTokenRequestDTO request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return ResponseEntity.ok(new TokenRefreshResponseDTO(jwtUtil.generateToken(rotation.user()), rotation.refreshToken()));
+    }
 
-            log.info("Access from {} on port {} (instance: {})", appName, serverPort, instanceId);
-            return ResponseEntity.ok(response);
+    @PostMapping("/logout")
+    @Operation(security = {@SecurityRequirement(name = "")})
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequestDTO request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
 
-        } catch (BadCredentialsException e) {
+    private ResponseEntity<?> loginFailure(Throwable e, String requestUri) {
+        if (e instanceof BadCredentialsException) {
             log.error("Invalid credentials: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ErrorResponse.of(
                             HttpStatus.UNAUTHORIZED,
                             "Invalid username or password",
-                            servletRequest.getRequestURI()
+                            requestUri
                     ));
-        } catch (Exception e) {
-            log.error("Authentication error: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+        }
+        if (e instanceof RoleMismatchException) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(ErrorResponse.of(
                             HttpStatus.UNAUTHORIZED,
-                            "Authentication error: " + e.getMessage(),
-                            servletRequest.getRequestURI()
+                            e.getMessage(),
+                            requestUri
                     ));
         }
+        log.error("Authentication error: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ErrorResponse.of(
+                        HttpStatus.UNAUTHORIZED,
+                        "Authentication error: " + e.getMessage(),
+                        requestUri
+                ));
     }
 }
@@ -9,14 +9,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.genc.sneakoapp.usermanagementservice.dto.ErrorResponse;
 import org.genc.sneakoapp.usermanagementservice.dto.UserRegistrationRequestDTO;
 import org.genc.sneakoapp.usermanagementservice.dto.UserRegistrationResponseDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.UsernameAvailabilityDTO;
 import org.genc.sneakoapp.usermanagementservice.exception.UserAlreadyExistsException;
 import org.genc.sneakoapp.usermanagementservice.service.api.UserMgmtService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 
@@ -58,4 +62,18 @@ public class RegistrationController {
                     ));
         }
     }
+
+    /**
+     * Live check for the sign-up form. Names that were never registered are answered from the
+     * in-memory username filter; only possible matches are looked up in the database. A name just
+     * registered on another instance may still be reported free; registration then rejects it.
+     */
+    @GetMapping("/username-available")
+    @Operation(summary = "Check whether a username is still free")
+    public ResponseEntity<UsernameAvailabilityDTO> isUsernameAvailable(@RequestParam String username) {
+        boolean available = !username.isBlank() && userMgmtService.isNewUser(username);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(new UsernameAvailabilityDTO(username, available));
+    }
 }
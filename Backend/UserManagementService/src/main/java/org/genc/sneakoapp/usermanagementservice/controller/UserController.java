@@ -1,15 +1,25 @@
 package org.genc.sneakoapp.usermanagementservice.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 
 import org.genc.sneakoapp.usermanagementservice.dto.UserDTO;
 import org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.UserPageDTO;
 import org.genc.sneakoapp.usermanagementservice.service.api.UserDetailsService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -17,6 +27,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
     private final UserDetailsService userDetailsService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/{id}")
     public ResponseEntity<UserDTO> getUsersById(@PathVariable Long id) {
@@ -46,6 +57,47 @@ public class UserController {
         List<UserDetailsDTO> users = userDetailsService.getAllUsers();
         return ResponseEntity.ok(users);
     }
+
+    /**
+     * Keyset pagination: pass the previous page's {@code nextAfterId} as {@code afterId}.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<UserPageDTO> getUserPage(@RequestParam(required = false) Long afterId,
+                                                   @RequestParam(required = false) Integer size,
+                                                   @RequestParam(required = false) String usernamePrefix,
+                                                   @RequestParam(required = false) String emailPrefix) {
+        return ResponseEntity.ok(userDetailsService.getCustomerPage(afterId, size, usernamePrefix, emailPrefix));
+    }
+
+    /**
+     * Every customer as newline-delimited JSON, written while the rows are read.
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(required = false) String usernamePrefix,
+                                                             @RequestParam(required = false) String emailPrefix) {
+        ObjectWriter writer = objectMapper.writerFor(UserDetailsDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream, 16 * 1024);
+            try {
+                userDetailsService.exportCustomers(usernamePrefix, emailPrefix, user -> {
+                    try {
+                        writer.writeValue(out, user);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/admin/{id}")
     public ResponseEntity<UserDetailsDTO> findUserById(@PathVariable Long id) {
         UserDetailsDTO user = userDetailsService.findUserById(id);
@@ -0,0 +1,42 @@
+package org.genc.sneakoapp.usermanagementservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.genc.sneakoapp.usermanagementservice.dto.UserImportResultDTO;
+import org.genc.sneakoapp.usermanagementservice.service.api.UserImportService;
+import org.genc.sneakoapp.usermanagementservice.service.api.UserImportService.Format;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/v1/user-service/admin/users")
+@RequiredArgsConstructor
+@Slf4j
+public class UserImportController {
+
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final UserImportService userImportService;
+
+    /**
+     * Bulk import from a CSV (with header) or NDJSON request body, read as it is uploaded.
+     * Rows that cannot be imported are listed in the result; the others are kept.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    @Operation(summary = "Bulk import users from CSV or NDJSON")
+    public ResponseEntity<UserImportResultDTO> importUsers(HttpServletRequest request) throws IOException {
+        Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(APPLICATION_NDJSON)) ? Format.NDJSON : Format.CSV;
+        log.info("Starting {} user import", format);
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), format));
+    }
+}
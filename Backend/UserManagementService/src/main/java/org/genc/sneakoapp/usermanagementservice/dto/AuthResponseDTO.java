@@ -15,5 +15,6 @@ public class AuthResponseDTO {
     private String email;
     private String phone;
     private String appInstance;
+    private String refreshToken;
 
 }
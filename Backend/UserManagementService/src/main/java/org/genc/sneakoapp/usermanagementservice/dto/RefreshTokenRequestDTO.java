@@ -0,0 +1,12 @@
+package org.genc.sneakoapp.usermanagementservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequestDTO {
+
+    @NotBlank(message = "enter the refresh token")
+    private String refreshToken;
+
+}
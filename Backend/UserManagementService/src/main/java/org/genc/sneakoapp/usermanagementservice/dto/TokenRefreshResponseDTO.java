@@ -0,0 +1,13 @@
+package org.genc.sneakoapp.usermanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TokenRefreshResponseDTO {
+
+    private String jwt;
+    private String refreshToken;
+
+}
@@ -0,0 +1,17 @@
+package org.genc.sneakoapp.usermanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A row of a bulk import that was not imported, by its line number in the uploaded file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportErrorDTO {
+    private long line;
+    private String username;
+    private String message;
+}
@@ -0,0 +1,24 @@
+package org.genc.sneakoapp.usermanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first rejected rows are listed in {@code errors};
+ * {@code errorsTruncated} tells when there were more than that.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportResultDTO {
+    private long imported;
+    private long failed;
+    private List<UserImportErrorDTO> errors;
+    private boolean errorsTruncated;
+    private long elapsedMillis;
+}
@@ -0,0 +1,18 @@
+package org.genc.sneakoapp.usermanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of users. {@code nextAfterId} is the cursor for the next page, or null on the last one.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserDetailsDTO> content;
+    private Long nextAfterId;
+}
@@ -0,0 +1,13 @@
+package org.genc.sneakoapp.usermanagementservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsernameAvailabilityDTO {
+    private String username;
+    private boolean available;
+}
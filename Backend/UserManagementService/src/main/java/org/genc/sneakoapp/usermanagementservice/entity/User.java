@@ -12,10 +12,21 @@ import java.util.Set;
 @AllArgsConstructor
 @Entity
 @Builder
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        // Unique: the username filter is per instance, so only the database can rule out duplicates
+        @Index(name = "uk_users_username", columnList = "username", unique = true),
+        @Index(name = "idx_users_email", columnList = "email")
+})
 public class User {
+    public static final String ID_GENERATOR_TABLE = "id_generators";
+    public static final String ID_GENERATOR_KEY = "users";
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    // Not IDENTITY: ids are handed out in blocks, so Hibernate can batch the inserts (see UserImportServiceImpl)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "user_ids")
+    @TableGenerator(name = "user_ids", table = ID_GENERATOR_TABLE, pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = ID_GENERATOR_KEY, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String username;
@@ -0,0 +1,9 @@
+package org.genc.sneakoapp.usermanagementservice.exception;
+
+
+public class InvalidImportFileException extends RuntimeException {
+
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
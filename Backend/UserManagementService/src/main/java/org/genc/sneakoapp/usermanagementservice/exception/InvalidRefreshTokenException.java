@@ -0,0 +1,9 @@
+package org.genc.sneakoapp.usermanagementservice.exception;
+
+
+public class InvalidRefreshTokenException extends RuntimeException {
+
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package org.genc.sneakoapp.usermanagementservice.exception;
+
+
+public class RoleMismatchException extends RuntimeException {
+
+    public RoleMismatchException(String message) {
+        super(message);
+    }
+}
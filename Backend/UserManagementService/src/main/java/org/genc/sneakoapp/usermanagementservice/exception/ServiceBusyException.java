@@ -0,0 +1,13 @@
+package org.genc.sneakoapp.usermanagementservice.exception;
+
+
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -8,7 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.genc.sneakoapp.usermanagementservice.service.impl.CustomUserDetailsService;
+import org.genc.sneakoapp.usermanagementservice.security.UserDetailsCache;
 import org.genc.sneakoapp.usermanagementservice.util.JwtUtil;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -28,7 +28,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
 
-    private final CustomUserDetailsService userDetailsService;
+    // Cached per username, so authenticated requests do not hit the database each time
+    private final UserDetailsCache userDetailsCache;
 
 
     // Define all paths that should NOT be filtered (i.e., public paths)
@@ -50,7 +51,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Match only POST requests for /login and /users (registration)
         if (request.getMethod().equals(HttpMethod.POST.name())) {
-            if (path.startsWith("/api/v1/user-service/login") || path.startsWith("/api/v1/user-service/register")) {
+            if (path.startsWith("/api/v1/user-service/login") || path.startsWith("/api/v1/user-service/register")
+                    || path.startsWith("/api/v1/user-service/token/refresh") || path.startsWith("/api/v1/user-service/logout")) {
                 return true;
             }
         }
@@ -79,7 +81,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Validate token and set authentication
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = userDetailsCache.get(username);
             if (jwtUtil.validateToken(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
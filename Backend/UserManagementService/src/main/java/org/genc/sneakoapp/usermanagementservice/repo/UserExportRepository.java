@@ -0,0 +1,68 @@
+package org.genc.sneakoapp.usermanagementservice.repo;
+
+import org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams users straight off a JDBC cursor, one row at a time, for exports that must not build the
+ * whole result in memory. Needs {@code useCursorFetch=true} on the MySQL URL for the fetch size to
+ * turn into a server-side cursor.
+ */
+@Repository
+public class UserExportRepository {
+
+    private static final String SELECT_BY_ROLE =
+            "SELECT u.id, u.username, u.email FROM users u "
+                    + "JOIN user_roles ur ON ur.user_id = u.id "
+                    + "JOIN roles r ON r.id = ur.role_id "
+                    + "WHERE r.name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserExportRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${genc.user-export.fetch-size:500}") int fetchSize) {
+        // A copy, so that the fetch size does not leak into other users of the shared template
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Passes the username of every user to {@code sink}.
+     */
+    public void streamUsernames(Consumer<String> sink) {
+        jdbcTemplate.query("SELECT username FROM users WHERE username IS NOT NULL",
+                rs -> {
+                    sink.accept(rs.getString(1));
+                });
+    }
+
+    /**
+     * Passes every user with the given role to {@code sink} in id order. The patterns are LIKE
+     * patterns escaped with '!', or null to skip that filter.
+     */
+    public void streamByRole(RoleType role, String usernamePattern, String emailPattern,
+                             Consumer<UserDetailsDTO> sink) {
+        StringBuilder sql = new StringBuilder(SELECT_BY_ROLE);
+        List<Object> args = new ArrayList<>();
+        args.add(role.name());
+        if (usernamePattern != null) {
+            sql.append(" AND u.username LIKE ? ESCAPE '!'");
+            args.add(usernamePattern);
+        }
+        if (emailPattern != null) {
+            sql.append(" AND u.email LIKE ? ESCAPE '!'");
+            args.add(emailPattern);
+        }
+        sql.append(" ORDER BY u.id");
+        jdbcTemplate.query(sql.toString(), rs -> {
+            sink.accept(new UserDetailsDTO(rs.getLong(1), rs.getString(2), rs.getString(3)));
+        }, args.toArray());
+    }
+}
@@ -0,0 +1,13 @@
+package org.genc.sneakoapp.usermanagementservice.repo;
+
+/**
+ * Closed projection of the profile columns of a user, without the password and roles.
+ * The queries that return it alias every column, because the entity attribute is "Address".
+ */
+public interface UserProfileView {
+    Long getId();
+    String getUsername();
+    String getEmail();
+    String getAddress();
+    String getPhone();
+}
@@ -1,20 +1,58 @@
 package org.genc.sneakoapp.usermanagementservice.repo;
 
 
+import org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO;
 import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    boolean existsByUsername(String username);
     @Query("SELECT u FROM User u JOIN u.roles r WHERE r.name = :roleName")
     List<User> findAllByRoleName(@Param("roleName") org.genc.sneakoapp.usermanagementservice.enums.RoleType roleName);
     @Query("SELECT COUNT(u) FROM User u JOIN u.roles r WHERE r.name = :roleName")
     Long countByRoleName(@Param("roleName") org.genc.sneakoapp.usermanagementservice.enums.RoleType roleName);
 
+    /**
+     * Keyset page of users with the given role: only ids greater than {@code afterId}, in id order.
+     * The patterns are LIKE patterns escaped with '!', or null to skip that filter.
+     */
+    @Query("SELECT new org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO(u.id, u.username, u.email) "
+            + "FROM User u JOIN u.roles r "
+            + "WHERE r.name = :roleName AND u.id > :afterId "
+            + "AND (:usernamePattern IS NULL OR u.username LIKE :usernamePattern ESCAPE '!') "
+            + "AND (:emailPattern IS NULL OR u.email LIKE :emailPattern ESCAPE '!') "
+            + "ORDER BY u.id")
+    List<UserDetailsDTO> findPageByRoleName(@Param("roleName") org.genc.sneakoapp.usermanagementservice.enums.RoleType roleName,
+                                            @Param("afterId") Long afterId,
+                                            @Param("usernamePattern") String usernamePattern,
+                                            @Param("emailPattern") String emailPattern,
+                                            Limit limit);
+
+    @Query("SELECT new org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO(u.id, u.username, u.email) "
+            + "FROM User u WHERE u.id = :id")
+    Optional<UserDetailsDTO> findDetailsById(@Param("id") Long id);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.Address AS address, u.phone AS phone "
+            + "FROM User u WHERE u.id = :id")
+    Optional<UserProfileView> findProfileById(@Param("id") Long id);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
+
 
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package org.genc.sneakoapp.usermanagementservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
+import org.genc.sneakoapp.usermanagementservice.service.impl.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Size- and time-bounded cache of the user details that JwtAuthenticationFilter needs on every
+ * authenticated request, keyed by username. Services that change a user's name, password or roles
+ * must evict it. Evictions only reach the cache of the instance that made the change: on every
+ * other instance a changed or removed user keeps working until the TTL expires, so the TTL is the
+ * bound on stale roles and passwords across instances and is kept short.
+ * Hit, miss and eviction counts are published under the "user.details" cache name.
+ */
+@Component
+@Slf4j
+public class UserDetailsCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "user.details";
+
+    private final CustomUserDetailsService userDetailsService;
+    private final Cache<String, CustomUserDetails> cache;
+
+    public UserDetailsCache(CustomUserDetailsService userDetailsService,
+                            @Value("${genc.user-details-cache.max-size:10000}") long maxSize,
+                            @Value("${genc.user-details-cache.ttl:PT60S}") Duration ttl) {
+        this.userDetailsService = userDetailsService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the user's details, loading them from the database only on a cache miss.
+     * Throws UsernameNotFoundException (not cached) when the user does not exist.
+     */
+    public CustomUserDetails get(String username) {
+        return cache.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    /**
+     * Evicts the given usernames once the current transaction commits, so that a request running
+     * concurrently cannot put the old row back in between; evicts right away outside a transaction.
+     */
+    public void evictAfterCommit(String... usernames) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(usernames);
+                }
+            });
+        } else {
+            evict(usernames);
+        }
+    }
+
+    public void evict(String... usernames) {
+        for (String username : usernames) {
+            if (username != null) {
+                cache.invalidate(username);
+                log.debug("Evicted cached user details for {}", username);
+            }
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+}
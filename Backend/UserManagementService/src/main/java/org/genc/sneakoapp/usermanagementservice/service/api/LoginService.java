@@ -0,0 +1,15 @@
+package org.genc.sneakoapp.usermanagementservice.service.api;
+
+import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface LoginService {
+
+    /**
+     * Checks the credentials on the password hashing pool and completes with the authenticated user.
+     * Completes exceptionally with BadCredentialsException or RoleMismatchException; throws
+     * ServiceBusyException right away when the pool cannot take more work.
+     */
+    CompletableFuture<CustomUserDetails> login(String username, String password, String role);
+}
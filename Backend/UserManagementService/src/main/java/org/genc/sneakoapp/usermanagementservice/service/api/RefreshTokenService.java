@@ -0,0 +1,27 @@
+package org.genc.sneakoapp.usermanagementservice.service.api;
+
+import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
+
+public interface RefreshTokenService {
+
+    /**
+     * Creates a refresh token for the user and returns its raw value; only its hash is stored.
+     */
+    String issue(Long userId);
+
+    /**
+     * Consumes the refresh token and issues its replacement. Throws InvalidRefreshTokenException
+     * when the token is unknown, already used or expired.
+     */
+    Rotation rotate(String rawToken);
+
+    /**
+     * Revokes the token; unknown tokens are ignored so that logout is idempotent.
+     */
+    void revoke(String rawToken);
+
+    int purgeExpired();
+
+    record Rotation(CustomUserDetails user, String refreshToken) {
+    }
+}
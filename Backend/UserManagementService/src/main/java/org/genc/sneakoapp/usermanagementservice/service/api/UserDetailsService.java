@@ -3,11 +3,22 @@ package org.genc.sneakoapp.usermanagementservice.service.api;
 
 import org.genc.sneakoapp.usermanagementservice.dto.UserDTO;
 import org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.UserPageDTO;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserDetailsService {
    public List<UserDetailsDTO> getAllUsers();
+    /**
+     * Customers with an id greater than {@code afterId}, in id order, optionally filtered by
+     * username and/or email prefix.
+     */
+    public UserPageDTO getCustomerPage(Long afterId, Integer size, String usernamePrefix, String emailPrefix);
+    /**
+     * Streams every matching customer to {@code sink} in id order without holding them in memory.
+     */
+    public void exportCustomers(String usernamePrefix, String emailPrefix, Consumer<UserDetailsDTO> sink);
     public void deleteUserById(Long id);
     public  UserDetailsDTO findById(Long id);
     public  Long totalUsers();
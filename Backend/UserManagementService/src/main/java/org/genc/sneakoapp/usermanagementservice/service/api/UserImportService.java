@@ -0,0 +1,19 @@
+package org.genc.sneakoapp.usermanagementservice.service.api;
+
+import org.genc.sneakoapp.usermanagementservice.dto.UserImportResultDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * Imports the users in {@code in}, reading it as it goes. Rows are committed in chunks, and rows
+     * that cannot be imported (e.g. an existing username) are reported without stopping the import.
+     */
+    UserImportResultDTO importUsers(InputStream in, Format format) throws IOException;
+}
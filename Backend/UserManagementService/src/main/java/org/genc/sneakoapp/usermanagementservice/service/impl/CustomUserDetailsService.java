@@ -5,17 +5,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
 import org.genc.sneakoapp.usermanagementservice.entity.User;
 import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.stream.Collectors;
-
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
 
     @Override
@@ -23,18 +22,18 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        log.info("User   found username {} , role s ize {}" , user.getUsername(),user.getRoles().size());
-      //  user.getRoles().forEach(r-> log.info("Role is {} ", r.getName()));
-       /* AbstractUserDetailsAuthenticationProvider.authenticate -->
-       DaoAuthenticationProvider.additionalAuthenticationChecks  requires password*/
-         new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority(role.getName().toString()))
-                        .collect(Collectors.toList())
-        );
+        log.debug("User found username {}, role size {}", user.getUsername(), user.getRoles().size());
+        return new CustomUserDetails(user);
+    }
 
-         return new CustomUserDetails(user);
+    /**
+     * Called by DaoAuthenticationProvider after a successful login when the stored hash was made
+     * with another BCrypt cost; stores the re-hashed password without reloading the user.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+        log.debug("Re-hashed password for {}", user.getUsername());
+        return user;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package org.genc.sneakoapp.usermanagementservice.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.usermanagementservice.config.PasswordHashingConfig;
+import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
+import org.genc.sneakoapp.usermanagementservice.exception.RoleMismatchException;
+import org.genc.sneakoapp.usermanagementservice.exception.ServiceBusyException;
+import org.genc.sneakoapp.usermanagementservice.service.api.LoginService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@Slf4j
+public class LoginServiceImpl implements LoginService {
+
+    private final AuthenticationManager authenticationManager;
+    private final Executor passwordHashingExecutor;
+
+    public LoginServiceImpl(AuthenticationManager authenticationManager,
+                            @Qualifier(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR) Executor passwordHashingExecutor) {
+        this.authenticationManager = authenticationManager;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    @Override
+    public CompletableFuture<CustomUserDetails> login(String username, String password, String role) {
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(username, password, role), passwordHashingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Login pool saturated, rejecting login for {}", username);
+            throw new ServiceBusyException("Too many logins in progress, please retry", e);
+        }
+    }
+
+    private CustomUserDetails authenticate(String username, String password, String role) {
+        // DaoAuthenticationProvider loads the user once, checks BCrypt and re-hashes if the cost changed
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(username, password));
+        CustomUserDetails user = (CustomUserDetails) authentication.getPrincipal();
+
+        boolean hasRole = user.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equalsIgnoreCase(role));
+        if (!hasRole) {
+            log.warn("Role mismatch for user {}: expected {}, got {}", user.getUsername(), user.getAuthorities(), role);
+            throw new RoleMismatchException("Role mismatch: unauthorized access");
+        }
+        return user;
+    }
+}
@@ -0,0 +1,118 @@
+package org.genc.sneakoapp.usermanagementservice.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
+import org.genc.sneakoapp.usermanagementservice.entity.RefreshToken;
+import org.genc.sneakoapp.usermanagementservice.exception.InvalidRefreshTokenException;
+import org.genc.sneakoapp.usermanagementservice.repo.RefreshTokenRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.service.api.RefreshTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Rotating refresh tokens: 256 random bits handed to the client once, stored as SHA-256.
+ * A plain hash (no BCrypt) is enough because the token has full entropy, and it keeps a
+ * refresh far cheaper than a password login.
+ */
+@Service
+@Slf4j
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final Clock clock;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
+                                   UserRepository userRepository,
+                                   @Value("${genc.refresh-token.ttl:P7D}") Duration ttl) {
+        this(refreshTokenRepository, userRepository, ttl, Clock.systemUTC());
+    }
+
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository,
+                                   Duration ttl, Clock clock) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    @Override
+    @Transactional
+    public String issue(Long userId) {
+        String rawToken = newRawToken();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .user(userRepository.getReferenceById(userId))
+                .expiresAt(clock.instant().plus(ttl))
+                .build());
+        return rawToken;
+    }
+
+    @Override
+    @Transactional
+    public Rotation rotate(String rawToken) {
+        String tokenHash = hash(rawToken);
+        RefreshToken current = refreshTokenRepository.findByTokenHashWithUser(tokenHash)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is invalid or has been used"));
+
+        if (current.getExpiresAt().isBefore(clock.instant())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+        // Of two concurrent refreshes with the same token, only the one whose delete hits a row wins
+        if (refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            throw new InvalidRefreshTokenException("Refresh token is invalid or has been used");
+        }
+
+        CustomUserDetails user = new CustomUserDetails(current.getUser());
+        return new Rotation(user, issue(user.getId()));
+    }
+
+    @Override
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.deleteByTokenHash(hash(rawToken));
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${genc.refresh-token.purge-cron:0 17 3 * * *}")
+    public int purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(clock.instant());
+        log.info("Purged {} expired refresh tokens", purged);
+        return purged;
+    }
+
+    private String newRawToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
 import org.genc.sneakoapp.usermanagementservice.exception.ResourceNotFoundException;
 import org.genc.sneakoapp.usermanagementservice.repo.RoleRepository;
 import org.genc.sneakoapp.usermanagementservice.service.api.RoleService;
+import org.genc.sneakoapp.usermanagementservice.util.RoleRegistry;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -22,6 +23,8 @@ public class RoleServiceImpl implements RoleService {
 
     private final RoleRepository roleRepository;
 
+    private final RoleRegistry roleRegistry;
+
     @Override
     public RoleResponseDTO createRole(RoleRequestDTO request) {
         Optional<Role> roleEntity = roleRepository.findByName(request.getName());
@@ -32,6 +35,7 @@ public class RoleServiceImpl implements RoleService {
                     .build();
 
             Role savedRole = roleRepository.save(role);
+            roleRegistry.refreshAfterCommit();
             return mapToDTO(savedRole);
         }
         log.warn(" Role already exists {}",roleEntity.get().getName().toString());
@@ -47,7 +51,9 @@ public class RoleServiceImpl implements RoleService {
                     .description(request.getDescription())
                     .build();
 
-            return roleRepository.save(role);
+            Role savedRole = roleRepository.save(role);
+            roleRegistry.refreshAfterCommit();
+            return savedRole;
         }
         return roleEntity.get();
     }
@@ -77,6 +83,7 @@ public class RoleServiceImpl implements RoleService {
         role.setDescription(request.getDescription());
 
         Role updatedRole = roleRepository.save(role);
+        roleRegistry.refreshAfterCommit();
         return mapToDTO(updatedRole);
     }
 
@@ -87,13 +94,14 @@ public class RoleServiceImpl implements RoleService {
             throw new ResourceNotFoundException("Role not found with id: " + id);
         }
         roleRepository.deleteById(id);
+        roleRegistry.refreshAfterCommit();
     }
 
     @Override
     public Role getRoleByName(RoleType roleType) {
-        Role role = roleRepository.findByName(roleType)
-                .orElseThrow(() -> new ResourceNotFoundException("Role not found with : " + roleType.toString()));;
-        return role;
+        // Served from memory: registration needs a role on every call
+        return roleRegistry.find(roleType)
+                .orElseThrow(() -> new ResourceNotFoundException("Role not found with : " + roleType.toString()));
     }
 
     private RoleResponseDTO mapToDTO(Role role) {
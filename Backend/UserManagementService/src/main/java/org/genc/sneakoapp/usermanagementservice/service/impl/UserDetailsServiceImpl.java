@@ -5,56 +5,98 @@ import lombok.RequiredArgsConstructor;
 
 import org.genc.sneakoapp.usermanagementservice.dto.UserDTO;
 import org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.UserPageDTO;
 import org.genc.sneakoapp.usermanagementservice.entity.User;
 import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.repo.RefreshTokenRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserExportRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserProfileView;
 import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.security.UserDetailsCache;
 import org.genc.sneakoapp.usermanagementservice.service.api.UserDetailsService;
+import org.genc.sneakoapp.usermanagementservice.util.UsernameExistenceFilter;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 
 @Service
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private  final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserExportRepository userExportRepository;
+    private final UsernameExistenceFilter usernameExistenceFilter;
 
     @Override
     public List<UserDetailsDTO> getAllUsers() {
-        return userRepository.findAllByRoleName(RoleType.ROLE_CUSTOMER).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return userRepository.findPageByRoleName(RoleType.ROLE_CUSTOMER, 0L, null, null, Limit.unlimited());
     }
 
     @Override
-    @Transactional
-    public void deleteUserById(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("User with id " + id + " not found");
+    public UserPageDTO getCustomerPage(Long afterId, Integer size, String usernamePrefix, String emailPrefix) {
+        int pageSize = size == null || size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // One extra row tells whether there is a next page without a count query
+        List<UserDetailsDTO> rows = userRepository.findPageByRoleName(RoleType.ROLE_CUSTOMER,
+                afterId == null ? 0L : afterId, likePrefix(usernamePrefix), likePrefix(emailPrefix),
+                Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new UserPageDTO(rows, null);
         }
-        userRepository.deleteById(id);
+        List<UserDetailsDTO> content = rows.subList(0, pageSize);
+        return new UserPageDTO(content, content.get(pageSize - 1).getId());
     }
-    private UserDetailsDTO mapToDto(User u) {
-        return UserDetailsDTO.builder()
-                .id(u.getId())
-                .username(u.getUsername())
-                .email(u.getEmail())
-                .build();
+
+    @Override
+    public void exportCustomers(String usernamePrefix, String emailPrefix, Consumer<UserDetailsDTO> sink) {
+        userExportRepository.streamByRole(RoleType.ROLE_CUSTOMER, likePrefix(usernamePrefix),
+                likePrefix(emailPrefix), sink);
+    }
+
+    /**
+     * LIKE pattern matching values that start with {@code prefix}, using '!' as the escape
+     * character; null when no filtering is wanted.
+     */
+    static String likePrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder(prefix.length() + 2);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '!' || c == '%' || c == '_') {
+                pattern.append('!');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
     }
 
     @Override
-    public UserDetailsDTO findById(Long id) {
+    @Transactional
+    public void deleteUserById(Long id) {
         User user = userRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                .orElseThrow(() -> new IllegalArgumentException("User with id " + id + " not found"));
+        refreshTokenRepository.deleteByUserId(id);
+        userRepository.delete(user);
+        userDetailsCache.evictAfterCommit(user.getUsername());
+        usernameExistenceFilter.removedAfterCommit(user.getUsername());
+    }
 
-        return UserDetailsDTO.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .build();
+    @Override
+    public UserDetailsDTO findById(Long id) {
+        // Only the three columns, without loading the entity and its eager roles
+        return userRepository.findDetailsById(id)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     @Override
@@ -64,7 +106,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Override
     public UserDTO getUserById(Long id) {
-        User user = userRepository.findById(id)
+        UserProfileView user = userRepository.findProfileById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         return UserDTO.builder()
@@ -83,6 +125,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        String previousUsername = user.getUsername();
 
         // Update fields
         user.setUsername(userDTO.getUsername());
@@ -91,11 +134,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         user.setAddress(userDTO.getAddress());
         if (userDTO.getPassword() != null && !userDTO.getPassword().isBlank()) {
             user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+            // A new password ends every session that was started with the old one
+            refreshTokenRepository.deleteByUserId(id);
         }
 
 
+        if (!Objects.equals(previousUsername, user.getUsername())) {
+            usernameExistenceFilter.added(user.getUsername());
+            usernameExistenceFilter.removedAfterCommit(previousUsername);
+        }
+
         // Save updated user
         User updatedUser = userRepository.save(user);
+        // Both names: the old one must stop authenticating, the new one must not see stale details
+        userDetailsCache.evictAfterCommit(previousUsername, updatedUser.getUsername());
 
         // Return updated DTO
         return UserDTO.builder()
@@ -110,14 +162,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     }
     @Override
     public UserDetailsDTO findUserById(Long id) {
-        User user = userRepository.findById(id)
+        return userRepository.findDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-
-        return UserDetailsDTO.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .build();
     }
 
 
@@ -0,0 +1,179 @@
+package org.genc.sneakoapp.usermanagementservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.genc.sneakoapp.usermanagementservice.exception.InvalidImportFileException;
+import org.genc.sneakoapp.usermanagementservice.service.api.UserImportService.Format;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads bulk import rows one line at a time, so the file is never held in memory.
+ * CSV needs a header naming its columns (username and password are required; email, address,
+ * phone and role are optional); NDJSON has one JSON object per line with the same field names.
+ * Quoted CSV fields may contain commas and doubled quotes but not line breaks.
+ */
+final class UserImportReader {
+
+    record Row(long line, String username, String password, String email, String address,
+               String phone, String role, String error) {
+
+        static Row invalid(long line, String username, String error) {
+            return new Row(line, username, null, null, null, null, null, error);
+        }
+    }
+
+    private static final String[] COLUMNS = {"username", "password", "email", "address", "phone", "role"};
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private final int[] columnIndex = new int[COLUMNS.length];
+    private long lineNumber;
+
+    UserImportReader(InputStream in, Format format, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        if (format == Format.CSV) {
+            readHeader();
+        }
+    }
+
+    /**
+     * The next non-blank line as a row, or null at the end of the input. Lines that cannot be
+     * parsed come back as rows carrying an error.
+     */
+    Row next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                return format == Format.CSV ? parseCsv(line) : parseJson(line);
+            } catch (IllegalArgumentException e) {
+                return Row.invalid(lineNumber, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void readHeader() throws IOException {
+        String header;
+        do {
+            header = readLine();
+        } while (header != null && header.isBlank());
+        if (header == null) {
+            throw new InvalidImportFileException("CSV file is empty");
+        }
+        Map<String, Integer> byName = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            byName.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columnIndex[i] = byName.getOrDefault(COLUMNS[i], -1);
+        }
+        if (columnIndex[0] < 0 || columnIndex[1] < 0) {
+            throw new InvalidImportFileException("CSV header must name the username and password columns");
+        }
+    }
+
+    private String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        // Skip a byte order mark at the very start of the file
+        if (++lineNumber == 1 && line.startsWith("\uFEFF")) {
+            return line.substring(1);
+        }
+        return line;
+    }
+
+    private Row parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        String[] values = new String[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            int index = columnIndex[i];
+            values[i] = index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+        return new Row(lineNumber, trimToNull(values[0]), emptyToNull(values[1]), trimToNull(values[2]),
+                trimToNull(values[3]), trimToNull(values[4]), trimToNull(values[5]), null);
+    }
+
+    private Row parseJson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        String role = text(node, "role");
+        return new Row(lineNumber, trimToNull(text(node, "username")), emptyToNull(text(node, "password")),
+                trimToNull(text(node, "email")), trimToNull(text(node, "address")), trimToNull(text(node, "phone")),
+                trimToNull(role != null ? role : text(node, "roleType")), null);
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,269 @@
+package org.genc.sneakoapp.usermanagementservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.usermanagementservice.config.PasswordHashingConfig;
+import org.genc.sneakoapp.usermanagementservice.dto.UserImportErrorDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.UserImportResultDTO;
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.service.api.UserImportService;
+import org.genc.sneakoapp.usermanagementservice.service.impl.UserImportReader.Row;
+import org.genc.sneakoapp.usermanagementservice.util.RoleRegistry;
+import org.genc.sneakoapp.usermanagementservice.util.UsernameExistenceFilter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk user import. The file is read in chunks; for each chunk the usernames the filter cannot rule
+ * out are checked against the database with one query, the passwords are hashed in parallel on the
+ * import pool, and the users and their user_roles rows are written in one transaction with Hibernate's
+ * JDBC batching (which is why User ids are no longer IDENTITY). Roles are resolved once per import, from RoleRegistry.
+ * Passwords that already are BCrypt hashes (e.g. from the legacy store) are kept as they are;
+ * RehashingBCryptPasswordEncoder upgrades their cost on the user's next login.
+ */
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}");
+
+    private final UserRepository userRepository;
+    private final RoleRegistry roleRegistry;
+    private final PasswordEncoder passwordEncoder;
+    private final Executor passwordImportExecutor;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final UsernameExistenceFilter usernameExistenceFilter;
+    private final int chunkSize;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 RoleRegistry roleRegistry,
+                                 PasswordEncoder passwordEncoder,
+                                 @Qualifier(PasswordHashingConfig.PASSWORD_IMPORT_EXECUTOR) Executor passwordImportExecutor,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 UsernameExistenceFilter usernameExistenceFilter,
+                                 @Value("${genc.user-import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.roleRegistry = roleRegistry;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordImportExecutor = passwordImportExecutor;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.usernameExistenceFilter = usernameExistenceFilter;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public UserImportResultDTO importUsers(InputStream in, Format format) throws IOException {
+        long started = System.nanoTime();
+        Map<RoleType, Long> roleIds = new EnumMap<>(RoleType.class);
+        roleRegistry.all().forEach((type, role) -> roleIds.put(type, role.getId()));
+
+        Report report = new Report();
+        UserImportReader reader = new UserImportReader(in, format, objectMapper);
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        Row row;
+        while ((row = reader.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, roleIds, report, false);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, roleIds, report, false);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("User import finished: {} imported, {} rejected in {} ms", report.imported, report.failed, elapsedMillis);
+        return UserImportResultDTO.builder()
+                .imported(report.imported)
+                .failed(report.failed)
+                .errors(report.errors)
+                .errorsTruncated(report.failed > report.errors.size())
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+
+    /**
+     * @param lookUpAll look up every name, not only those the username filter cannot rule out
+     */
+    private void importChunk(List<Row> chunk, Map<RoleType, Long> roleIds, Report report, boolean lookUpAll) {
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        List<RoleType> acceptedRoles = new ArrayList<>(chunk.size());
+        // Lower-cased: MySQL compares usernames case-insensitively, so "Bob" and "bob" are the same user
+        Set<String> usernames = new HashSet<>();
+        for (Row row : chunk) {
+            String error = row.error();
+            RoleType roleType = null;
+            if (error == null) {
+                roleType = roleType(row.role());
+                error = validate(row, roleType, roleIds);
+            }
+            if (error == null && !usernames.add(key(row.username()))) {
+                error = "Duplicate username in file";
+            }
+            if (error != null) {
+                report.reject(row, error);
+            } else {
+                accepted.add(row);
+                acceptedRoles.add(roleType);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // Earlier chunks are already committed, so this also catches duplicates across chunks.
+        // Names the filter rules out are not looked up; the unique index catches one taken elsewhere.
+        Set<String> lookups = new HashSet<>();
+        for (Row row : accepted) {
+            if (lookUpAll || usernameExistenceFilter.mightExist(row.username())) {
+                lookups.add(row.username());
+            }
+        }
+        boolean skippedLookups = lookups.size() < accepted.size();
+        Set<String> existing = new HashSet<>();
+        if (!lookups.isEmpty()) {
+            for (String username : userRepository.findExistingUsernames(lookups)) {
+                existing.add(key(username));
+            }
+        }
+        List<Row> rows = new ArrayList<>(accepted.size());
+        List<RoleType> rowRoles = new ArrayList<>(accepted.size());
+        List<CompletableFuture<String>> hashes = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            Row row = accepted.get(i);
+            if (existing.contains(key(row.username()))) {
+                report.reject(row, "Username already exists");
+                continue;
+            }
+            rows.add(row);
+            rowRoles.add(acceptedRoles.get(i));
+            hashes.add(BCRYPT_HASH.matcher(row.password()).matches()
+                    ? CompletableFuture.completedFuture(row.password())
+                    : CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.password()), passwordImportExecutor));
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        CompletableFuture.allOf(hashes.toArray(CompletableFuture[]::new)).join();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<RoleType, Role> roles = new EnumMap<>(RoleType.class);
+                for (int i = 0; i < rows.size(); i++) {
+                    Row row = rows.get(i);
+                    Role role = roles.computeIfAbsent(rowRoles.get(i),
+                            type -> entityManager.getReference(Role.class, roleIds.get(type)));
+                    usernameExistenceFilter.added(row.username());
+                    entityManager.persist(User.builder()
+                            .username(row.username())
+                            .password(hashes.get(i).join())
+                            .email(row.email())
+                            .Address(row.address())
+                            .phone(row.phone())
+                            .roles(Set.of(role))
+                            .build());
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            report.imported += rows.size();
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            if (skippedLookups) {
+                // Maybe a name registered on another instance since the filter was loaded: check them all
+                log.info("Import chunk of {} users failed, retrying with every username looked up", rows.size());
+                importChunk(rows, roleIds, report, true);
+                return;
+            }
+            // The whole chunk was rolled back; report its rows and carry on with the next one
+            log.warn("Could not save an import chunk of {} users", rows.size(), e);
+            String message = "Could not be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Row row : rows) {
+                report.reject(row, message);
+            }
+        }
+    }
+
+    private static String validate(Row row, RoleType roleType, Map<RoleType, Long> roleIds) {
+        if (row.username() == null) {
+            return "username is required";
+        }
+        if (row.password() == null) {
+            return "password is required";
+        }
+        if (roleType == null) {
+            return "Unknown role " + row.role();
+        }
+        if (!roleIds.containsKey(roleType)) {
+            return "Role " + roleType + " does not exist";
+        }
+        return null;
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Accepts "ROLE_CUSTOMER" as well as "customer"; no role means a customer.
+     */
+    private static RoleType roleType(String role) {
+        if (role == null) {
+            return RoleType.ROLE_CUSTOMER;
+        }
+        String name = role.toUpperCase(Locale.ROOT);
+        try {
+            return RoleType.valueOf(name.startsWith("ROLE_") ? name : "ROLE_" + name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Report {
+
+        private long imported;
+        private long failed;
+        private final List<UserImportErrorDTO> errors = new ArrayList<>();
+
+        private void reject(Row row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UserImportErrorDTO(row.line(), row.username(), message));
+            }
+        }
+    }
+}
@@ -10,8 +10,11 @@ import org.genc.sneakoapp.usermanagementservice.entity.User;
 import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
 import org.genc.sneakoapp.usermanagementservice.exception.UserAlreadyExistsException;
 import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.security.UserDetailsCache;
 import org.genc.sneakoapp.usermanagementservice.service.api.RoleService;
 import org.genc.sneakoapp.usermanagementservice.service.api.UserMgmtService;
+import org.genc.sneakoapp.usermanagementservice.util.UsernameExistenceFilter;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -30,19 +33,23 @@ public class UserMgmtServiceImpl implements UserMgmtService {
 
     private final PasswordEncoder passwordEncoder;
 
+    private final UserDetailsCache userDetailsCache;
+
+    private final UsernameExistenceFilter usernameExistenceFilter;
+
     @Override
     public UserRegistrationResponseDTO registerNewUser(UserRegistrationRequestDTO userReqDTO) {
-       Optional<User> existingUser = userRepository.findByUsername(userReqDTO.getUsername());
+       // A name the filter rules out is not looked up; the unique index catches one taken elsewhere
+       Optional<User> existingUser = usernameExistenceFilter.mightExist(userReqDTO.getUsername())
+               ? userRepository.findByUsername(userReqDTO.getUsername())
+               : Optional.empty();
         User persUser = null;
         if(existingUser.isPresent() && isUserRoleExists(existingUser.get(),userReqDTO.getRoleType())) {
             log.error(" {}  already exists ", userReqDTO.getUsername());
             throw new UserAlreadyExistsException(userReqDTO.getUsername() +" already exists");
         }
         else if(existingUser.isPresent()) {
-            User userEntity =  existingUser.get();
-            userEntity.getRoles().add(roleService.getRoleByName(userReqDTO.getRoleType()));
-            persUser = userRepository.save(userEntity);
-            log.info("New  role {} added for  existing {}",userReqDTO.getRoleType(), existingUser.get().getAddress());
+            persUser = addRole(existingUser.get(), userReqDTO.getRoleType());
         }
         else {
             User user = User.builder().username(userReqDTO.getUsername()).password(passwordEncoder.encode(userReqDTO.getPassword()))
@@ -50,7 +57,18 @@ public class UserMgmtServiceImpl implements UserMgmtService {
                     .email(userReqDTO.getEmail())
                     .roles(Set.of(roleService.getRoleByName(userReqDTO.getRoleType())))
                     .build();
-            persUser = userRepository.save(user);
+            usernameExistenceFilter.added(user.getUsername());
+            try {
+                persUser = userRepository.save(user);
+            } catch (DataIntegrityViolationException e) {
+                // Registered on another instance, which the filter does not know about, or concurrently
+                Optional<User> registered = userRepository.findByUsername(userReqDTO.getUsername());
+                if (registered.isEmpty() || isUserRoleExists(registered.get(), userReqDTO.getRoleType())) {
+                    log.error(" {}  already exists ", userReqDTO.getUsername());
+                    throw new UserAlreadyExistsException(userReqDTO.getUsername() + " already exists", e);
+                }
+                persUser = addRole(registered.get(), userReqDTO.getRoleType());
+            }
         }
        //convert persUser  to UserRegistrationResponseDTO  and return
         StringBuilder welcomeMesaage = new StringBuilder(" Welcome ");
@@ -67,16 +85,33 @@ public class UserMgmtServiceImpl implements UserMgmtService {
                 .build();
     }
 
+    private User addRole(User userEntity, RoleType roleType) {
+        userEntity.getRoles().add(roleService.getRoleByName(roleType));
+        User persUser = userRepository.save(userEntity);
+        // The cached authorities no longer include the new role
+        userDetailsCache.evictAfterCommit(persUser.getUsername());
+        log.info("New  role {} added for  existing {}", roleType, userEntity.getAddress());
+        return persUser;
+    }
+
     private boolean isUserRoleExists(User userObj, RoleType newRole) {
         boolean roleExists = userObj.getRoles().stream().anyMatch( r -> r.getName().equals(newRole));
         log.info("roleExists {}",roleExists);
         return  roleExists;
     }
 
+    /**
+     * Backs the live check of the sign-up form, so names the filter rules out are not looked up.
+     * The filter misses names registered on other instances since this one started, so the
+     * answer can be wrong that way; registration then fails on the unique index instead.
+     */
     @Override
     public boolean isNewUser(String userName) {
-        Optional<User> userObj =  userRepository.findByUsername(userName);
-        log.info("if User doesn't exists {} ", userObj.isEmpty());
-        return userObj.isEmpty();
+        if (!usernameExistenceFilter.mightExist(userName)) {
+            return true;
+        }
+        boolean exists = userRepository.existsByUsername(userName);
+        log.info("if User doesn't exists {} ", !exists);
+        return !exists;
     }
 }
@@ -0,0 +1,150 @@
+package org.genc.sneakoapp.usermanagementservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter with 4-bit counters instead of bits, so that entries can be removed again.
+ * Sixteen counters are packed per long and updated with CAS, so adds, removes and lookups are
+ * lock-free. A counter that reaches 15 sticks there: removing can then no longer make another
+ * entry look absent, at the price of a few more false positives.
+ * {@link #mightContain} never returns false for an entry that was added and not removed.
+ */
+public final class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_WORD = 16;
+    private static final long COUNTER_MASK = 0xFL;
+    private static final long MAX_COUNT = 15L;
+
+    private final AtomicLongArray words;
+    private final long counters;
+    private final int hashFunctions;
+
+    /**
+     * @param expectedEntries       number of entries the filter is sized for
+     * @param falsePositiveRate     wanted false positive rate at that size, e.g. 0.01
+     */
+    public CountingBloomFilter(long expectedEntries, double falsePositiveRate) {
+        if (expectedEntries < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("expectedEntries must be positive and falsePositiveRate in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long size = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        long wordCount = Math.max(1L, (size + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD);
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter too large for " + expectedEntries + " entries");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.counters = wordCount * COUNTERS_PER_WORD;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) counters / expectedEntries * ln2));
+    }
+
+    public void add(String value) {
+        long hash1 = hash(value);
+        long hash2 = secondHash(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            increment(index(hash1 + i * hash2));
+        }
+    }
+
+    /**
+     * Removes one earlier {@link #add} of the value. Removing a value that was never added can
+     * make other values look absent, so callers must only remove what they know is present.
+     */
+    public void remove(String value) {
+        long hash1 = hash(value);
+        long hash2 = secondHash(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            decrement(index(hash1 + i * hash2));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = secondHash(hash1);
+        for (int i = 0; i < hashFunctions; i++) {
+            long index = index(hash1 + i * hash2);
+            if (counter(words.get(word(index)), index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Memory held by the counters, in bytes.
+     */
+    public long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    private void increment(long index) {
+        int word = word(index);
+        int shift = shift(index);
+        long current;
+        do {
+            current = words.get(word);
+            if ((current >>> shift & COUNTER_MASK) == MAX_COUNT) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current + (1L << shift)));
+    }
+
+    private void decrement(long index) {
+        int word = word(index);
+        int shift = shift(index);
+        long current;
+        do {
+            current = words.get(word);
+            long count = current >>> shift & COUNTER_MASK;
+            if (count == 0 || count == MAX_COUNT) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current - (1L << shift)));
+    }
+
+    private long index(long combinedHash) {
+        return Math.floorMod(combinedHash, counters);
+    }
+
+    private static int word(long index) {
+        return (int) (index / COUNTERS_PER_WORD);
+    }
+
+    private static int shift(long index) {
+        return (int) (index % COUNTERS_PER_WORD) * 4;
+    }
+
+    private static long counter(long word, long index) {
+        return word >>> shift(index) & COUNTER_MASK;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with a SplitMix64 mix for better spread.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Odd step for double hashing, so the probes of one value never collapse onto one counter.
+     */
+    private static long secondHash(long hash1) {
+        return mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,90 @@
+package org.genc.sneakoapp.usermanagementservice.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.repo.RoleRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The roles table, held in memory by {@link RoleType}. There are only a handful of roles and they
+ * rarely change, so readers get an immutable snapshot through a volatile read, and every change
+ * replaces the whole snapshot (copy-on-write). RoleServiceImpl refreshes it after each role write.
+ * The returned roles are detached entities shared between threads: use them to reference a role
+ * (e.g. in a user's role set), never modify them.
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    // Null until the first load; loaded lazily if a lookup comes before ApplicationReadyEvent
+    private volatile Map<RoleType, Role> roles;
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * The role with this name. A role missing from the snapshot triggers one reload, in case it
+     * was added by another instance; if it is still missing the result is empty.
+     */
+    public Optional<Role> find(RoleType roleType) {
+        Role role = snapshot().get(roleType);
+        if (role == null) {
+            role = refresh().get(roleType);
+        }
+        return Optional.ofNullable(role);
+    }
+
+    /**
+     * All roles as an immutable map.
+     */
+    public Map<RoleType, Role> all() {
+        return snapshot();
+    }
+
+    /**
+     * Reloads the roles once the current transaction commits, or right away outside a transaction.
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    private Map<RoleType, Role> snapshot() {
+        Map<RoleType, Role> current = roles;
+        return current != null ? current : refresh();
+    }
+
+    private synchronized Map<RoleType, Role> refresh() {
+        Map<RoleType, Role> loaded = new EnumMap<>(RoleType.class);
+        roleRepository.findAll().forEach(role -> loaded.put(role.getName(), role));
+        Map<RoleType, Role> snapshot = Collections.unmodifiableMap(loaded);
+        roles = snapshot;
+        log.debug("Loaded {} roles", snapshot.size());
+        return snapshot;
+    }
+}
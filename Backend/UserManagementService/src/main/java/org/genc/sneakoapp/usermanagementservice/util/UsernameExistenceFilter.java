@@ -0,0 +1,138 @@
+package org.genc.sneakoapp.usermanagementservice.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.genc.sneakoapp.usermanagementservice.repo.UserExportRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory filter of the usernames in the users table, so that the live availability check can
+ * skip the database lookup for names that are not taken. The filter is local to this instance: it
+ * knows the names present at startup and those inserted here, but misses names registered on
+ * other instances since: an "absent" answer lets registration and import skip their lookup, and
+ * the unique index on users.username catches a name taken elsewhere. "Maybe present" answers must
+ * be confirmed against the database.
+ * The filter is filled from a scan of the table once the application is ready; until then every
+ * answer is "maybe". Usernames are lower-cased, as MySQL compares them case-insensitively.
+ * Services must report every username they insert ({@link #added}) and delete
+ * ({@link #removedAfterCommit}).
+ */
+@Component
+@Slf4j
+public class UsernameExistenceFilter implements MeterBinder {
+
+    private final UserExportRepository userExportRepository;
+    // Allocated up front so that names added while the scan runs are not lost
+    private final CountingBloomFilter filter;
+    private volatile boolean ready;
+
+    private final LongAdder definitelyAbsent = new LongAdder();
+    private final LongAdder maybePresent = new LongAdder();
+    private final AtomicLong loaded = new AtomicLong();
+
+    public UsernameExistenceFilter(UserExportRepository userExportRepository,
+                                   @Value("${genc.username-filter.expected-users:1000000}") long expectedUsers,
+                                   @Value("${genc.username-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userExportRepository = userExportRepository;
+        this.filter = new CountingBloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        try {
+            userExportRepository.streamUsernames(username -> {
+                filter.add(key(username));
+                loaded.incrementAndGet();
+            });
+            ready = true;
+            log.info("Username filter loaded {} names ({} KiB, {} hash functions) in {} ms", loaded.get(),
+                    filter.sizeInBytes() / 1024, filter.hashFunctions(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            // Stays "maybe" for everything, i.e. every check goes to the database as before
+            log.error("Could not load the username filter, registration checks will use the database", e);
+        }
+    }
+
+    /**
+     * False if no user with this name was present at startup or inserted through this instance.
+     */
+    public boolean mightExist(String username) {
+        if (!ready || filter.mightContain(key(username))) {
+            maybePresent.increment();
+            return true;
+        }
+        definitelyAbsent.increment();
+        return false;
+    }
+
+    /**
+     * Call before the insert commits: a name briefly reported as present costs one extra lookup,
+     * a name missing from the filter would let a duplicate through.
+     */
+    public void added(String username) {
+        if (username != null) {
+            filter.add(key(username));
+        }
+    }
+
+    /**
+     * Removes the name once the current transaction commits (right away outside a transaction),
+     * so a rolled-back delete leaves the filter alone.
+     */
+    public void removedAfterCommit(String username) {
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(username);
+                }
+            });
+        } else {
+            remove(username);
+        }
+    }
+
+    private void remove(String username) {
+        // Before the scan finished the name may not be counted yet; removing it could undercount
+        if (ready) {
+            filter.remove(key(username));
+        }
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("user.username.filter.checks", definitelyAbsent, LongAdder::sum)
+                .description("Username existence checks, by whether the database had to confirm them")
+                .tag("result", "absent")
+                .register(registry);
+        FunctionCounter.builder("user.username.filter.checks", maybePresent, LongAdder::sum)
+                .description("Username existence checks, by whether the database had to confirm them")
+                .tag("result", "maybe")
+                .register(registry);
+        Gauge.builder("user.username.filter.loaded", loaded, AtomicLong::get)
+                .description("Usernames loaded into the filter at startup")
+                .register(registry);
+    }
+}
@@ -0,0 +1,71 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import org.genc.sneakoapp.usermanagementservice.util.CountingBloomFilter;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CountingBloomFilterTest {
+
+    @Test
+    void testMightContain_neverMissesAddedValues() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain("user" + i))).isTrue();
+    }
+
+    @Test
+    void testMightContain_falsePositiveRateStaysNearTarget() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.add("user" + i));
+
+        long falsePositives = IntStream.range(0, 10_000).filter(i -> filter.mightContain("other" + i)).count();
+
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void testRemove_forgetsValueButKeepsOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(1_000, 0.01);
+        IntStream.range(0, 1_000).forEach(i -> filter.add("user" + i));
+
+        IntStream.range(0, 500).forEach(i -> filter.remove("user" + i));
+
+        assertThat(IntStream.range(500, 1_000).allMatch(i -> filter.mightContain("user" + i))).isTrue();
+        assertThat(IntStream.range(0, 500).filter(i -> filter.mightContain("user" + i)).count()).isLessThan(50);
+    }
+
+    @Test
+    void testRemove_duplicateAddsNeedAsManyRemoves() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01);
+        filter.add("bob");
+        filter.add("bob");
+
+        filter.remove("bob");
+        assertThat(filter.mightContain("bob")).isTrue();
+
+        filter.remove("bob");
+        assertThat(filter.mightContain("bob")).isFalse();
+    }
+
+    @Test
+    void testSaturatedCountersAreNeverDecremented() {
+        CountingBloomFilter filter = new CountingBloomFilter(100, 0.01);
+        IntStream.range(0, 20).forEach(i -> filter.add("hot"));
+
+        IntStream.range(0, 20).forEach(i -> filter.remove("hot"));
+
+        // The counters stuck at their maximum, so the value can no longer be removed
+        assertThat(filter.mightContain("hot")).isTrue();
+    }
+
+    @Test
+    void testConstructor_rejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new CountingBloomFilter(100, 1.0));
+    }
+}
@@ -0,0 +1,85 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.exception.ServiceBusyException;
+import org.genc.sneakoapp.usermanagementservice.security.RehashingBCryptPasswordEncoder;
+import org.genc.sneakoapp.usermanagementservice.service.impl.LoginServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Login throughput through the bounded BCrypt pool at the production cost factor, with more
+ * concurrent clients than the pool can take. Only runs with -Dbenchmark=true:
+ * mvn test -Dtest=LoginThroughputBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LoginThroughputBenchmarkTest {
+
+    private static final int STRENGTH = 10;
+    private static final int CLIENTS = 32;
+    private static final int LOGINS_PER_CLIENT = 20;
+
+    @Test
+    void measureLoginThroughput() throws Exception {
+        RehashingBCryptPasswordEncoder encoder = new RehashingBCryptPasswordEncoder(STRENGTH);
+        User user = User.builder()
+                .id(1L)
+                .username("bench")
+                .password(encoder.encode("bench123"))
+                .roles(Set.of(Role.builder().name(RoleType.ROLE_CUSTOMER).build()))
+                .build();
+        UserDetailsService userDetailsService = username -> new CustomUserDetails(user);
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+
+        int poolSize = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), new ThreadPoolExecutor.AbortPolicy());
+        LoginServiceImpl loginService = new LoginServiceImpl(new ProviderManager(provider), pool);
+
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<CompletableFuture<Void>> runs = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            runs.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < LOGINS_PER_CLIENT; i++) {
+                    try {
+                        loginService.login("bench", "bench123", "ROLE_CUSTOMER").join();
+                        succeeded.incrementAndGet();
+                    } catch (ServiceBusyException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }, clients));
+        }
+        CompletableFuture.allOf(runs.toArray(CompletableFuture[]::new)).join();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        clients.shutdown();
+        pool.shutdown();
+
+        System.out.printf("BCrypt cost %d, %d pool threads, %d clients: %d logins in %.2fs (%.1f/s), %d rejected with 503%n",
+                STRENGTH, poolSize, CLIENTS, succeeded.get(), seconds, succeeded.get() / seconds, rejected.get());
+        assertThat(succeeded.get() + rejected.get()).isEqualTo(CLIENTS * LOGINS_PER_CLIENT);
+    }
+}
@@ -0,0 +1,120 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import org.genc.sneakoapp.usermanagementservice.entity.RefreshToken;
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.exception.InvalidRefreshTokenException;
+import org.genc.sneakoapp.usermanagementservice.repo.RefreshTokenRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.service.api.RefreshTokenService;
+import org.genc.sneakoapp.usermanagementservice.service.impl.RefreshTokenServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceImplTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T10:00:00Z");
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private RefreshTokenServiceImpl refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        refreshTokenService = new RefreshTokenServiceImpl(refreshTokenRepository, userRepository,
+                Duration.ofDays(7), Clock.fixed(NOW, ZoneOffset.UTC));
+        user = User.builder()
+                .id(1L)
+                .username("alice")
+                .password("hash")
+                .roles(Set.of(Role.builder().name(RoleType.ROLE_CUSTOMER).build()))
+                .build();
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+    }
+
+    @Test
+    void testIssue_storesOnlyTheHash() {
+        String rawToken = refreshTokenService.issue(1L);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getTokenHash()).hasSize(64).isNotEqualTo(rawToken);
+        assertThat(saved.getValue().getExpiresAt()).isEqualTo(NOW.plus(Duration.ofDays(7)));
+        assertThat(saved.getValue().getUser()).isSameAs(user);
+    }
+
+    @Test
+    void testRotate_consumesTokenAndIssuesReplacement() {
+        String rawToken = refreshTokenService.issue(1L);
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        String tokenHash = saved.getValue().getTokenHash();
+        when(refreshTokenRepository.findByTokenHashWithUser(tokenHash)).thenReturn(Optional.of(saved.getValue()));
+        when(refreshTokenRepository.deleteByTokenHash(tokenHash)).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(rawToken);
+
+        assertThat(rotation.user().getUsername()).isEqualTo("alice");
+        assertThat(rotation.refreshToken()).isNotEqualTo(rawToken);
+        verify(refreshTokenRepository).deleteByTokenHash(tokenHash);
+        verify(refreshTokenRepository, times(2)).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testRotate_alreadyUsedTokenIsRejected() {
+        RefreshToken used = RefreshToken.builder()
+                .tokenHash("h")
+                .user(user)
+                .expiresAt(NOW.plusSeconds(60))
+                .build();
+        when(refreshTokenRepository.findByTokenHashWithUser(anyString())).thenReturn(Optional.of(used));
+        when(refreshTokenRepository.deleteByTokenHash(anyString())).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raced-token"));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testRotate_unknownTokenIsRejected() {
+        when(refreshTokenRepository.findByTokenHashWithUser(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+
+    @Test
+    void testRotate_expiredTokenIsRejected() {
+        RefreshToken expired = RefreshToken.builder()
+                .tokenHash("h")
+                .user(user)
+                .expiresAt(NOW.minusSeconds(1))
+                .build();
+        when(refreshTokenRepository.findByTokenHashWithUser(anyString())).thenReturn(Optional.of(expired));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("old-token"));
+        verify(refreshTokenRepository, never()).deleteByTokenHash(anyString());
+        verify(refreshTokenRepository, never()).save(any(RefreshToken.class));
+    }
+}
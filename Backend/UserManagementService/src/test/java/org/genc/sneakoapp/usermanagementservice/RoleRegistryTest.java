@@ -0,0 +1,81 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.repo.RoleRepository;
+import org.genc.sneakoapp.usermanagementservice.util.RoleRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class RoleRegistryTest {
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    private RoleRegistry roleRegistry;
+
+    private final Role customer = Role.builder().id(1L).name(RoleType.ROLE_CUSTOMER).build();
+    private final Role admin = Role.builder().id(2L).name(RoleType.ROLE_ADMIN).build();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        roleRegistry = new RoleRegistry(roleRepository);
+    }
+
+    @Test
+    void testFind_loadsOnceThenServesFromMemory() {
+        when(roleRepository.findAll()).thenReturn(List.of(customer, admin));
+
+        assertThat(roleRegistry.find(RoleType.ROLE_CUSTOMER)).containsSame(customer);
+        assertThat(roleRegistry.find(RoleType.ROLE_ADMIN)).containsSame(admin);
+        assertThat(roleRegistry.find(RoleType.ROLE_CUSTOMER)).containsSame(customer);
+
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testFind_missingRoleReloadsOnce() {
+        Role dev = Role.builder().id(3L).name(RoleType.ROLE_DEV).build();
+        when(roleRepository.findAll()).thenReturn(List.of(customer), List.of(customer, dev));
+
+        assertThat(roleRegistry.find(RoleType.ROLE_CUSTOMER)).containsSame(customer);
+        assertThat(roleRegistry.find(RoleType.ROLE_DEV)).containsSame(dev);
+
+        verify(roleRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testFind_unknownRoleIsEmpty() {
+        when(roleRepository.findAll()).thenReturn(List.of(customer));
+
+        assertThat(roleRegistry.find(RoleType.ROLE_ADMIN)).isEmpty();
+    }
+
+    @Test
+    void testRefreshAfterCommit_outsideTransactionReplacesSnapshot() {
+        Role renamed = Role.builder().id(1L).name(RoleType.ROLE_CUSTOMER).description("Customers").build();
+        when(roleRepository.findAll()).thenReturn(List.of(customer), List.of(renamed));
+        roleRegistry.load();
+
+        roleRegistry.refreshAfterCommit();
+
+        assertThat(roleRegistry.find(RoleType.ROLE_CUSTOMER)).containsSame(renamed);
+    }
+
+    @Test
+    void testAll_isUnmodifiable() {
+        when(roleRepository.findAll()).thenReturn(List.of(customer, admin));
+
+        assertThat(roleRegistry.all()).containsOnlyKeys(RoleType.ROLE_CUSTOMER, RoleType.ROLE_ADMIN);
+        assertThrows(UnsupportedOperationException.class, () -> roleRegistry.all().remove(RoleType.ROLE_ADMIN));
+    }
+}
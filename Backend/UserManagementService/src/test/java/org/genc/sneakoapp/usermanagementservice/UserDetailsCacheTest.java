@@ -0,0 +1,72 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import org.genc.sneakoapp.usermanagementservice.dto.CustomUserDetails;
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.security.UserDetailsCache;
+import org.genc.sneakoapp.usermanagementservice.service.impl.CustomUserDetailsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class UserDetailsCacheTest {
+
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    private UserDetailsCache userDetailsCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        userDetailsCache = new UserDetailsCache(userDetailsService, 100, Duration.ofMinutes(5));
+
+        User user = User.builder()
+                .id(1L)
+                .username("alice")
+                .password("hash")
+                .roles(Set.of(Role.builder().name(RoleType.ROLE_CUSTOMER).build()))
+                .build();
+        when(userDetailsService.loadUserByUsername("alice")).thenAnswer(inv -> new CustomUserDetails(user));
+    }
+
+    @Test
+    void testGet_loadsOnceThenServesFromCache() {
+        CustomUserDetails first = userDetailsCache.get("alice");
+        CustomUserDetails second = userDetailsCache.get("alice");
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getRoles()).containsExactly("ROLE_CUSTOMER");
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void testEvictAfterCommit_withoutTransactionEvictsImmediately() {
+        userDetailsCache.get("alice");
+
+        userDetailsCache.evictAfterCommit("alice", null);
+        userDetailsCache.get("alice");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("alice");
+    }
+
+    @Test
+    void testGet_unknownUserIsNotCached() {
+        when(userDetailsService.loadUserByUsername("bob")).thenThrow(new UsernameNotFoundException("User not found: bob"));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("bob"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("bob"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("bob");
+    }
+}
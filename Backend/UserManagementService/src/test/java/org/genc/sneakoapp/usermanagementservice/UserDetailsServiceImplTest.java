@@ -0,0 +1,124 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import org.genc.sneakoapp.usermanagementservice.dto.UserDetailsDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.UserPageDTO;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.repo.RefreshTokenRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserExportRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.security.UserDetailsCache;
+import org.genc.sneakoapp.usermanagementservice.service.impl.UserDetailsServiceImpl;
+import org.genc.sneakoapp.usermanagementservice.util.UsernameExistenceFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    private UserExportRepository userExportRepository;
+
+    @Mock
+    private UsernameExistenceFilter usernameExistenceFilter;
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static List<UserDetailsDTO> users(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> new UserDetailsDTO(id, "user" + id, "user" + id + "@example.com"))
+                .toList();
+    }
+
+    @Test
+    void testGetCustomerPage_fullPageReturnsCursorOfLastRow() {
+        when(userRepository.findPageByRoleName(eq(RoleType.ROLE_CUSTOMER), eq(10L), isNull(), isNull(), eq(Limit.of(4))))
+                .thenReturn(users(11, 14));
+
+        UserPageDTO page = userDetailsService.getCustomerPage(10L, 3, null, null);
+
+        assertThat(page.getContent()).extracting(UserDetailsDTO::getId).containsExactly(11L, 12L, 13L);
+        assertThat(page.getNextAfterId()).isEqualTo(13L);
+    }
+
+    @Test
+    void testGetCustomerPage_lastPageHasNoCursor() {
+        when(userRepository.findPageByRoleName(eq(RoleType.ROLE_CUSTOMER), eq(20L), isNull(), isNull(), eq(Limit.of(4))))
+                .thenReturn(users(21, 22));
+
+        UserPageDTO page = userDetailsService.getCustomerPage(20L, 3, null, null);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getNextAfterId()).isNull();
+    }
+
+    @Test
+    void testGetCustomerPage_defaultsAndClampsSize() {
+        when(userRepository.findPageByRoleName(any(), anyLong(), any(), any(), any())).thenReturn(List.of());
+
+        userDetailsService.getCustomerPage(null, null, null, null);
+        userDetailsService.getCustomerPage(null, 1_000_000, null, null);
+
+        verify(userRepository).findPageByRoleName(RoleType.ROLE_CUSTOMER, 0L, null, null,
+                Limit.of(UserDetailsServiceImpl.DEFAULT_PAGE_SIZE + 1));
+        verify(userRepository).findPageByRoleName(RoleType.ROLE_CUSTOMER, 0L, null, null,
+                Limit.of(UserDetailsServiceImpl.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void testGetCustomerPage_prefixesAreEscapedLikePatterns() {
+        when(userRepository.findPageByRoleName(any(), anyLong(), any(), any(), any())).thenReturn(List.of());
+
+        userDetailsService.getCustomerPage(0L, 10, "a_b%", "x!y");
+
+        verify(userRepository).findPageByRoleName(RoleType.ROLE_CUSTOMER, 0L, "a!_b!%%", "x!!y%", Limit.of(11));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportCustomers_streamsRowsToSink() {
+        doAnswer(inv -> {
+            Consumer<UserDetailsDTO> sink = inv.getArgument(3);
+            users(1, 3).forEach(sink);
+            return null;
+        }).when(userExportRepository).streamByRole(eq(RoleType.ROLE_CUSTOMER), eq("al%"), isNull(), any(Consumer.class));
+
+        List<UserDetailsDTO> exported = new ArrayList<>();
+        userDetailsService.exportCustomers("al", "", exported::add);
+
+        assertThat(exported).extracting(UserDetailsDTO::getId).containsExactly(1L, 2L, 3L);
+    }
+}
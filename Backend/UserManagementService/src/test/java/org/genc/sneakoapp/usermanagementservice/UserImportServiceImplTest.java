@@ -0,0 +1,223 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.genc.sneakoapp.usermanagementservice.dto.UserImportErrorDTO;
+import org.genc.sneakoapp.usermanagementservice.dto.UserImportResultDTO;
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.exception.InvalidImportFileException;
+import org.genc.sneakoapp.usermanagementservice.repo.RoleRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserExportRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.service.api.UserImportService.Format;
+import org.genc.sneakoapp.usermanagementservice.service.impl.UserImportServiceImpl;
+import org.genc.sneakoapp.usermanagementservice.util.RoleRegistry;
+import org.genc.sneakoapp.usermanagementservice.util.UsernameExistenceFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceImplTest {
+
+    private static final String BCRYPT_HASH = "$2a$10$abcdefghijklmnopqrstuuQ6tS5wZ2m5m8WkZJd0Xb1p2P3q4r5s6";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserExportRepository userExportRepository;
+
+    private UsernameExistenceFilter usernameExistenceFilter;
+
+    private UserImportServiceImpl userImportService;
+
+    private final Set<String> stored = new HashSet<>();
+
+    private final Role customer = Role.builder().id(1L).name(RoleType.ROLE_CUSTOMER).build();
+    private final Role admin = Role.builder().id(2L).name(RoleType.ROLE_ADMIN).build();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // Not loaded yet, so every name is "maybe" and checked against the repository
+        usernameExistenceFilter = new UsernameExistenceFilter(userExportRepository, 1000, 0.01);
+        userImportService = new UserImportServiceImpl(userRepository, new RoleRegistry(roleRepository), passwordEncoder,
+                Runnable::run, entityManager, transactionManager, new ObjectMapper(), usernameExistenceFilter, 2);
+
+        when(roleRepository.findAll()).thenReturn(List.of(customer, admin));
+        when(entityManager.getReference(Role.class, 1L)).thenReturn(customer);
+        when(entityManager.getReference(Role.class, 2L)).thenReturn(admin);
+        when(passwordEncoder.encode(anyString())).thenAnswer(inv -> "hashed-" + inv.getArgument(0));
+        // Behaves like the database: users persisted by earlier chunks exist, and so does "bob"
+        stored.clear();
+        stored.add("bob");
+        doAnswer(inv -> stored.add(((User) inv.getArgument(0)).getUsername())).when(entityManager).persist(any(User.class));
+        // Compares like MySQL's case-insensitive collation, and returns the stored spelling
+        when(userRepository.findExistingUsernames(any())).thenAnswer(inv -> {
+            Collection<String> names = inv.getArgument(0);
+            return stored.stream().filter(name -> names.stream().anyMatch(name::equalsIgnoreCase)).toList();
+        });
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<User> persistedUsers(int expected) {
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(entityManager, times(expected)).persist(captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    void testImportCsv_reportsDuplicatesPerRowAndImportsTheRest() throws Exception {
+        String csv = "username,email,password,role\n"
+                + "alice,alice@example.com,secret1,\n"
+                + "alice,other@example.com,secret2,\n"
+                + "bob,bob@example.com,secret3,customer\n"
+                + "carol,\"carol, c@example.com\",secret4,ROLE_ADMIN\n"
+                + "alice,third@example.com,secret5,\n";
+
+        UserImportResultDTO result = userImportService.importUsers(input(csv), Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(3);
+        assertThat(result.isErrorsTruncated()).isFalse();
+        assertThat(result.getErrors()).extracting(UserImportErrorDTO::getLine, UserImportErrorDTO::getMessage)
+                .containsExactly(
+                        tuple(3L, "Duplicate username in file"),
+                        tuple(4L, "Username already exists"),
+                        tuple(6L, "Username already exists"));
+
+        List<User> users = persistedUsers(2);
+        assertThat(users).extracting(User::getUsername).containsExactly("alice", "carol");
+        assertThat(users.get(0).getPassword()).isEqualTo("hashed-secret1");
+        assertThat(users.get(0).getRoles()).containsExactly(customer);
+        assertThat(users.get(1).getEmail()).isEqualTo("carol, c@example.com");
+        assertThat(users.get(1).getRoles()).containsExactly(admin);
+        // Roles are loaded once into the registry, not per row or chunk
+        verify(roleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testImportCsv_duplicatesDifferingOnlyInCase() throws Exception {
+        String csv = "username,password\n"
+                + "Alice,p\n"
+                + "ALICE,p\n"
+                + "Bob,p\n";
+
+        UserImportResultDTO result = userImportService.importUsers(input(csv), Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportErrorDTO::getLine, UserImportErrorDTO::getMessage)
+                .containsExactly(
+                        tuple(3L, "Duplicate username in file"),
+                        tuple(4L, "Username already exists"));
+        assertThat(persistedUsers(1).get(0).getUsername()).isEqualTo("Alice");
+    }
+
+    @Test
+    void testImportNdjson_keepsBcryptHashesAndRejectsBadRows() throws Exception {
+        String ndjson = "{\"username\":\"dave\",\"password\":\"" + BCRYPT_HASH + "\"}\n"
+                + "\n"
+                + "{\"username\":\"erin\",\"password\":\"pw\",\"roleType\":\"ROLE_UNKNOWN\"}\n"
+                + "not json\n"
+                + "{\"username\":\"frank\"}\n";
+
+        UserImportResultDTO result = userImportService.importUsers(input(ndjson), Format.NDJSON);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportErrorDTO::getLine).containsExactly(3L, 4L, 5L);
+        assertThat(result.getErrors()).extracting(UserImportErrorDTO::getMessage)
+                .containsExactly("Unknown role ROLE_UNKNOWN", "Malformed JSON", "password is required");
+        assertThat(persistedUsers(1).get(0).getPassword()).isEqualTo(BCRYPT_HASH);
+        verify(passwordEncoder, never()).encode(anyString());
+    }
+
+    @Test
+    void testImportCsv_withoutPasswordColumnIsRejected() {
+        assertThrows(InvalidImportFileException.class,
+                () -> userImportService.importUsers(input("username,email\nalice,a@example.com\n"), Format.CSV));
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void testImportCsv_commitsOneTransactionPerChunk() throws Exception {
+        String csv = "username,password\nu1,p\nu2,p\nu3,p\n";
+
+        UserImportResultDTO result = userImportService.importUsers(input(csv), Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        verify(transactionManager, times(2)).commit(any());
+        verify(entityManager, times(2)).flush();
+        verify(userRepository, times(2)).findExistingUsernames(any());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void testImportCsv_namesTheFilterRulesOutAreNotLookedUp() throws Exception {
+        usernameExistenceFilter.load();
+
+        UserImportResultDTO result = userImportService.importUsers(input("username,password\nnew1,p\nnew2,p\n"), Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(2);
+        verify(userRepository, never()).findExistingUsernames(any());
+        assertThat(usernameExistenceFilter.mightExist("NEW1")).isTrue();
+    }
+
+    @Test
+    void testImportCsv_nameTakenOnAnotherInstance_chunkRetriedWithLookups() throws Exception {
+        // Loaded before "bob" was registered through another instance; the unique index rejects him
+        usernameExistenceFilter.load();
+        doAnswer(inv -> {
+            String username = ((User) inv.getArgument(0)).getUsername();
+            if (stored.stream().anyMatch(username::equalsIgnoreCase)) {
+                throw new PersistenceException("Duplicate entry '" + username + "' for key 'uk_users_username'");
+            }
+            return stored.add(username);
+        }).when(entityManager).persist(any(User.class));
+
+        UserImportResultDTO result = userImportService.importUsers(input("username,password\nbob,p\nnew1,p\n"), Format.CSV);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(UserImportErrorDTO::getLine, UserImportErrorDTO::getMessage)
+                .containsExactly(tuple(2L, "Username already exists"));
+        assertThat(stored).containsExactlyInAnyOrder("bob", "new1");
+        verify(userRepository, times(1)).findExistingUsernames(any());
+    }
+}
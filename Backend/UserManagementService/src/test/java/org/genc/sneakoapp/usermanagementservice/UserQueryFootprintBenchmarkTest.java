@@ -0,0 +1,122 @@
+package org.genc.sneakoapp.usermanagementservice;
+
+import jakarta.persistence.EntityManager;
+import org.genc.sneakoapp.usermanagementservice.entity.Role;
+import org.genc.sneakoapp.usermanagementservice.entity.User;
+import org.genc.sneakoapp.usermanagementservice.enums.RoleType;
+import org.genc.sneakoapp.usermanagementservice.repo.RoleRepository;
+import org.genc.sneakoapp.usermanagementservice.repo.UserRepository;
+import org.genc.sneakoapp.usermanagementservice.util.RoleRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements and managed objects per request for the user read paths, before (entities with eager
+ * roles, role lookups in the database) and after (column projections, RoleRegistry), measured with
+ * Hibernate statistics on H2. Only runs with -Dbenchmark=true:
+ * mvn test -Dtest=UserQueryFootprintBenchmarkTest -Dbenchmark=true
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql=INFO"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserQueryFootprintBenchmarkTest {
+
+    private static final int CUSTOMERS = 200;
+    private static final int REGISTRATIONS = 100;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private Statistics statistics;
+    private Long sampleId;
+
+    @BeforeEach
+    void setUp() {
+        Role customer = roleRepository.save(Role.builder().name(RoleType.ROLE_CUSTOMER).description("Customer").build());
+        Role admin = roleRepository.save(Role.builder().name(RoleType.ROLE_ADMIN).description("Admin").build());
+        for (int i = 0; i < CUSTOMERS; i++) {
+            User user = userRepository.save(User.builder()
+                    .username("customer" + i)
+                    .password("hash")
+                    .email("customer" + i + "@example.com")
+                    .Address("Street " + i)
+                    .phone("9000000000")
+                    .roles(i % 10 == 0 ? Set.of(customer, admin) : Set.of(customer))
+                    .build());
+            if (i == 0) {
+                sampleId = user.getId();
+            }
+        }
+        entityManager.flush();
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void measureQueryFootprint() {
+        List<Footprint> results = new ArrayList<>();
+
+        results.add(measure("user by id, entity", () -> userRepository.findById(sampleId).orElseThrow().getEmail()));
+        results.add(measure("user by id, projection", () -> userRepository.findDetailsById(sampleId).orElseThrow()));
+        results.add(measure("profile by id, entity", () -> userRepository.findById(sampleId).orElseThrow().getPhone()));
+        results.add(measure("profile by id, projection", () -> userRepository.findProfileById(sampleId).orElseThrow()));
+        results.add(measure("customer list, entities", () -> userRepository.findAllByRoleName(RoleType.ROLE_CUSTOMER).size()));
+        results.add(measure("customer list, projection", () ->
+                userRepository.findPageByRoleName(RoleType.ROLE_CUSTOMER, 0L, null, null, Limit.unlimited()).size()));
+        results.add(measure(REGISTRATIONS + " role lookups, repository", () -> {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                roleRepository.findByName(RoleType.ROLE_CUSTOMER).orElseThrow();
+            }
+        }));
+        RoleRegistry roleRegistry = new RoleRegistry(roleRepository);
+        results.add(measure(REGISTRATIONS + " role lookups, registry", () -> {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                roleRegistry.find(RoleType.ROLE_CUSTOMER).orElseThrow();
+            }
+        }));
+
+        System.out.printf("%-32s %10s %10s %12s%n", "path", "statements", "entities", "collections");
+        results.forEach(f -> System.out.printf("%-32s %10d %10d %12d%n", f.name, f.statements, f.entities, f.collections));
+
+        for (int i = 0; i < results.size(); i += 2) {
+            Footprint before = results.get(i);
+            Footprint after = results.get(i + 1);
+            assertThat(after.statements).as(after.name).isLessThanOrEqualTo(before.statements);
+            assertThat(after.entities + after.collections).as(after.name)
+                    .isLessThan(before.entities + before.collections);
+        }
+    }
+
+    private Footprint measure(String name, Runnable work) {
+        entityManager.clear();
+        statistics.clear();
+        work.run();
+        return new Footprint(name, statistics.getPrepareStatementCount(), statistics.getEntityLoadCount(),
+                statistics.getCollectionLoadCount());
+    }
+
+    private record Footprint(String name, long statements, long entities, long collections) {
+    }
+}
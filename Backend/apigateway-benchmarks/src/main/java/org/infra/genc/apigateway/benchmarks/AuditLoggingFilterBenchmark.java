@@ -0,0 +1,72 @@
+package org.infra.genc.apigateway.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infra.genc.apigateway.util.AuditLog;
+import org.infra.genc.apigateway.util.AuditLoggingFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-thread cost of AuditLoggingFilter: sampling, claiming a ring slot and filling the event.
+ * The writer thread runs as in production and writes to a temporary file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AuditLoggingFilterBenchmark {
+
+    @Param({"1.0", "0.1"})
+    public double sampleRate;
+
+    private Path auditFile;
+    private AuditLog auditLog;
+    private AuditLoggingFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        auditFile = Files.createTempFile("gateway-audit", ".jsonl");
+        auditLog = new AuditLog(true, auditFile.toString(), sampleRate, 8192, 256, true, 64, new SimpleMeterRegistry());
+        auditLog.start();
+        filter = new AuditLoggingFilter(auditLog);
+    }
+
+    // Keeps the temporary file from growing for the whole run; the writer appends, so it carries on
+    @TearDown(Level.Iteration)
+    public void truncate() throws IOException {
+        Files.newOutputStream(auditFile, StandardOpenOption.TRUNCATE_EXISTING).close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException, IOException {
+        auditLog.stop();
+        Files.deleteIfExists(auditFile);
+    }
+
+    @Benchmark
+    public MockServerWebExchange filter() {
+        MockServerWebExchange exchange = GatewayFixtures.exchange(GatewayFixtures.PRODUCT_PATH, null);
+        filter.filter(exchange, GatewayFixtures.TERMINAL_CHAIN).block();
+        return exchange;
+    }
+}
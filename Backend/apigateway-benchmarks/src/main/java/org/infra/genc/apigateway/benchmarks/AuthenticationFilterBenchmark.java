@@ -0,0 +1,95 @@
+package org.infra.genc.apigateway.benchmarks;
+
+import org.infra.genc.apigateway.filter.AuthenticationFilter;
+import org.infra.genc.apigateway.filter.RouteValidator;
+import org.infra.genc.apigateway.util.JwtClaimsCache;
+import org.infra.genc.apigateway.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of AuthenticationFilter per request, for each way a request can go through it.
+ * The mock exchange is built inside the measured method; {@link #exchangeOnly()} measures that
+ * part alone so it can be subtracted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class AuthenticationFilterBenchmark {
+
+    /**
+     * public: open endpoint, no token.
+     * valid: customer token on the product route (claims cache hit after the first call).
+     * expired: expired token, verified and rejected with 401 every time.
+     * forbidden: customer token on the admin-only analytics route (403).
+     * missing: secured route without an Authorization header (401).
+     */
+    @Param({"public", "valid", "expired", "forbidden", "missing"})
+    public String scenario;
+
+    private GatewayFilter filter;
+    private String path;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(GatewayFixtures.SECRET, TimeUnit.MINUTES.toMillis(45));
+        JwtClaimsCache claimsCache = new JwtClaimsCache(jwtUtil, 10_000, Duration.ofMinutes(15));
+        filter = new AuthenticationFilter(new RouteValidator(), claimsCache).apply(new AuthenticationFilter.Config());
+
+        String customerToken = GatewayFixtures.token("customer", "ROLE_CUSTOMER", TimeUnit.HOURS.toMillis(1));
+        switch (scenario) {
+            case "public" -> {
+                path = GatewayFixtures.PUBLIC_PATH;
+                token = null;
+            }
+            case "valid" -> {
+                path = GatewayFixtures.PRODUCT_PATH;
+                token = customerToken;
+            }
+            case "expired" -> {
+                path = GatewayFixtures.PRODUCT_PATH;
+                token = GatewayFixtures.token("customer", "ROLE_CUSTOMER", -TimeUnit.MINUTES.toMillis(5));
+            }
+            case "forbidden" -> {
+                path = GatewayFixtures.ANALYTICS_PATH;
+                token = customerToken;
+            }
+            case "missing" -> {
+                path = GatewayFixtures.PRODUCT_PATH;
+                token = null;
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario);
+        }
+    }
+
+    @Benchmark
+    public HttpStatusCode filter() {
+        MockServerWebExchange exchange = GatewayFixtures.exchange(path, token);
+        filter.filter(exchange, GatewayFixtures.TERMINAL_CHAIN).block();
+        return exchange.getResponse().getStatusCode();
+    }
+
+    @Benchmark
+    public MockServerWebExchange exchangeOnly() {
+        return GatewayFixtures.exchange(path, token);
+    }
+}
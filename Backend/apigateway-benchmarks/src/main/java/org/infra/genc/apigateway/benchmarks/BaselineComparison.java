@@ -0,0 +1,104 @@
+package org.infra.genc.apigateway.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the committed baseline and fails when a benchmark got
+ * slower, or allocates more per operation, by more than the threshold:
+ * <pre>
+ * java -cp target/benchmarks.jar org.infra.genc.apigateway.benchmarks.BaselineComparison \
+ *     results/baseline.json results/current.json 10
+ * </pre>
+ * Benchmarks missing from the baseline are listed but do not fail the comparison on their own;
+ * when none of the current benchmarks is in the baseline (e.g. it is still empty) nothing was
+ * checked, and that fails too.
+ */
+public final class BaselineComparison {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparison <baseline.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+        double thresholdPercent = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Result> baseline = read(Path.of(args[0]));
+        Map<String, Result> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        int compared = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW   %-80s %12.1f %s%n", entry.getKey(), now.score(), now.unit());
+                continue;
+            }
+            compared++;
+            double timeChange = change(before.score(), now.score());
+            double allocChange = change(before.allocBytes(), now.allocBytes());
+            boolean regressed = timeChange > thresholdPercent || allocChange > thresholdPercent;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-5s %-80s %12.1f -> %12.1f %s (%+.1f%%), alloc %+.1f%%%n",
+                    regressed ? "SLOW" : "OK", entry.getKey(), before.score(), now.score(), now.unit(),
+                    timeChange, allocChange);
+        }
+        if (compared == 0) {
+            System.err.printf("No benchmark of %s is in the baseline %s (%d entries): nothing was compared.%n"
+                    + "Run the benchmarks on the reference machine and commit the result as the baseline.%n",
+                    args[1], args[0], baseline.size());
+            System.exit(1);
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, thresholdPercent);
+            System.exit(1);
+        }
+    }
+
+    private static double change(double before, double now) {
+        if (before <= 0 || Double.isNaN(before) || Double.isNaN(now)) {
+            return 0.0;
+        }
+        return (now - before) * 100.0 / before;
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC_METRIC);
+            results.put(key(run), new Result(primary.path("score").asDouble(Double.NaN),
+                    primary.path("scoreUnit").asText(""),
+                    alloc.path("score").asDouble(Double.NaN)));
+        }
+        return results;
+    }
+
+    private static String key(JsonNode run) {
+        Map<String, String> params = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        String benchmark = run.path("benchmark").asText();
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+
+    private record Result(double score, String unit, double allocBytes) {
+    }
+}
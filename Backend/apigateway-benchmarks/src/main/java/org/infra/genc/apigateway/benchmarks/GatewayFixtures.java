@@ -0,0 +1,55 @@
+package org.infra.genc.apigateway.benchmarks;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens, requests and a terminal chain shared by the benchmarks.
+ */
+final class GatewayFixtures {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-0123456789";
+
+    static final String PUBLIC_PATH = "/api/v1/userservice/login";
+    static final String PRODUCT_PATH = "/api/v1/product-service/product/42";
+    static final String ANALYTICS_PATH = "/api/v1/analytics-service/analytics/sales";
+
+    // Stands in for everything after the filter under test (routing, upstream call)
+    static final GatewayFilterChain TERMINAL_CHAIN = exchange -> Mono.empty();
+
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    private GatewayFixtures() {
+    }
+
+    static String token(String subject, String roles, long validForMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim("roles", roles)
+                .subject(subject)
+                .issuedAt(new Date(now - TimeUnit.MINUTES.toMillis(1)))
+                .expiration(new Date(now + validForMillis))
+                .issuer("genc_cohort")
+                .signWith(KEY)
+                .compact();
+    }
+
+    static MockServerWebExchange exchange(String path, String token) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+                .header(HttpHeaders.HOST, "localhost:8081");
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
@@ -0,0 +1,49 @@
+package org.infra.genc.apigateway.benchmarks;
+
+import org.infra.genc.apigateway.filter.RouteAuthorizationTable;
+import org.infra.genc.apigateway.filter.RouteValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path lookup in the route authorization table, on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RouteValidatorBenchmark {
+
+    @Param({
+            GatewayFixtures.PUBLIC_PATH,
+            GatewayFixtures.PRODUCT_PATH,
+            GatewayFixtures.ANALYTICS_PATH,
+            "/api/v1/unknown-service/anything/at/all"
+    })
+    public String path;
+
+    private RouteValidator validator;
+
+    @Setup
+    public void setUp() {
+        validator = new RouteValidator();
+    }
+
+    @Benchmark
+    public RouteAuthorizationTable.Access resolve() {
+        return validator.resolve(path);
+    }
+}
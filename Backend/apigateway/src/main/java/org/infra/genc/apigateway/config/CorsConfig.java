@@ -42,10 +42,10 @@ public class CorsConfig {
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH","OPTIONS"));
 
         // Define allowed headers
-        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
+        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With", "If-None-Match"));
 
         // Expose headers (optional, only needed if the frontend requires non-standard headers)
-        config.setExposedHeaders(Arrays.asList("X-Custom-Header"));
+        config.setExposedHeaders(Arrays.asList("X-Custom-Header", "ETag", "X-Cache"));
 
         // Set max age for preflight requests (improves performance)
         config.setMaxAge(3600L);
@@ -1,7 +1,7 @@
 package org.infra.genc.apigateway.filter;
 
-import org.infra.genc.apigateway.util.JwtUtil;
-import io.jsonwebtoken.Claims;
+import org.infra.genc.apigateway.util.JwtClaimsCache;
+import org.infra.genc.apigateway.util.VerifiedToken;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
@@ -13,7 +13,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
-import java.util.Map;
 
 @Component
 @Slf4j
@@ -22,21 +21,16 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
     public static final String AUTH_USER_ID_HEADER = "X-Auth-User-Id";
     public static final String AUTH_USER_ROLES_HEADER = "X-Auth-User-Roles";
 
-    private final RouteValidator validator;
-    private final JwtUtil jwtUtil;
+    // Exchange attribute with the verified user id, for filters that run after this one
+    public static final String AUTH_USER_ID_ATTR = AuthenticationFilter.class.getName() + ".userId";
 
-    // Role-based access control map
-    private static final Map<String, List<String>> routeRoleMap = Map.of(
-            "/api/v1/analytics-service", List.of("ROLE_ADMIN"),
-            "/api/v1/cart-service", List.of("ROLE_CUSTOMER", "ROLE_ADMIN"),
-            "/api/v1/product-service", List.of("ROLE_CUSTOMER", "ROLE_ADMIN"),
-            "/api/v1/order-service", List.of("ROLE_CUSTOMER", "ROLE_ADMIN")
-    );
+    private final RouteValidator validator;
+    private final JwtClaimsCache claimsCache;
 
-    public AuthenticationFilter(RouteValidator validator, JwtUtil jwtUtil) {
+    public AuthenticationFilter(RouteValidator validator, JwtClaimsCache claimsCache) {
         super(Config.class);
         this.validator = validator;
-        this.jwtUtil = jwtUtil;
+        this.claimsCache = claimsCache;
     }
 
     @Override
@@ -45,7 +39,11 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
             ServerHttpRequest request = exchange.getRequest();
             ServerHttpResponse response = exchange.getResponse();
 
-            if (validator.isSecured.test(request)) {
+            // One trie walk resolves both "is this public" and "which roles may call it"
+            String path = request.getPath().value();
+            RouteAuthorizationTable.Access access = validator.resolve(path);
+
+            if (!access.open()) {
                 List<String> authValues = request.getHeaders().getOrEmpty(HttpHeaders.AUTHORIZATION);
 
                 if (authValues.isEmpty()) {
@@ -61,11 +59,11 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
 
                 String token = authHeader.substring(7);
                 try {
-                    jwtUtil.validateToken(token);
-                    Claims claims = jwtUtil.extractAllClaims(token);
+                    // Verified once per token, later requests are served from the claims cache
+                    VerifiedToken verified = claimsCache.getVerifiedToken(token);
 
-                    String userId = claims.getSubject();
-                    String userRoles = claims.get("roles", String.class);
+                    String userId = verified.subject();
+                    String userRoles = verified.roles();
 
                     ServerHttpRequest modifiedRequest = request.mutate()
                             .header(AUTH_USER_ID_HEADER, userId)
@@ -73,10 +71,12 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
                             .build();
 
                     exchange = exchange.mutate().request(modifiedRequest).build();
+                    if (userId != null) {
+                        exchange.getAttributes().put(AUTH_USER_ID_ATTR, userId);
+                    }
 
                     // 🔐 Enforce role-based access
-                    String path = request.getPath().toString();
-                    if (!isAccessAllowed(path, userRoles)) {
+                    if (!access.permits(verified.roleMask())) {
                         log.warn("Access denied for user {} with roles {} on path {}", userId, userRoles, path);
                         return setForbiddenResponse(response);
                     }
@@ -94,15 +94,6 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
         };
     }
 
-    private boolean isAccessAllowed(String path, String roles) {
-        for (Map.Entry<String, List<String>> entry : routeRoleMap.entrySet()) {
-            if (path.startsWith(entry.getKey())) {
-                return entry.getValue().stream().anyMatch(roles::contains);
-            }
-        }
-        return true; // default allow
-    }
-
     private reactor.core.publisher.Mono<Void> setUnauthorizedResponse(ServerHttpResponse response) {
         response.setStatusCode(HttpStatus.UNAUTHORIZED);
         return response.setComplete();
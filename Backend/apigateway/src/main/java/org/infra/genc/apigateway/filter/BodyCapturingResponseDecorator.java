@@ -0,0 +1,85 @@
+package org.infra.genc.apigateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Response decorator that buffers the upstream body into a byte array when {@code capture}
+ * accepts the response (checked once status and headers are known), and hands it to the
+ * {@link BodyHandler}, which decides what is finally written to the client.
+ * Responses that are not captured are streamed through untouched.
+ */
+public class BodyCapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    @FunctionalInterface
+    public interface BodyHandler {
+        Mono<Void> handle(ServerHttpResponse response, byte[] body);
+    }
+
+    // Headers describing the body itself; CORS and hop-by-hop headers are set per request
+    private static final List<String> REPRESENTATION_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.CONTENT_LANGUAGE,
+            HttpHeaders.CONTENT_ENCODING,
+            HttpHeaders.LAST_MODIFIED
+    );
+
+    private final Predicate<ServerHttpResponse> capture;
+    private final BodyHandler handler;
+
+    public BodyCapturingResponseDecorator(ServerHttpResponse delegate,
+                                          Predicate<ServerHttpResponse> capture,
+                                          BodyHandler handler) {
+        super(delegate);
+        this.capture = capture;
+        this.handler = handler;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        if (!capture.test(getDelegate())) {
+            return super.writeWith(body);
+        }
+        return DataBufferUtils.join(Flux.from(body))
+                .map(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(bytes -> handler.handle(getDelegate(), bytes));
+    }
+
+    /**
+     * Writes the captured bytes to the client unchanged.
+     */
+    public static Mono<Void> writeBody(ServerHttpResponse response, byte[] body) {
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * Read-only copy of the representation headers of a captured response, safe to replay
+     * on another response.
+     */
+    public static HttpHeaders representationHeaders(HttpHeaders source) {
+        HttpHeaders copy = new HttpHeaders();
+        for (String name : REPRESENTATION_HEADERS) {
+            List<String> values = source.get(name);
+            if (values != null) {
+                copy.put(name, values);
+            }
+        }
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+}
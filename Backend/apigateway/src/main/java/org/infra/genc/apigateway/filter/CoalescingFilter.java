@@ -0,0 +1,201 @@
+package org.infra.genc.apigateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-flight coalescing of identical concurrent GETs, e.g. {@code CoalescingFilter=256,true}.
+ * The first request for a key (the leader) goes upstream; identical requests arriving while it
+ * is in flight wait for its response, which is replayed to each of them. The key is
+ * route + path + query + the configured headers + the caller's authorization context:
+ * the user id (or the Authorization header when the gateway did not authenticate the request),
+ * or only the roles when {@code shareAcrossUsers} is set, so a response is never shared between
+ * callers with different access. Place it after AuthenticationFilter.
+ * If the leader fails or its response cannot be shared, the waiters make their own call.
+ */
+@Component
+@Slf4j
+public class CoalescingFilter extends AbstractGatewayFilterFactory<CoalescingFilter.Config> {
+
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    private final ConcurrentMap<FlightKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public CoalescingFilter(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxWaiters", "shareAcrossUsers");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Counter coalesced = Counter.builder("gateway.coalesced.requests")
+                .description("Requests answered with the response of an identical in-flight request")
+                .tag("route", routeId)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            FlightKey key = flightKey(routeId, exchange, config);
+            Flight flight = new Flight();
+            Flight existing = inFlight.putIfAbsent(key, flight);
+            if (existing == null) {
+                return lead(key, flight, exchange, chain);
+            }
+
+            if (existing.waiters.incrementAndGet() > config.getMaxWaiters()) {
+                existing.waiters.decrementAndGet();
+                log.debug("Coalescing limit reached for {}, calling upstream directly", key.uri());
+                return chain.filter(exchange);
+            }
+
+            return existing.result.asMono()
+                    .flatMap(shared -> {
+                        coalesced.increment();
+                        // replay() completes empty, which must not read as "nothing to share"
+                        return replay(exchange.getResponse(), shared).thenReturn(Boolean.TRUE);
+                    })
+                    // Leader failed or produced a response that must not be shared
+                    .switchIfEmpty(Mono.defer(() -> chain.filter(exchange).thenReturn(Boolean.FALSE)))
+                    .then();
+        };
+    }
+
+    private Mono<Void> lead(FlightKey key, Flight flight, ServerWebExchange exchange, GatewayFilterChain chain) {
+        BodyCapturingResponseDecorator decorated = new BodyCapturingResponseDecorator(
+                exchange.getResponse(),
+                CoalescingFilter::isShareable,
+                (response, body) -> {
+                    SharedResponse shared = new SharedResponse(response.getStatusCode(),
+                            BodyCapturingResponseDecorator.representationHeaders(response.getHeaders()), body);
+                    // Late arrivals start a new flight instead of joining a completed one
+                    inFlight.remove(key, flight);
+                    flight.result.tryEmitValue(shared);
+                    return BodyCapturingResponseDecorator.writeBody(response, body);
+                });
+
+        return chain.filter(exchange.mutate().response(decorated).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, flight);
+                    // No-op when a value was already emitted
+                    flight.result.tryEmitEmpty();
+                });
+    }
+
+    private static Mono<Void> replay(ServerHttpResponse response, SharedResponse shared) {
+        response.setStatusCode(shared.status());
+        response.getHeaders().putAll(shared.headers());
+        response.getHeaders().set(COALESCED_HEADER, "true");
+        return BodyCapturingResponseDecorator.writeBody(response, shared.body());
+    }
+
+    private static boolean isShareable(ServerHttpResponse response) {
+        HttpStatusCode status = response.getStatusCode();
+        return status != null && !status.is5xxServerError()
+                && !response.getHeaders().containsKey(HttpHeaders.SET_COOKIE);
+    }
+
+    private static FlightKey flightKey(String routeId, ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        String query = request.getURI().getRawQuery();
+        String uri = query != null ? request.getURI().getRawPath() + "?" + query : request.getURI().getRawPath();
+
+        StringBuilder varyValues = new StringBuilder();
+        for (String header : config.getHeaders()) {
+            varyValues.append(request.getHeaders().getOrEmpty(header)).append('|');
+        }
+
+        String authContext;
+        if (config.isShareAcrossUsers()) {
+            authContext = "roles:" + request.getHeaders().getFirst(AuthenticationFilter.AUTH_USER_ROLES_HEADER);
+        } else {
+            Object userId = exchange.getAttribute(AuthenticationFilter.AUTH_USER_ID_ATTR);
+            // Not authenticated by the gateway: whatever credentials were sent still tell callers apart
+            authContext = userId != null ? "user:" + userId
+                    : "authorization:" + request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        }
+        return new FlightKey(routeId, uri, varyValues.toString(), authContext);
+    }
+
+    private record FlightKey(String routeId, String uri, String varyValues, String authContext) {
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    private static final class Flight {
+
+        private final Sinks.One<SharedResponse> result = Sinks.one();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    public static class Config implements HasRouteId {
+
+        private int maxWaiters = 256;
+        private boolean shareAcrossUsers = false;
+        private List<String> headers = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_LANGUAGE);
+        private String routeId;
+
+        public int getMaxWaiters() {
+            return maxWaiters;
+        }
+
+        public void setMaxWaiters(int maxWaiters) {
+            this.maxWaiters = maxWaiters;
+        }
+
+        public boolean isShareAcrossUsers() {
+            return shareAcrossUsers;
+        }
+
+        public void setShareAcrossUsers(boolean shareAcrossUsers) {
+            this.shareAcrossUsers = shareAcrossUsers;
+        }
+
+        public List<String> getHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(List<String> headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
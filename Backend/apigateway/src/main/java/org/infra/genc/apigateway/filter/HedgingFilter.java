@@ -0,0 +1,357 @@
+package org.infra.genc.apigateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.infra.genc.apigateway.util.InstanceStatsRegistry;
+import org.infra.genc.apigateway.util.LatencySample;
+import org.infra.genc.apigateway.util.LoadBalancerStatsFilter;
+import org.infra.genc.apigateway.util.RouteLatencyRegistry;
+import org.infra.genc.apigateway.util.TokenBudget;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Request hedging for idempotent GETs, e.g. {@code HedgingFilter=20ms,500ms}.
+ * The request goes to the instance picked by the load balancer; if no response has arrived after
+ * the route's observed upstream p95 (clamped to [minDelay, maxDelay]), a second copy goes to the
+ * best-scoring other healthy instance and whichever answers first is returned, the other call
+ * being cancelled. If neither answers, the primary's error is returned. Hedges are paid for from
+ * a gateway-wide {@link TokenBudget} filled by a small share of regular requests, so a slow
+ * cluster is not hit with twice the traffic.
+ *
+ * Both calls are made with WebClient and the exchange is marked as already routed, which means
+ * response bodies are buffered; only use it on routes with small responses. Each call reports its
+ * own outcome to the instance stats, so the primary is never credited with the hedge's response.
+ * Runs right after {@link LoadBalancerStatsFilter}, whatever its position in the route's filter list.
+ */
+@Component
+@Slf4j
+public class HedgingFilter extends AbstractGatewayFilterFactory<HedgingFilter.Config> {
+
+    public static final int ORDER = LoadBalancerStatsFilter.ORDER + 1;
+
+    public static final String HEDGED_HEADER = "X-Hedged";
+
+    /**
+     * Set on exchanges whose upstream calls this filter makes itself. It then reports the outcome of
+     * the primary call to {@link InstanceStatsRegistry}, and {@link LoadBalancerStatsFilter} must not:
+     * the exchange's response may come from the hedge.
+     */
+    public static final String OUTCOME_RECORDED_ATTR = HedgingFilter.class.getName() + ".outcomeRecorded";
+
+    private static final String HEDGED_ATTR = HedgingFilter.class.getName() + ".hedged";
+
+    private static final int PERCENTILE_WINDOW_MINUTES = 5;
+    private static final long DELAY_REFRESH_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final WebClient webClient;
+    private final LoadBalancerClientFactory clientFactory;
+    private final InstanceStatsRegistry statsRegistry;
+    private final RouteLatencyRegistry latencyRegistry;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final MeterRegistry meterRegistry;
+    private final TokenBudget budget;
+
+    public HedgingFilter(WebClient.Builder webClientBuilder,
+                         LoadBalancerClientFactory clientFactory,
+                         InstanceStatsRegistry statsRegistry,
+                         RouteLatencyRegistry latencyRegistry,
+                         ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                         MeterRegistry meterRegistry,
+                         @Value("${genc.gateway.hedging.budget-ratio:0.05}") double budgetRatio,
+                         @Value("${genc.gateway.hedging.budget-max-tokens:20}") int budgetMaxTokens) {
+        super(Config.class);
+        this.webClient = webClientBuilder.build();
+        this.clientFactory = clientFactory;
+        this.statsRegistry = statsRegistry;
+        this.latencyRegistry = latencyRegistry;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.meterRegistry = meterRegistry;
+        this.budget = new TokenBudget(budgetRatio, budgetMaxTokens);
+        Gauge.builder("gateway.hedge.budget", budget, TokenBudget::tokens)
+                .description("Hedge tokens currently available")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("minDelay", "maxDelay");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        HedgeDelay hedgeDelay = new HedgeDelay(routeId, config);
+        Counter sent = Counter.builder("gateway.hedge.sent")
+                .description("Hedged requests sent to a second instance")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Counter won = Counter.builder("gateway.hedge.won")
+                .description("Hedged requests answered first by the second instance")
+                .tag("route", routeId)
+                .register(meterRegistry);
+
+        GatewayFilter filter = (exchange, chain) -> {
+            Response<ServiceInstance> lbResponse = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+            URI primaryUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+            if (exchange.getRequest().getMethod() != HttpMethod.GET
+                    || lbResponse == null || !lbResponse.hasServer() || primaryUrl == null
+                    || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+                return chain.filter(exchange);
+            }
+            budget.deposit();
+            ServerWebExchangeUtils.setAlreadyRouted(exchange);
+            exchange.getAttributes().put(OUTCOME_RECORDED_ATTR, Boolean.TRUE);
+
+            ServiceInstance primary = lbResponse.getServer();
+            HttpHeaders requestHeaders = HttpHeadersFilter.filterRequest(headersFiltersProvider.getIfAvailable(), exchange);
+            long startNanos = System.nanoTime();
+
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Mono<Attempt> first = recordedCall(primary, primaryUrl, requestHeaders)
+                    .doOnError(primaryError::set)
+                    .map(entity -> new Attempt(entity, false));
+            Mono<Attempt> second = Mono.delay(hedgeDelay.get())
+                    .flatMap(tick -> hedgeInstance(exchange, primary))
+                    .filter(instance -> budget.tryWithdraw())
+                    .flatMap(instance -> {
+                        sent.increment();
+                        log.debug("Hedging {} to {}:{} on route {}", primaryUrl.getPath(), instance.getHost(), instance.getPort(), routeId);
+                        exchange.getAttributes().put(HEDGED_ATTR, Boolean.TRUE);
+                        return trackedCall(instance, LoadBalancerUriTools.reconstructURI(instance, primaryUrl), requestHeaders);
+                    })
+                    .map(entity -> new Attempt(entity, true));
+
+            return Mono.firstWithValue(first, second)
+                    // Neither call answered: fail the way an unhedged call to the primary would have
+                    .onErrorMap(NoSuchElementException.class, e -> primaryError.get() != null ? primaryError.get() : e)
+                    .flatMap(winner -> {
+                        LatencySample sample = exchange.getAttribute(LatencySample.ATTRIBUTE);
+                        if (sample != null) {
+                            sample.recordUpstream(System.nanoTime() - startNanos);
+                        }
+                        if (winner.hedge()) {
+                            won.increment();
+                        }
+                        return write(exchange, winner);
+                    });
+        };
+        return new OrderedGatewayFilter(filter, ORDER);
+    }
+
+    private Mono<ResponseEntity<byte[]>> call(URI url, HttpHeaders requestHeaders) {
+        return webClient.get()
+                .uri(url)
+                .headers(headers -> headers.addAll(requestHeaders))
+                .exchangeToMono(response -> response.toEntity(byte[].class));
+    }
+
+    /**
+     * The hedge bypasses the load balancer, so it reports to the instance stats itself.
+     */
+    private Mono<ResponseEntity<byte[]>> trackedCall(ServiceInstance instance, URI url, HttpHeaders requestHeaders) {
+        return Mono.defer(() -> {
+            statsRegistry.onStart(instance);
+            return recordedCall(instance, url, requestHeaders);
+        });
+    }
+
+    /**
+     * Reports the outcome of a call whose start was already counted; for the primary that was done
+     * by {@link LoadBalancerStatsFilter}. A call cancelled because the other one won gets no latency.
+     * Reported once: the winner cancels the other call even when that one has already failed.
+     */
+    private Mono<ResponseEntity<byte[]>> recordedCall(ServiceInstance instance, URI url, HttpHeaders requestHeaders) {
+        return Mono.defer(() -> {
+            long startNanos = System.nanoTime();
+            AtomicBoolean reported = new AtomicBoolean();
+            return call(url, requestHeaders)
+                    .doOnSuccess(entity -> {
+                        if (reported.compareAndSet(false, true)) {
+                            statsRegistry.onComplete(instance, System.nanoTime() - startNanos,
+                                    entity == null || entity.getStatusCode().is5xxServerError());
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (reported.compareAndSet(false, true)) {
+                            statsRegistry.onComplete(instance, System.nanoTime() - startNanos, true);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (reported.compareAndSet(false, true)) {
+                            statsRegistry.onComplete(instance, -1L, false);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Lowest-scoring instance of the service other than the one already called, skipping ejected ones.
+     */
+    private Mono<ServiceInstance> hedgeInstance(ServerWebExchange exchange, ServiceInstance primary) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String serviceId = route != null ? route.getUri().getHost() : primary.getServiceId();
+        ServiceInstanceListSupplier supplier = clientFactory.getInstance(serviceId, ServiceInstanceListSupplier.class);
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        return supplier.get().next().flatMap(instances -> {
+            long now = System.nanoTime();
+            ServiceInstance best = null;
+            double bestScore = Double.MAX_VALUE;
+            for (ServiceInstance instance : instances) {
+                if (sameInstance(instance, primary)) {
+                    continue;
+                }
+                InstanceStatsRegistry.InstanceStats stats = statsRegistry.get(instance);
+                if (!stats.isEjected(now) && stats.score() < bestScore) {
+                    best = instance;
+                    bestScore = stats.score();
+                }
+            }
+            return Mono.justOrEmpty(best);
+        });
+    }
+
+    private static boolean sameInstance(ServiceInstance a, ServiceInstance b) {
+        return a.getPort() == b.getPort() && Objects.equals(a.getHost(), b.getHost());
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, Attempt winner) {
+        ResponseEntity<byte[]> entity = winner.entity();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(entity.getStatusCode());
+
+        HttpHeaders headers = HttpHeadersFilter.filter(headersFiltersProvider.getIfAvailable(), entity.getHeaders(),
+                exchange, HttpHeadersFilter.Type.RESPONSE);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        if (exchange.getAttribute(HEDGED_ATTR) != null) {
+            response.getHeaders().set(HEDGED_HEADER, winner.hedge() ? "hedge" : "primary");
+        }
+
+        byte[] body = entity.getBody() != null ? entity.getBody() : new byte[0];
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private record Attempt(ResponseEntity<byte[]> entity, boolean hedge) {
+    }
+
+    /**
+     * Hedge delay of one route, recomputed from the latency histograms at most every few seconds.
+     */
+    private final class HedgeDelay {
+
+        private final String routeId;
+        private final Config config;
+        private volatile Duration delay;
+        private volatile long computedAtNanos;
+
+        private HedgeDelay(String routeId, Config config) {
+            this.routeId = routeId;
+            this.config = config;
+            this.delay = config.getMaxDelay();
+            this.computedAtNanos = System.nanoTime();
+        }
+
+        private Duration get() {
+            long now = System.nanoTime();
+            if (now - computedAtNanos >= DELAY_REFRESH_NANOS) {
+                computedAtNanos = now;
+                long percentileNanos = latencyRegistry.upstreamPercentileNanos(routeId, config.getPercentile(),
+                        PERCENTILE_WINDOW_MINUTES, config.getMinSamples());
+                delay = percentileNanos < 0 ? config.getMaxDelay() : clamp(Duration.ofNanos(percentileNanos));
+            }
+            return delay;
+        }
+
+        private Duration clamp(Duration observed) {
+            if (observed.compareTo(config.getMinDelay()) < 0) {
+                return config.getMinDelay();
+            }
+            return observed.compareTo(config.getMaxDelay()) > 0 ? config.getMaxDelay() : observed;
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        private Duration minDelay = Duration.ofMillis(20);
+        private Duration maxDelay = Duration.ofMillis(500);
+        private double percentile = 95;
+        private long minSamples = 100;
+        private String routeId;
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public long getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(long minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
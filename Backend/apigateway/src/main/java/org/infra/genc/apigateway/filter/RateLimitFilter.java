@@ -0,0 +1,111 @@
+package org.infra.genc.apigateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.infra.genc.apigateway.util.RateLimitBuckets;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-caller rate limiting without Redis, e.g. {@code RateLimitFilter=10,20} for
+ * 10 requests per second with bursts of 20. Callers are identified by the user id set by
+ * AuthenticationFilter, or by client IP on routes without authentication, so place it
+ * after AuthenticationFilter. Rejected requests get 429 with Retry-After.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private final RateLimitBuckets buckets;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimitBuckets buckets, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.buckets = buckets;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Counter rejected = Counter.builder("gateway.ratelimit.rejected")
+                .description("Requests rejected by the gateway rate limiter")
+                .tag("route", routeId)
+                .register(meterRegistry);
+
+        return (exchange, chain) -> {
+            String caller = callerKey(exchange);
+            long waitNanos = buckets.tryAcquire(routeId + '|' + caller, config.getReplenishRate(), config.getBurstCapacity());
+            if (waitNanos == 0L) {
+                return chain.filter(exchange);
+            }
+
+            rejected.increment();
+            log.debug("Rate limit exceeded for {} on route {}", caller, routeId);
+            exchange.getAttributes().put(ResilienceFilter.GATEWAY_RESPONSE_ATTR, Boolean.TRUE);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            long retryAfterSeconds = Math.max(1L, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            return response.setComplete();
+        };
+    }
+
+    private static String callerKey(ServerWebExchange exchange) {
+        String userId = exchange.getAttribute(AuthenticationFilter.AUTH_USER_ID_ATTR);
+        if (userId != null) {
+            return "user:" + userId;
+        }
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress != null ? "ip:" + remoteAddress.getHostString() : "ip:unknown";
+    }
+
+    public static class Config implements HasRouteId {
+
+        private double replenishRate = 10;
+        private int burstCapacity = 20;
+        private String routeId;
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
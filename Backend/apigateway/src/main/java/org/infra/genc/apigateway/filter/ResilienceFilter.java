@@ -0,0 +1,398 @@
+package org.infra.genc.apigateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.infra.genc.apigateway.util.CircuitBreaker;
+import org.infra.genc.apigateway.util.ResponseCacheStore;
+import org.infra.genc.apigateway.util.ResponseCacheStore.CachedResponse;
+import org.infra.genc.apigateway.util.TokenBudget;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Protects a route from a slow or failing upstream service: a response timeout, a bulkhead
+ * capping concurrent calls, a circuit breaker, and retries for GET, HEAD and OPTIONS paid for
+ * from a per-route {@link TokenBudget}. Configured per route with named args, e.g.
+ * <pre>
+ * routes[4].filters[3].name=ResilienceFilter
+ * routes[4].filters[3].args.timeout=3s
+ * routes[4].filters[3].args.maxConcurrent=50
+ * </pre>
+ * or the shortcut {@code ResilienceFilter=3s,50,1} (timeout, maxConcurrent, maxRetries).
+ *
+ * When a call is rejected or fails for good, GET requests with {@code fallbackToCache} are
+ * answered with the last good response kept by {@link ResponseCacheStore}; otherwise the client
+ * gets 503 (rejected) or 504 (timed out). Place it after ResponseCacheFilter and CoalescingFilter
+ * so that cache hits and coalesced followers never count against the breaker or the bulkhead.
+ */
+@Component
+@Slf4j
+public class ResilienceFilter extends AbstractGatewayFilterFactory<ResilienceFilter.Config> {
+
+    public static final String FALLBACK_HEADER = "X-Fallback";
+
+    /**
+     * Set by filters that answer a request themselves without calling the upstream (load shedding,
+     * rate limiting). Such a response says nothing about the upstream's health, so it is passed on
+     * as is: not recorded by the breaker, not retried and not replaced by a fallback.
+     */
+    public static final String GATEWAY_RESPONSE_ATTR = ResilienceFilter.class.getName() + ".gatewayResponse";
+
+    private static final Set<HttpMethod> RETRYABLE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    private final ResponseCacheStore cacheStore;
+    private final MeterRegistry meterRegistry;
+
+    public ResilienceFilter(ResponseCacheStore cacheStore, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.cacheStore = cacheStore;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("timeout", "maxConcurrent", "maxRetries");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        RouteGuard guard = new RouteGuard(config);
+        return (exchange, chain) -> {
+            if (!guard.bulkhead.tryAcquire()) {
+                guard.bulkheadRejected.increment();
+                log.debug("Bulkhead full on route {}", guard.routeId);
+                return rejectOrFallback(exchange, guard, HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            guard.retryBudget.deposit();
+            return attempt(exchange, chain, guard, 0)
+                    .doFinally(signal -> guard.bulkhead.release());
+        };
+    }
+
+    private Mono<Void> attempt(ServerWebExchange exchange, GatewayFilterChain chain, RouteGuard guard, int retries) {
+        if (!guard.breaker.tryAcquire()) {
+            guard.circuitRejected.increment();
+            return rejectOrFallback(exchange, guard, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return chain.filter(exchange)
+                .timeout(guard.timeout)
+                .then(Mono.fromSupplier(() -> Outcome.of(exchange.getResponse().getStatusCode())))
+                .onErrorResume(e -> Mono.just(Outcome.of(e)))
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        guard.breaker.onCancel();
+                    }
+                })
+                .flatMap(outcome -> {
+                    if (exchange.getAttribute(GATEWAY_RESPONSE_ATTR) != null) {
+                        guard.breaker.onCancel();
+                        return outcome.error() != null ? Mono.error(outcome.error()) : Mono.empty();
+                    }
+                    if (outcome.failed()) {
+                        guard.breaker.onFailure();
+                    } else {
+                        guard.breaker.onSuccess();
+                    }
+                    if (outcome.error() instanceof TimeoutException) {
+                        guard.timeouts.increment();
+                    }
+                    if (!outcome.retryable() || exchange.getResponse().isCommitted()) {
+                        return finish(exchange, guard, outcome);
+                    }
+                    if (retries < guard.maxRetries
+                            && RETRYABLE_METHODS.contains(exchange.getRequest().getMethod())
+                            && guard.retryBudget.tryWithdraw()) {
+                        guard.retried.increment();
+                        log.debug("Retrying {} on route {} after {}", exchange.getRequest().getURI().getRawPath(),
+                                guard.routeId, outcome.describe());
+                        discardUpstreamResponse(exchange);
+                        return attempt(exchange, chain, guard, retries + 1);
+                    }
+                    return finish(exchange, guard, outcome);
+                });
+    }
+
+    /**
+     * Last attempt is done: let a proper upstream response through, otherwise fall back.
+     */
+    private Mono<Void> finish(ServerWebExchange exchange, RouteGuard guard, Outcome outcome) {
+        if (!outcome.retryable() || exchange.getResponse().isCommitted()) {
+            return outcome.error() != null ? Mono.error(outcome.error()) : Mono.empty();
+        }
+        CachedResponse stale = staleResponse(exchange, guard);
+        if (stale != null) {
+            discardUpstreamResponse(exchange);
+            return writeFallback(exchange, guard, stale);
+        }
+        if (outcome.error() instanceof TimeoutException) {
+            discardUpstreamResponse(exchange);
+            exchange.getResponse().setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+            return exchange.getResponse().setComplete();
+        }
+        return outcome.error() != null ? Mono.error(outcome.error()) : Mono.empty();
+    }
+
+    private Mono<Void> rejectOrFallback(ServerWebExchange exchange, RouteGuard guard, HttpStatus status) {
+        CachedResponse stale = staleResponse(exchange, guard);
+        if (stale != null) {
+            return writeFallback(exchange, guard, stale);
+        }
+        exchange.getAttributes().put(GATEWAY_RESPONSE_ATTR, Boolean.TRUE);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+        return response.setComplete();
+    }
+
+    private CachedResponse staleResponse(ServerWebExchange exchange, RouteGuard guard) {
+        if (!guard.fallbackToCache || exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return null;
+        }
+        return cacheStore.getStale(ResponseCacheFilter.cacheKey(exchange));
+    }
+
+    /**
+     * Marked no-store so that ResponseCacheFilter does not cache the stale copy again.
+     */
+    private static Mono<Void> writeFallback(ServerWebExchange exchange, RouteGuard guard, CachedResponse stale) {
+        guard.fallbacks.increment();
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(stale.status()));
+        response.getHeaders().putAll(stale.headers());
+        response.getHeaders().setETag(stale.etag());
+        response.getHeaders().setCacheControl(CacheControl.noStore());
+        response.getHeaders().set(ResponseCacheFilter.CACHE_STATUS_HEADER, "STALE");
+        response.getHeaders().set(FALLBACK_HEADER, "stale-cache");
+        return BodyCapturingResponseDecorator.writeBody(response, stale.body());
+    }
+
+    /**
+     * Drops the upstream response received by NettyRoutingFilter (headers only, the body has not
+     * been written yet) so the exchange can be routed again or answered by the gateway itself.
+     */
+    private static void discardUpstreamResponse(ServerWebExchange exchange) {
+        Object connection = exchange.getAttributes().remove(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection instanceof Connection upstream) {
+            upstream.dispose();
+        }
+        ServerWebExchangeUtils.reset(exchange);
+    }
+
+    /**
+     * Result of one upstream attempt: a response status, or the error that ended it.
+     */
+    private record Outcome(HttpStatusCode status, Throwable error) {
+
+        private static Outcome of(HttpStatusCode status) {
+            return new Outcome(status, null);
+        }
+
+        private static Outcome of(Throwable error) {
+            return new Outcome(null, error);
+        }
+
+        private boolean failed() {
+            return error != null || status == null || status.is5xxServerError();
+        }
+
+        private boolean retryable() {
+            if (error != null || status == null) {
+                return true;
+            }
+            int code = status.value();
+            return code == 502 || code == 503 || code == 504;
+        }
+
+        private String describe() {
+            return error != null ? error.getClass().getSimpleName() : String.valueOf(status);
+        }
+    }
+
+    /**
+     * Per-route state built from the route's Config.
+     */
+    private final class RouteGuard {
+
+        private final String routeId;
+        private final Duration timeout;
+        private final int maxRetries;
+        private final boolean fallbackToCache;
+        private final Semaphore bulkhead;
+        private final CircuitBreaker breaker;
+        private final TokenBudget retryBudget;
+        private final Counter bulkheadRejected;
+        private final Counter circuitRejected;
+        private final Counter timeouts;
+        private final Counter retried;
+        private final Counter fallbacks;
+
+        private RouteGuard(Config config) {
+            this.routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+            this.timeout = config.getTimeout();
+            this.maxRetries = config.getMaxRetries();
+            this.fallbackToCache = config.isFallbackToCache();
+            this.bulkhead = new Semaphore(config.getMaxConcurrent());
+            this.breaker = new CircuitBreaker(config.getSlidingWindow(), config.getMinimumCalls(),
+                    config.getFailureRateThreshold(), config.getOpenDuration(), config.getHalfOpenCalls());
+            this.retryBudget = new TokenBudget(config.getRetryBudgetRatio(), config.getRetryBudgetMaxTokens());
+
+            Gauge.builder("gateway.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("Circuit breaker state per route (0 closed, 1 open, 2 half open)")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                    .description("Free bulkhead permits per route")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            this.bulkheadRejected = event("bulkhead_rejected");
+            this.circuitRejected = event("circuit_rejected");
+            this.timeouts = event("timeout");
+            this.retried = event("retry");
+            this.fallbacks = event("fallback");
+        }
+
+        private Counter event(String event) {
+            return Counter.builder("gateway.resilience.events")
+                    .description("Resilience filter decisions per route")
+                    .tag("route", routeId)
+                    .tag("event", event)
+                    .register(meterRegistry);
+        }
+    }
+
+    public static class Config implements HasRouteId {
+
+        private Duration timeout = Duration.ofSeconds(5);
+        private int maxConcurrent = 100;
+        private int maxRetries = 1;
+        private double retryBudgetRatio = 0.1;
+        private int retryBudgetMaxTokens = 10;
+        private int slidingWindow = 50;
+        private int minimumCalls = 20;
+        private double failureRateThreshold = 50;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 3;
+        private boolean fallbackToCache;
+        private String routeId;
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public double getRetryBudgetRatio() {
+            return retryBudgetRatio;
+        }
+
+        public void setRetryBudgetRatio(double retryBudgetRatio) {
+            this.retryBudgetRatio = retryBudgetRatio;
+        }
+
+        public int getRetryBudgetMaxTokens() {
+            return retryBudgetMaxTokens;
+        }
+
+        public void setRetryBudgetMaxTokens(int retryBudgetMaxTokens) {
+            this.retryBudgetMaxTokens = retryBudgetMaxTokens;
+        }
+
+        public int getSlidingWindow() {
+            return slidingWindow;
+        }
+
+        public void setSlidingWindow(int slidingWindow) {
+            this.slidingWindow = slidingWindow;
+        }
+
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        public boolean isFallbackToCache() {
+            return fallbackToCache;
+        }
+
+        public void setFallbackToCache(boolean fallbackToCache) {
+            this.fallbackToCache = fallbackToCache;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
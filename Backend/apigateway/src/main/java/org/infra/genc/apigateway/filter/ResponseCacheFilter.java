@@ -0,0 +1,190 @@
+package org.infra.genc.apigateway.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.infra.genc.apigateway.util.ResponseCacheStore;
+import org.infra.genc.apigateway.util.ResponseCacheStore.CachedResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Caches successful GET responses of a route at the gateway, e.g.
+ * {@code ResponseCacheFilter=30s}, or with named args {@code ttl} and {@code paths} to cache only
+ * GETs whose path matches one of the comma-separated path patterns (all GETs when no patterns are
+ * given). Patterns are matched against the path the client sent, before RewritePath changed it. Cached bodies carry a strong ETag, and a matching
+ * If-None-Match is answered with 304 without touching the upstream service.
+ * Place it after AuthenticationFilter so that only authorized requests are served from cache.
+ */
+@Component
+@Slf4j
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private final ResponseCacheStore store;
+
+    public ResponseCacheFilter(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        long ttlNanos = config.getTtl().toNanos();
+        List<PathPattern> paths = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        return (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || isNoCacheRequest(request) || !matches(paths, exchange)) {
+                return chain.filter(exchange);
+            }
+
+            ResponseCacheStore.Key key = cacheKey(exchange);
+            CachedResponse cached = store.get(key);
+            if (cached != null) {
+                log.debug("Response cache hit for {}", key.uri());
+                return writeCached(exchange, cached);
+            }
+
+            BodyCapturingResponseDecorator decorated = new BodyCapturingResponseDecorator(
+                    exchange.getResponse(),
+                    ResponseCacheFilter::isCacheable,
+                    (response, body) -> {
+                        CachedResponse entry = toCachedResponse(response, body, ttlNanos);
+                        store.put(key, entry);
+                        response.getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                        return writeOrNotModified(request, response, entry);
+                    });
+
+            return chain.filter(exchange.mutate().response(decorated).build());
+        };
+    }
+
+    static ResponseCacheStore.Key cacheKey(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "";
+        String path = exchange.getRequest().getURI().getRawPath();
+        String query = exchange.getRequest().getURI().getRawQuery();
+        return new ResponseCacheStore.Key(routeId, query != null ? path + "?" + query : path);
+    }
+
+    private static boolean matches(List<PathPattern> paths, ServerWebExchange exchange) {
+        if (paths.isEmpty()) {
+            return true;
+        }
+        // RewritePath runs first and may leave e.g. a double slash the patterns do not expect
+        Set<URI> originalUrls = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ORIGINAL_REQUEST_URL_ATTR);
+        PathContainer path = originalUrls != null && !originalUrls.isEmpty()
+                ? PathContainer.parsePath(originalUrls.iterator().next().getRawPath())
+                : exchange.getRequest().getPath().pathWithinApplication();
+        for (PathPattern pattern : paths) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNoCacheRequest(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && cacheControl.contains("no-cache");
+    }
+
+    private static boolean isCacheable(ServerHttpResponse response) {
+        if (!HttpStatus.OK.equals(response.getStatusCode())) {
+            return false;
+        }
+        HttpHeaders headers = response.getHeaders();
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = headers.getCacheControl();
+        return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private static CachedResponse toCachedResponse(ServerHttpResponse response, byte[] body, long ttlNanos) {
+        HttpHeaders replayed = BodyCapturingResponseDecorator.representationHeaders(response.getHeaders());
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        return new CachedResponse(HttpStatus.OK.value(), replayed, body, etag, ttlNanos);
+    }
+
+    private static Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(cached.status()));
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        return writeOrNotModified(exchange.getRequest(), response, cached);
+    }
+
+    private static Mono<Void> writeOrNotModified(ServerHttpRequest request, ServerHttpResponse response,
+                                                 CachedResponse entry) {
+        response.getHeaders().setETag(entry.etag());
+        response.getHeaders().setCacheControl(CacheControl.noCache());
+        if (matchesIfNoneMatch(request, entry.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+        return BodyCapturingResponseDecorator.writeBody(response, entry.body());
+    }
+
+    private static boolean matchesIfNoneMatch(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class Config {
+
+        private Duration ttl = Duration.ofSeconds(30);
+
+        // Path patterns (e.g. /api/v1/product-service/product/{id:[0-9]+}) of the GETs to cache
+        private List<String> paths = List.of();
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+    }
+}
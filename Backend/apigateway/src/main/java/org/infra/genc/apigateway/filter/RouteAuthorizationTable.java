@@ -0,0 +1,134 @@
+package org.infra.genc.apigateway.filter;
+
+import java.util.Arrays;
+
+/**
+ * Immutable path-segment trie that resolves a request path to its access rule in a single walk.
+ * The rule registered on the longest matching prefix wins; paths without any match resolve to
+ * the fallback rule. Lookups compare segments in place and do not allocate.
+ */
+public final class RouteAuthorizationTable {
+
+    /**
+     * Access rule for a path prefix. {@code requiredRoles} is a RoleMask bitmask; zero means
+     * any authenticated caller is allowed.
+     */
+    public record Access(boolean open, int requiredRoles) {
+
+        public static final Access PUBLIC = new Access(true, 0);
+        public static final Access AUTHENTICATED = new Access(false, 0);
+
+        public static Access requiring(int requiredRoles) {
+            return new Access(false, requiredRoles);
+        }
+
+        public boolean permits(int roleMask) {
+            return open || requiredRoles == 0 || (roleMask & requiredRoles) != 0;
+        }
+    }
+
+    private final Node root;
+    private final Access fallback;
+
+    private RouteAuthorizationTable(Node root, Access fallback) {
+        this.root = root;
+        this.fallback = fallback;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Access resolve(String path) {
+        Node node = root;
+        Access best = root.access != null ? root.access : fallback;
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            if (path.charAt(start) == '/') {
+                start++;
+                continue;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            node = node.child(path, start, end - start);
+            if (node == null) {
+                break;
+            }
+            if (node.access != null) {
+                best = node.access;
+            }
+            start = end;
+        }
+        return best;
+    }
+
+    private static final class Node {
+
+        private String[] segments = new String[0];
+        private Node[] children = new Node[0];
+        private Access access;
+
+        private Node child(String path, int offset, int length) {
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.length() == length && path.regionMatches(offset, segment, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrAddChild(String segment) {
+            Node existing = child(segment, 0, segment.length());
+            if (existing != null) {
+                return existing;
+            }
+            Node created = new Node();
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            segments[segments.length - 1] = segment;
+            children[children.length - 1] = created;
+            return created;
+        }
+    }
+
+    public static final class Builder {
+
+        private final Node root = new Node();
+        private Access fallback = Access.AUTHENTICATED;
+        private boolean built;
+
+        private Builder() {
+        }
+
+        public Builder rule(String pathPrefix, Access access) {
+            if (built) {
+                throw new IllegalStateException("Table has already been built");
+            }
+            Node node = root;
+            for (String segment : pathPrefix.split("/")) {
+                if (!segment.isEmpty()) {
+                    node = node.getOrAddChild(segment);
+                }
+            }
+            if (node.access != null) {
+                throw new IllegalStateException("Duplicate access rule for " + pathPrefix);
+            }
+            node.access = access;
+            return this;
+        }
+
+        public Builder fallback(Access access) {
+            this.fallback = access;
+            return this;
+        }
+
+        public RouteAuthorizationTable build() {
+            built = true;
+            return new RouteAuthorizationTable(root, fallback);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package org.infra.genc.apigateway.filter;
 
+import org.infra.genc.apigateway.util.RoleMask;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 @Component
@@ -15,8 +17,28 @@ public class RouteValidator {
             "/eureka"
     );
 
+    // Role-based access control, matched by longest path prefix
+    public static final Map<String, Integer> routeRoleMap = Map.of(
+            "/api/v1/analytics-service", RoleMask.ROLE_ADMIN,
+            "/api/v1/cart-service", RoleMask.ROLE_CUSTOMER | RoleMask.ROLE_ADMIN,
+            "/api/v1/product-service", RoleMask.ROLE_CUSTOMER | RoleMask.ROLE_ADMIN,
+            "/api/v1/product-service/admin", RoleMask.ROLE_ADMIN,
+            "/api/v1/order-service", RoleMask.ROLE_CUSTOMER | RoleMask.ROLE_ADMIN
+    );
+
+    private final RouteAuthorizationTable authorizationTable = compile();
+
     public Predicate<ServerHttpRequest> isSecured =
-            request -> openApiEndpoints
-                    .stream()
-                    .noneMatch(uri -> request.getURI().getPath().contains(uri));
-}
\ No newline at end of file
+            request -> !resolve(request.getPath().value()).open();
+
+    public RouteAuthorizationTable.Access resolve(String path) {
+        return authorizationTable.resolve(path);
+    }
+
+    private static RouteAuthorizationTable compile() {
+        RouteAuthorizationTable.Builder builder = RouteAuthorizationTable.builder();
+        openApiEndpoints.forEach(path -> builder.rule(path, RouteAuthorizationTable.Access.PUBLIC));
+        routeRoleMap.forEach((path, roles) -> builder.rule(path, RouteAuthorizationTable.Access.requiring(roles)));
+        return builder.build();
+    }
+}
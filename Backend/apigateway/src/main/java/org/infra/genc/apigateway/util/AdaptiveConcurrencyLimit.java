@@ -0,0 +1,146 @@
+package org.infra.genc.apigateway.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient-style adaptive concurrency limit for one route.
+ * The limit follows the ratio between the long-term (no-load) RTT and the RTT of each sample:
+ * when responses slow down the gradient drops below 1 and the limit shrinks, when they are as
+ * fast as usual the limit grows by roughly sqrt(limit). Dropped calls (errors, 5xx, and calls
+ * cancelled after taking longer than usual) back the limit off multiplicatively.
+ * Normal traffic may only use {@code normalShare} of the limit; the rest is headroom that
+ * only priority traffic can take.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double normalShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejectedPriority = new LongAdder();
+    private final LongAdder rejectedNormal = new LongAdder();
+
+    private volatile double limit;
+
+    // Guarded by this
+    private double longRttNanos;
+    private volatile long lastRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double normalShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.normalShare = normalShare;
+    }
+
+    /**
+     * Takes a slot if the current limit allows it.
+     *
+     * @return false when the request should be shed
+     */
+    public boolean tryAcquire(boolean priority) {
+        int cap = priority ? priorityCap() : normalCap();
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= cap) {
+                (priority ? rejectedPriority : rejectedNormal).increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Adjusts the limit from one completed call.
+     *
+     * @param rttNanos        time the call took
+     * @param inFlightAtStart calls in flight when this one started, including itself
+     * @param dropped         whether the call failed or was answered with a 5xx
+     */
+    public synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        double current = limit;
+        if (dropped) {
+            limit = Math.max(minLimit, current * BACKOFF_RATIO);
+            return;
+        }
+
+        lastRttNanos = rttNanos;
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+        }
+        // Let the baseline recover quickly once latency is clearly back to normal
+        if (longRttNanos > 2.0 * rttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        // Not using the limit, so the sample says nothing about whether it is too high or too low
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / rttNanos));
+        double target = current * gradient + Math.sqrt(current);
+        double smoothed = current * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+
+    /**
+     * Adjusts the limit from a call that was cancelled before it completed, e.g. by a route timeout.
+     * The time it had taken is only a lower bound of its RTT: once that is already longer than usual
+     * the call is counted as dropped, so that an upstream that hangs still backs the limit off.
+     * An earlier cancel (the caller went away) says nothing about the upstream.
+     *
+     * @param elapsedNanos    time from the start of the call to the cancel
+     * @param inFlightAtStart calls in flight when this one started, including itself
+     */
+    public synchronized void onCancel(long elapsedNanos, int inFlightAtStart) {
+        if (longRttNanos == 0 || elapsedNanos > longRttNanos) {
+            onSample(elapsedNanos, inFlightAtStart, true);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public double limit() {
+        return limit;
+    }
+
+    public int priorityCap() {
+        return Math.max(1, (int) limit);
+    }
+
+    public int normalCap() {
+        return Math.max(1, (int) (limit * normalShare));
+    }
+
+    public long rejectedPriority() {
+        return rejectedPriority.sum();
+    }
+
+    public long rejectedNormal() {
+        return rejectedNormal.sum();
+    }
+
+    public synchronized long longRttNanos() {
+        return (long) longRttNanos;
+    }
+
+    public long lastRttNanos() {
+        return lastRttNanos;
+    }
+}
@@ -0,0 +1,23 @@
+package org.infra.genc.apigateway.util;
+
+/**
+ * Mutable audit record. Instances are preallocated by {@link AuditRingBuffer} and reused,
+ * so recording a request does not allocate an event object.
+ */
+public final class AuditEvent {
+
+    String requestId;
+    String method;
+    String path;
+    String target;
+    int status;
+    long timestampMillis;
+    long durationNanos;
+
+    void clear() {
+        requestId = null;
+        method = null;
+        path = null;
+        target = null;
+    }
+}
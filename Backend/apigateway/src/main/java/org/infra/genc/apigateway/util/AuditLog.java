@@ -0,0 +1,205 @@
+package org.infra.genc.apigateway.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit pipeline. Request threads copy a few references into a preallocated
+ * ring slot and return; a daemon writer thread drains the ring in batches and appends one
+ * JSON object per line to the audit file. When the ring is full the event is dropped
+ * (after an optional bounded spin) and counted, so auditing never blocks the event loop.
+ */
+@Component
+@Slf4j
+public class AuditLog {
+
+    private final AuditRingBuffer ring;
+    private final Path file;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int batchSize;
+    private final boolean dropOnFull;
+    private final int maxSpins;
+    private final Counter dropped;
+
+    // Reused by the writer thread only
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLog(@Value("${genc.audit.enabled:true}") boolean enabled,
+                    @Value("${genc.audit.file:logs/gateway-audit.jsonl}") String file,
+                    @Value("${genc.audit.sample-rate:1.0}") double sampleRate,
+                    @Value("${genc.audit.buffer-size:8192}") int bufferSize,
+                    @Value("${genc.audit.batch-size:256}") int batchSize,
+                    @Value("${genc.audit.drop-on-full:true}") boolean dropOnFull,
+                    @Value("${genc.audit.max-spins:64}") int maxSpins,
+                    MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.file = Path.of(file);
+        this.sampleRate = sampleRate;
+        this.ring = new AuditRingBuffer(bufferSize);
+        this.batchSize = batchSize;
+        this.dropOnFull = dropOnFull;
+        this.maxSpins = maxSpins;
+        this.dropped = Counter.builder("gateway.audit.dropped")
+                .description("Audit events dropped because the ring buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("gateway.audit.backlog", ring, AuditRingBuffer::backlog)
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decides whether the current request is audited at all.
+     */
+    public boolean sample() {
+        return enabled && (sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Records the completed exchange. Never blocks: if no slot frees up within the bounded
+     * spin, the event is dropped and counted.
+     */
+    public void record(ServerWebExchange exchange, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        long position = ring.claim();
+        if (position < 0 && !dropOnFull) {
+            for (int spin = 0; spin < maxSpins && position < 0; spin++) {
+                Thread.onSpinWait();
+                position = ring.claim();
+            }
+        }
+        if (position < 0) {
+            dropped.increment();
+            return;
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        AuditEvent event = ring.slot(position);
+        event.requestId = request.getId();
+        event.method = request.getMethod().name();
+        event.path = request.getPath().value();
+        event.target = request.getHeaders().getFirst("Host");
+        // Default to 500 when nothing set a status (e.g. an error before the response was written)
+        event.status = status != null ? status.value() : 500;
+        event.timestampMillis = System.currentTimeMillis();
+        event.durationNanos = durationNanos;
+        ring.publish(position);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::runWriter, "gateway-audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private void runWriter() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            log.error("Cannot create audit log directory for {}: {}", file, e.getMessage());
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            while (running || ring.backlog() > 0) {
+                int written = ring.drain(event -> append(writer, event), batchSize);
+                if (written > 0) {
+                    writer.flush();
+                } else if (running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                } else {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Audit writer stopped, cannot write {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void append(Writer writer, AuditEvent event) {
+        line.setLength(0);
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(event.timestampMillis)).append('"');
+        appendField("requestId", event.requestId);
+        appendField("method", event.method);
+        appendField("path", event.path);
+        appendField("target", event.target);
+        line.append(",\"status\":").append(event.status);
+        line.append(",\"durationMicros\":").append(TimeUnit.NANOSECONDS.toMicros(event.durationNanos));
+        line.append("}\n");
+        try {
+            writer.append(line);
+        } catch (IOException e) {
+            dropped.increment();
+            log.warn("Failed to write audit event {}: {}", event.requestId, e.getMessage());
+        }
+    }
+
+    private void appendField(String name, String value) {
+        line.append(",\"").append(name).append("\":");
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
@@ -1,7 +1,5 @@
 package org.infra.genc.apigateway.util;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -13,54 +11,31 @@ import reactor.core.publisher.Mono;
  * A single Global Filter to handle comprehensive audit logging for
  * both incoming API requests and outgoing API responses, including latency.
  * * This filter runs at a high precedence to wrap the entire execution chain.
+ * Events are handed to the asynchronous {@link AuditLog}, so no I/O happens on the event loop.
  */
 @Component
 public class AuditLoggingFilter implements GlobalFilter, Ordered {
 
-    private static final Logger log = LoggerFactory.getLogger(AuditLoggingFilter.class);
+    private final AuditLog auditLog;
 
-    // Key used to store the request start time in the ServerWebExchange attributes.
-    private static final String START_TIME = "startTime";
+    public AuditLoggingFilter(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 
-        // --- 1. PRE-ROUTE LOGGING (Request Phase) ---
-
-        // Store the start time to calculate latency later
-        exchange.getAttributes().put(START_TIME, System.currentTimeMillis());
-
-        final String requestId = exchange.getRequest().getId();
-        final String method = exchange.getRequest().getMethod().name();
-        final String uri = exchange.getRequest().getURI().getPath();
-        final String target = exchange.getRequest().getHeaders().getFirst("Host");
-
-        // Log the incoming request
-        log.info(" REQUEST [ID: {}] | {} {} | Target: {}",
-                requestId, method, uri, target);
-
+        // Sampled out requests pay nothing beyond this check
+        if (!auditLog.sample()) {
+            return chain.filter(exchange);
+        }
 
-        // --- 2. CHAIN EXECUTION AND POST-ROUTE LOGGING (Response Phase) ---
+        // Monotonic start time, kept in the closure instead of a boxed exchange attribute
+        final long startNanos = System.nanoTime();
 
-        // Proceed with the rest of the filter chain (which calls the downstream service)
+        // doFinally also covers errors and cancelled (client disconnected) requests
         return chain.filter(exchange)
-                // .then() executes the code AFTER the downstream service has returned
-                // and the filter chain is completing.
-                .then(Mono.fromRunnable(() -> {
-
-                    // Retrieve the execution time and status from the exchange
-                    Long startTime = exchange.getAttribute(START_TIME);
-                    long duration = startTime != null ? (System.currentTimeMillis() - startTime) : -1;
-
-                    // Safely get the status code, defaulting to 500 if null (e.g., error before response was set)
-                    int status = exchange.getResponse().getStatusCode() != null ?
-                            exchange.getResponse().getStatusCode().value() : 500;
-
-                    // Log the outgoing response
-                    log.info(" RESPONSE [ID: {}] | Status: {} | Latency: {}ms",
-                            requestId, status, duration);
-
-                }));
+                .doFinally(signal -> auditLog.record(exchange, startNanos));
     }
 
     /**
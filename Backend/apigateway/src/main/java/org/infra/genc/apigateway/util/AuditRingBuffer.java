@@ -0,0 +1,105 @@
+package org.infra.genc.apigateway.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated {@link AuditEvent} slots.
+ * Each slot has a sequence number telling producers whether it is free and the consumer
+ * whether it has been published; producers only contend on one CAS of the claim cursor and
+ * never block: when the ring is full, {@link #claim()} simply returns -1.
+ */
+public final class AuditRingBuffer {
+
+    private final AuditEvent[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong claimCursor = new AtomicLong();
+
+    // Only written by the single consumer thread
+    private volatile long consumerCursor;
+
+    public AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+        }
+        this.slots = new AuditEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new AuditEvent();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Claims the next free slot.
+     *
+     * @return the claimed position, or -1 when the ring is full
+     */
+    public long claim() {
+        long position = claimCursor.get();
+        while (true) {
+            long sequence = sequences.getAcquire(index(position));
+            long diff = sequence - position;
+            if (diff == 0) {
+                if (claimCursor.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = claimCursor.get();
+            } else if (diff < 0) {
+                return -1;
+            } else {
+                position = claimCursor.get();
+            }
+        }
+    }
+
+    public AuditEvent slot(long position) {
+        return slots[index(position)];
+    }
+
+    /**
+     * Makes a claimed slot visible to the consumer.
+     */
+    public void publish(long position) {
+        sequences.setRelease(index(position), position + 1);
+    }
+
+    /**
+     * Hands up to {@code maxEvents} published events to {@code sink} in order and frees their slots.
+     * Must only be called from the single consumer thread.
+     */
+    public int drain(Consumer<AuditEvent> sink, int maxEvents) {
+        int drained = 0;
+        while (drained < maxEvents) {
+            int index = index(consumerCursor);
+            if (sequences.getAcquire(index) != consumerCursor + 1) {
+                break;
+            }
+            AuditEvent event = slots[index];
+            sink.accept(event);
+            event.clear();
+            sequences.setRelease(index, consumerCursor + slots.length);
+            consumerCursor++;
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of claimed slots not yet drained.
+     */
+    public long backlog() {
+        return Math.max(0L, claimCursor.get() - consumerCursor);
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    private int index(long position) {
+        return (int) (position & mask);
+    }
+}
@@ -0,0 +1,24 @@
+package org.infra.genc.apigateway.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Current adaptive concurrency limits, in-flight calls and rejections per route.
+ */
+@Component
+@Endpoint(id = "concurrencylimits")
+@RequiredArgsConstructor
+public class ConcurrencyLimitEndpoint {
+
+    private final ConcurrencyLimiterRegistry registry;
+
+    @ReadOperation
+    public Map<String, Object> limits() {
+        return registry.summary();
+    }
+}
@@ -0,0 +1,85 @@
+package org.infra.genc.apigateway.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.infra.genc.apigateway.filter.AuthenticationFilter;
+import org.infra.genc.apigateway.filter.ResilienceFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds load per route with a fast 503 once the adaptive concurrency limit is reached.
+ * Authenticated requests on priority routes (checkout: cart and order) may use the full limit,
+ * everything else only its normal share, so browsing is shed before checkout.
+ * Ordered after the route filters (AuthenticationFilter, response cache) so that the caller is
+ * known and cache hits never count against the limit.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = 50;
+
+    private final ConcurrencyLimiterRegistry registry;
+    private final boolean enabled;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiterRegistry registry,
+                                  @Value("${genc.gateway.concurrency.enabled:true}") boolean enabled) {
+        this.registry = registry;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!enabled || route == null) {
+            return chain.filter(exchange);
+        }
+
+        AdaptiveConcurrencyLimit limit = registry.forRoute(route.getId());
+        boolean priority = registry.isPriorityRoute(route.getId())
+                && exchange.getAttribute(AuthenticationFilter.AUTH_USER_ID_ATTR) != null;
+        if (!limit.tryAcquire(priority)) {
+            log.debug("Shedding request on route {} (limit {}, in flight {})",
+                    route.getId(), limit.priorityCap(), limit.inFlight());
+            // Runs inside ResilienceFilter, which must not take the shed for an upstream failure
+            exchange.getAttributes().put(ResilienceFilter.GATEWAY_RESPONSE_ATTR, Boolean.TRUE);
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+            return response.setComplete();
+        }
+
+        final int inFlightAtStart = limit.inFlight();
+        final long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    limit.release();
+                    long elapsedNanos = System.nanoTime() - startNanos;
+                    // A timeout upstream of this filter cancels the call: it never completes on its own
+                    if (signal == SignalType.CANCEL) {
+                        limit.onCancel(elapsedNanos, inFlightAtStart);
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    limit.onSample(elapsedNanos, inFlightAtStart, dropped);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
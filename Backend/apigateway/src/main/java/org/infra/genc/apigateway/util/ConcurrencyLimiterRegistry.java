@@ -0,0 +1,93 @@
+package org.infra.genc.apigateway.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link AdaptiveConcurrencyLimit} per route id, created on first use.
+ * Limits, in-flight counts and rejections are published to Micrometer and to the
+ * concurrencylimits actuator endpoint.
+ */
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double normalShare;
+    private final Set<String> priorityRoutes;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(@Value("${genc.gateway.concurrency.initial-limit:20}") int initialLimit,
+                                      @Value("${genc.gateway.concurrency.min-limit:5}") int minLimit,
+                                      @Value("${genc.gateway.concurrency.max-limit:200}") int maxLimit,
+                                      @Value("${genc.gateway.concurrency.normal-share:0.8}") double normalShare,
+                                      @Value("${genc.gateway.concurrency.priority-routes:order-service,cart-service}") List<String> priorityRoutes,
+                                      MeterRegistry meterRegistry) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.normalShare = normalShare;
+        this.priorityRoutes = Set.copyOf(priorityRoutes);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdaptiveConcurrencyLimit forRoute(String routeId) {
+        AdaptiveConcurrencyLimit limit = limits.get(routeId);
+        return limit != null ? limit : limits.computeIfAbsent(routeId, this::create);
+    }
+
+    public boolean isPriorityRoute(String routeId) {
+        return priorityRoutes.contains(routeId);
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new TreeMap<>();
+        limits.forEach((routeId, limit) -> {
+            Map<String, Object> route = new LinkedHashMap<>();
+            route.put("limit", Math.round(limit.limit() * 100) / 100.0);
+            route.put("inFlight", limit.inFlight());
+            route.put("priorityCap", limit.priorityCap());
+            route.put("normalCap", limit.normalCap());
+            route.put("rejectedPriority", limit.rejectedPriority());
+            route.put("rejectedNormal", limit.rejectedNormal());
+            route.put("longRttMs", Duration.ofNanos(limit.longRttNanos()).toMillis());
+            route.put("lastRttMs", Duration.ofNanos(limit.lastRttNanos()).toMillis());
+            route.put("priorityRoute", isPriorityRoute(routeId));
+            summary.put(routeId, route);
+        });
+        return summary;
+    }
+
+    private AdaptiveConcurrencyLimit create(String routeId) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, normalShare);
+        Gauge.builder("gateway.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.rejected", limit, AdaptiveConcurrencyLimit::rejectedPriority)
+                .tag("route", routeId)
+                .tag("priority", "true")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.concurrency.rejected", limit, AdaptiveConcurrencyLimit::rejectedNormal)
+                .tag("route", routeId)
+                .tag("priority", "false")
+                .register(meterRegistry);
+        return limit;
+    }
+}
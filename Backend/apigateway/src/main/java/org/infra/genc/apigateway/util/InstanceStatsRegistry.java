@@ -0,0 +1,139 @@
+package org.infra.genc.apigateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live statistics per upstream instance, shared by the load balancers of all services:
+ * requests in flight, an EWMA of the response latency and an EWMA of the error rate.
+ * An instance whose error rate passes the threshold is ejected for a while and then given
+ * a fresh chance. Entries of instances that stop receiving traffic are dropped after an hour.
+ */
+@Component
+@Slf4j
+public class InstanceStatsRegistry {
+
+    private static final double LATENCY_ALPHA = 0.2;
+    private static final double ERROR_ALPHA = 0.1;
+
+    private final double errorRateThreshold;
+    private final long minRequests;
+    private final long ejectNanos;
+    private final Cache<String, InstanceStats> stats = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    public InstanceStatsRegistry(@Value("${genc.gateway.lb.error-rate-threshold:0.5}") double errorRateThreshold,
+                                 @Value("${genc.gateway.lb.min-requests:10}") long minRequests,
+                                 @Value("${genc.gateway.lb.eject-duration:PT30S}") Duration ejectDuration) {
+        this.errorRateThreshold = errorRateThreshold;
+        this.minRequests = minRequests;
+        this.ejectNanos = ejectDuration.toNanos();
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        return stats.get(key(instance), k -> new InstanceStats());
+    }
+
+    public void onStart(ServiceInstance instance) {
+        get(instance).inFlight.incrementAndGet();
+    }
+
+    /**
+     * @param latencyNanos time until the upstream answered, or a negative value if unknown
+     *                     (e.g. the client went away)
+     * @param failed       whether the call failed or returned a 5xx
+     */
+    public void onComplete(ServiceInstance instance, long latencyNanos, boolean failed) {
+        InstanceStats instanceStats = get(instance);
+        instanceStats.inFlight.decrementAndGet();
+        if (latencyNanos >= 0) {
+            instanceStats.recordLatency(latencyNanos);
+        }
+        double errorRate = instanceStats.recordOutcome(failed);
+        if (failed && errorRate > errorRateThreshold && instanceStats.requests.get() >= minRequests
+                && !instanceStats.isEjected(System.nanoTime())) {
+            instanceStats.eject(System.nanoTime() + ejectNanos, errorRateThreshold / 2);
+            log.warn("Ejecting {} for {}ms, error rate {}", key(instance),
+                    Duration.ofNanos(ejectNanos).toMillis(), String.format("%.2f", errorRate));
+        }
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    public static final class InstanceStats {
+
+        // Latency assumed for instances without samples yet, so that their score is not zero
+        private static final long DEFAULT_LATENCY_NANOS = Duration.ofMillis(1).toNanos();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong ewmaLatencyNanos = new AtomicLong();
+        private final AtomicLong errorRateBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+        private final AtomicLong requests = new AtomicLong();
+        // nanoTime values only compare by difference, so there is no "never" value for the deadline
+        private volatile boolean ejected;
+        private volatile long ejectedUntilNanos;
+
+        public int inFlight() {
+            return inFlight.get();
+        }
+
+        public long ewmaLatencyNanos() {
+            return ewmaLatencyNanos.get();
+        }
+
+        public double errorRate() {
+            return Double.longBitsToDouble(errorRateBits.get());
+        }
+
+        public boolean isEjected(long nowNanos) {
+            return ejected && nowNanos - ejectedUntilNanos < 0;
+        }
+
+        /**
+         * Expected cost of sending one more request: queue length times typical latency.
+         */
+        public double score() {
+            long latency = ewmaLatencyNanos.get();
+            return (double) (Math.max(inFlight.get(), 0) + 1) * (latency > 0 ? latency : DEFAULT_LATENCY_NANOS);
+        }
+
+        private void recordLatency(long sampleNanos) {
+            long current;
+            long updated;
+            do {
+                current = ewmaLatencyNanos.get();
+                updated = current == 0 ? sampleNanos : current + (long) ((sampleNanos - current) * LATENCY_ALPHA);
+            } while (!ewmaLatencyNanos.compareAndSet(current, Math.max(updated, 1L)));
+        }
+
+        private double recordOutcome(boolean failed) {
+            requests.incrementAndGet();
+            double sample = failed ? 1.0 : 0.0;
+            long currentBits;
+            double updated;
+            do {
+                currentBits = errorRateBits.get();
+                double current = Double.longBitsToDouble(currentBits);
+                updated = current + (sample - current) * ERROR_ALPHA;
+            } while (!errorRateBits.compareAndSet(currentBits, Double.doubleToRawLongBits(updated)));
+            return updated;
+        }
+
+        private void eject(long untilNanos, double resetErrorRate) {
+            ejectedUntilNanos = untilNanos;
+            ejected = true;
+            errorRateBits.set(Double.doubleToRawLongBits(resetErrorRate));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.infra.genc.apigateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * Bounded cache of JWT claims that have already passed signature verification.
+ * Entries are keyed by a SHA-256 digest of the raw token (so raw tokens are never held in memory)
+ * and expire together with the token, capped by a configurable maximum TTL.
+ * Hit, miss and eviction counts are published under the "gateway.jwt.claims" cache name.
+ */
+@Component
+@Slf4j
+public class JwtClaimsCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "gateway.jwt.claims";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final Cache<String, VerifiedToken> cache;
+
+    @Autowired
+    public JwtClaimsCache(JwtUtil jwtUtil,
+                          @Value("${genc.jwt.claims-cache.max-size:10000}") long maxSize,
+                          @Value("${genc.jwt.claims-cache.max-ttl:PT15M}") Duration maxTtl) {
+        this(jwtUtil, maxSize, maxTtl, Ticker.systemTicker());
+    }
+
+    public JwtClaimsCache(JwtUtil jwtUtil, long maxSize, Duration maxTtl, Ticker ticker) {
+        this.jwtUtil = jwtUtil;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the verified token, parsing and verifying it (and reducing its roles to a bitmask)
+     * only on a cache miss.
+     * Throws a JwtException when the token is malformed, tampered with or expired.
+     */
+    public VerifiedToken getVerifiedToken(String token) {
+        String key = digest(token);
+        VerifiedToken verified = cache.getIfPresent(key);
+        if (verified == null) {
+            verified = VerifiedToken.of(jwtUtil.extractAllClaims(token));
+            cache.put(key, verified);
+            log.debug("Verified and cached claims for subject {}", verified.subject());
+        }
+        return verified;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return HexFormat.of().formatHex(hash);
+    }
+
+    /**
+     * Expires each entry at the token's own "exp" claim, never later than the configured maximum TTL.
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long maxTtlNanos;
+
+        private TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken verified, long currentTime) {
+            Date expiresAt = verified.claims().getExpiration();
+            if (expiresAt == null) {
+                return maxTtlNanos;
+            }
+            long remainingNanos = Duration.ofMillis(expiresAt.getTime() - System.currentTimeMillis()).toNanos();
+            return Math.max(0L, Math.min(remainingNanos, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken verified, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
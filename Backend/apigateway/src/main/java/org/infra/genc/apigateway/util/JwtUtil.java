@@ -1,6 +1,7 @@
 package org.infra.genc.apigateway.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
@@ -9,22 +10,25 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 @Component
 @Slf4j
 public class JwtUtil {
-    @Value("${genc.jwt.secret}")
-    private String secret;
 
-    @Value("${genc.jwt.expiration:900000}")
-    private Long expiration;
+    private final SecretKey signingKey;
 
-    // Generate a SecretKey from the secret string
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    // JwtParser is immutable and thread-safe, so it is built once instead of per token
+    private final JwtParser jwtParser;
+
+    private final Long expiration;
+
+    public JwtUtil(@Value("${genc.jwt.secret}") String secret,
+                   @Value("${genc.jwt.expiration:900000}") Long expiration) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.expiration = expiration;
     }
 
     public String extractUsername(String token) {
@@ -40,18 +44,16 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Parses the token and verifies its signature in a single pass.
+     * Throws a JwtException (e.g. ExpiredJwtException) when the token is not acceptable.
+     */
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
 
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -62,7 +64,7 @@ public class JwtUtil {
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .issuer("genc_cohort")
                 .audience().add("GenC").and()
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -71,18 +73,13 @@ public class JwtUtil {
 
     public Boolean validateToken(String token) {
         try {
-            // This will throw if the signature is invalid
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-
-            // Then check expiration
-            return !isTokenExpired(token);
+            // Signature and expiration are both checked by the parser
+            extractAllClaims(token);
+            return true;
         } catch (Exception e) {
             log.error("Exception in validateToken for token {}: {}", token, e.getMessage());
             return false;
         }
     }
 
-}
\ No newline at end of file
+}
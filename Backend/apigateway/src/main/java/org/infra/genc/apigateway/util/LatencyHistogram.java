@@ -0,0 +1,170 @@
+package org.infra.genc.apigateway.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Constant-memory latency histogram with log-linear buckets (HdrHistogram-style): values are
+ * recorded in microseconds, each power of two is split into 16 linear sub-buckets, so any
+ * reported percentile is within about 3% of the true value, up to roughly 67 seconds.
+ * Counts are kept per minute in a ring of 16 slots, which gives rolling windows of up to
+ * 15 minutes. Recording is lock-free; a slot is cleared by the first writer of a new minute,
+ * so counts right at a minute boundary are approximate.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 25;
+    private static final long MAX_TRACKABLE_MICROS = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final int WINDOW_SLOTS = 16;
+    public static final int MAX_WINDOW_MINUTES = WINDOW_SLOTS - 1;
+
+    private final Slot[] slots = new Slot[WINDOW_SLOTS];
+    private final LongSupplier clockMillis;
+
+    public LatencyHistogram() {
+        this(System::currentTimeMillis);
+    }
+
+    public LatencyHistogram(LongSupplier clockMillis) {
+        this.clockMillis = clockMillis;
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0L), MAX_TRACKABLE_MICROS);
+        long minute = TimeUnit.MILLISECONDS.toMinutes(clockMillis.getAsLong());
+        Slot slot = slots[(int) (minute % WINDOW_SLOTS)];
+
+        long slotMinute = slot.minute.get();
+        if (slotMinute < minute && slot.minute.compareAndSet(slotMinute, minute)) {
+            slot.reset();
+        }
+        slot.counts.incrementAndGet(bucketIndex(micros));
+        slot.count.incrementAndGet();
+        slot.sumMicros.addAndGet(micros);
+        long max;
+        while (micros > (max = slot.maxMicros.get()) && !slot.maxMicros.compareAndSet(max, micros)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Merges the slots of the last {@code minutes} minutes, the current partial minute included.
+     */
+    public Snapshot snapshot(int minutes) {
+        if (minutes < 1 || minutes > MAX_WINDOW_MINUTES) {
+            throw new IllegalArgumentException("Window must be between 1 and " + MAX_WINDOW_MINUTES + " minutes");
+        }
+        long currentMinute = TimeUnit.MILLISECONDS.toMinutes(clockMillis.getAsLong());
+        long[] merged = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (Slot slot : slots) {
+            long slotMinute = slot.minute.get();
+            if (slotMinute > currentMinute - minutes && slotMinute <= currentMinute) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    merged[i] += slot.counts.get(i);
+                }
+                count += slot.count.get();
+                sum += slot.sumMicros.get();
+                max = Math.max(max, slot.maxMicros.get());
+            }
+        }
+        return new Snapshot(merged, count, sum, max);
+    }
+
+    static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Midpoint of the bucket, used as the reported value for everything counted in it.
+     */
+    static long bucketValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowerBound = (long) (SUB_BUCKETS + subBucket) << shift;
+        return lowerBound + ((1L << shift) >>> 1);
+    }
+
+    private static final class Slot {
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong minute = new AtomicLong(-1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        private void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0L);
+            }
+            count.set(0L);
+            sumMicros.set(0L);
+            maxMicros.set(0L);
+        }
+    }
+
+    /**
+     * Point-in-time merged view of a window. Values are in microseconds.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long maxMicros() {
+            return maxMicros;
+        }
+
+        public double meanMicros() {
+            return count == 0 ? 0.0 : (double) sumMicros / count;
+        }
+
+        public long percentileMicros(double percentile) {
+            if (count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketValue(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.infra.genc.apigateway.util;
+
+/**
+ * Per-request timing holder shared through an exchange attribute between
+ * {@link RouteLatencyFilter} and {@link UpstreamTimingFilter}.
+ */
+public final class LatencySample {
+
+    public static final String ATTRIBUTE = LatencySample.class.getName();
+
+    long upstreamNanos = -1;
+
+    public long upstreamNanos() {
+        return upstreamNanos;
+    }
+
+    /**
+     * For filters that call the upstream themselves instead of going through NettyRoutingFilter.
+     */
+    public void recordUpstream(long nanos) {
+        this.upstreamNanos = nanos;
+    }
+}
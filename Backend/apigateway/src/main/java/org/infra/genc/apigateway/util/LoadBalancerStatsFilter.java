@@ -0,0 +1,64 @@
+package org.infra.genc.apigateway.util;
+
+import org.infra.genc.apigateway.filter.HedgingFilter;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Feeds {@link InstanceStatsRegistry} with the outcome of every load-balanced call.
+ * Runs right after ReactiveLoadBalancerClientFilter has picked the instance, and uses
+ * doFinally so that cancelled requests still release their in-flight slot. Exchanges handled by
+ * {@link HedgingFilter} are counted as started here and completed there, since their response
+ * may come from another instance.
+ */
+@Component
+public class LoadBalancerStatsFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public LoadBalancerStatsFilter(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+
+        ServiceInstance instance = lbResponse.getServer();
+        statsRegistry.onStart(instance);
+        final long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (exchange.getAttribute(HedgingFilter.OUTCOME_RECORDED_ATTR) != null) {
+                        return;
+                    }
+                    if (signal == SignalType.CANCEL) {
+                        statsRegistry.onComplete(instance, -1L, false);
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean failed = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    statsRegistry.onComplete(instance, System.nanoTime() - startNanos, failed);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,70 @@
+package org.infra.genc.apigateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets for the gateway rate limiter.
+ * Each bucket is a single AtomicLong holding its theoretical arrival time (GCRA), so acquiring
+ * a token is one lock-free CAS. Buckets live in a concurrent map that evicts keys idle
+ * for longer than the configured timeout.
+ */
+@Component
+public class RateLimitBuckets {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final Ticker ticker;
+
+    @Autowired
+    public RateLimitBuckets(@Value("${genc.gateway.rate-limit.max-keys:100000}") long maxKeys,
+                            @Value("${genc.gateway.rate-limit.idle-timeout:PT10M}") Duration idleTimeout) {
+        this(maxKeys, idleTimeout, Ticker.systemTicker());
+    }
+
+    public RateLimitBuckets(long maxKeys, Duration idleTimeout, Ticker ticker) {
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes one token from the bucket identified by {@code key}.
+     *
+     * @param replenishRate tokens added per second
+     * @param burstCapacity maximum number of tokens the bucket can hold
+     * @return 0 when the request is allowed, otherwise the nanoseconds until a token is available
+     */
+    public long tryAcquire(String key, double replenishRate, int burstCapacity) {
+        long emissionInterval = (long) (TimeUnit.SECONDS.toNanos(1) / replenishRate);
+        long burstTolerance = emissionInterval * burstCapacity;
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long now = ticker.read();
+            long tat = bucket.get();
+            long newTat = Math.max(tat, now) + emissionInterval;
+            long allowAt = newTat - burstTolerance;
+            if (now < allowAt) {
+                return allowAt - now;
+            }
+            if (bucket.compareAndSet(tat, newTat)) {
+                return 0L;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,38 @@
+package org.infra.genc.apigateway.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Admin view of the gateway response cache.
+ * GET /actuator/responsecache shows its size, DELETE clears it and
+ * DELETE /actuator/responsecache/{routeId} clears a single route.
+ */
+@Component
+@Endpoint(id = "responsecache")
+@RequiredArgsConstructor
+public class ResponseCacheEndpoint {
+
+    private final ResponseCacheStore store;
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        return store.stats();
+    }
+
+    @DeleteOperation
+    public void invalidateAll() {
+        store.invalidateAll();
+    }
+
+    @DeleteOperation
+    public void invalidateRoute(@Selector String routeId) {
+        store.invalidateRoute(routeId);
+    }
+}
@@ -0,0 +1,163 @@
+package org.infra.genc.apigateway.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Size-bounded store for cached gateway responses, shared by every route that uses the
+ * ResponseCacheFilter. Entries are weighed by their body size, so the bound is in bytes,
+ * and each entry expires after the TTL of the route that stored it.
+ * The last good response of each key is also kept for a longer stale TTL, so routes whose
+ * upstream is failing can fall back to it.
+ */
+@Component
+@Slf4j
+public class ResponseCacheStore implements MeterBinder {
+
+    private static final String CACHE_NAME = "gateway.response";
+
+    // Rough per-entry overhead (key, headers, object headers) added to the body size
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    public record Key(String routeId, String uri) {
+    }
+
+    public record CachedResponse(int status, HttpHeaders headers, byte[] body, String etag, long ttlNanos) {
+    }
+
+    private final Cache<Key, CachedResponse> cache;
+    // Holds the same CachedResponse instances as the main cache, so bodies are not duplicated
+    private final Cache<Key, CachedResponse> staleCache;
+    private final long maxEntryBytes;
+
+    @Autowired
+    public ResponseCacheStore(@Value("${genc.gateway.response-cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${genc.gateway.response-cache.max-entry-bytes:1048576}") long maxEntryBytes,
+                              @Value("${genc.gateway.response-cache.stale-ttl:PT10M}") Duration staleTtl) {
+        this(maxBytes, maxEntryBytes, staleTtl, Ticker.systemTicker());
+    }
+
+    public ResponseCacheStore(long maxBytes, long maxEntryBytes, Duration staleTtl, Ticker ticker) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(ResponseCacheStore::weigh)
+                .expireAfter(new RouteTtlExpiry())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.staleCache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(ResponseCacheStore::weigh)
+                .expireAfterWrite(staleTtl)
+                .ticker(ticker)
+                .build();
+    }
+
+    private static int weigh(Key key, CachedResponse response) {
+        return response.body().length + key.uri().length() + ENTRY_OVERHEAD_BYTES;
+    }
+
+    public CachedResponse get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Last good response for the key even if its route TTL has passed, for fallbacks only.
+     */
+    public CachedResponse getStale(Key key) {
+        CachedResponse fresh = cache.getIfPresent(key);
+        return fresh != null ? fresh : staleCache.getIfPresent(key);
+    }
+
+    /**
+     * Stores the response unless its body exceeds the per-entry limit.
+     */
+    public void put(Key key, CachedResponse response) {
+        if (response.body().length > maxEntryBytes) {
+            log.debug("Response for {} is {} bytes, not cached", key.uri(), response.body().length);
+            return;
+        }
+        cache.put(key, response);
+        staleCache.put(key, response);
+    }
+
+    // Runs pending evictions now instead of on Caffeine's executor
+    public void cleanUp() {
+        cache.cleanUp();
+        staleCache.cleanUp();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        staleCache.invalidateAll();
+    }
+
+    public void invalidateRoute(String routeId) {
+        cache.asMap().keySet().removeIf(key -> key.routeId().equals(routeId));
+        staleCache.asMap().keySet().removeIf(key -> key.routeId().equals(routeId));
+    }
+
+    /**
+     * Entry count per route id, for the actuator endpoint.
+     */
+    public Map<String, Long> entriesByRoute() {
+        Map<String, Long> counts = new TreeMap<>();
+        cache.asMap().keySet().forEach(key -> counts.merge(key.routeId(), 1L, Long::sum));
+        return counts;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new TreeMap<>();
+        stats.put("entries", cache.estimatedSize());
+        stats.put("staleEntries", staleCache.estimatedSize());
+        stats.put("hitRate", cache.stats().hitRate());
+        stats.put("evictions", cache.stats().evictionCount());
+        stats.put("routes", entriesByRoute());
+        cache.policy().eviction().ifPresent(eviction -> {
+            stats.put("weightedSizeBytes", eviction.weightedSize().orElse(0L));
+            stats.put("maxBytes", eviction.getMaximum());
+        });
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Each entry carries the TTL of the route it was cached for; reads do not extend it.
+     */
+    private static final class RouteTtlExpiry implements Expiry<Key, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(Key key, CachedResponse response, long currentTime) {
+            return response.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, CachedResponse response, long currentTime, long currentDuration) {
+            return response.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(Key key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
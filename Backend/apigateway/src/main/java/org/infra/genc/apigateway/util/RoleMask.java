@@ -0,0 +1,71 @@
+package org.infra.genc.apigateway.util;
+
+/**
+ * Maps the role names carried in the "roles" claim to single bits, so that a role check
+ * becomes one AND instead of repeated string searches.
+ * Unknown role names are ignored and contribute no bits.
+ */
+public final class RoleMask {
+
+    public static final int NONE = 0;
+    public static final int ROLE_ADMIN = 1;
+    public static final int ROLE_CUSTOMER = 1 << 1;
+    public static final int ROLE_DEV = 1 << 2;
+
+    // Index i maps to bit (1 << i)
+    private static final String[] ROLE_NAMES = {"ROLE_ADMIN", "ROLE_CUSTOMER", "ROLE_DEV"};
+
+    private RoleMask() {
+    }
+
+    /**
+     * Parses a comma-separated role list (e.g. "ROLE_ADMIN,ROLE_CUSTOMER") into a bitmask.
+     */
+    public static int parse(String roles) {
+        if (roles == null || roles.isEmpty()) {
+            return NONE;
+        }
+        int mask = NONE;
+        int length = roles.length();
+        int start = 0;
+        while (start <= length) {
+            int end = roles.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            int from = start;
+            int to = end;
+            while (from < to && Character.isWhitespace(roles.charAt(from))) {
+                from++;
+            }
+            while (to > from && Character.isWhitespace(roles.charAt(to - 1))) {
+                to--;
+            }
+            mask |= bitOf(roles, from, to - from);
+            start = end + 1;
+        }
+        return mask;
+    }
+
+    public static int of(String... roleNames) {
+        int mask = NONE;
+        for (String roleName : roleNames) {
+            int bit = bitOf(roleName, 0, roleName.length());
+            if (bit == NONE) {
+                throw new IllegalArgumentException("Unknown role: " + roleName);
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    private static int bitOf(String source, int offset, int length) {
+        for (int i = 0; i < ROLE_NAMES.length; i++) {
+            String name = ROLE_NAMES[i];
+            if (name.length() == length && source.regionMatches(offset, name, 0, length)) {
+                return 1 << i;
+            }
+        }
+        return NONE;
+    }
+}
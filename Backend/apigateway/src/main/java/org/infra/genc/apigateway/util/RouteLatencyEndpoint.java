@@ -0,0 +1,31 @@
+package org.infra.genc.apigateway.util;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Rolling 1m/5m/15m latency percentiles per route.
+ * GET /actuator/routelatency lists every route, GET /actuator/routelatency/{routeId} a single one.
+ */
+@Component
+@Endpoint(id = "routelatency")
+@RequiredArgsConstructor
+public class RouteLatencyEndpoint {
+
+    private final RouteLatencyRegistry registry;
+
+    @ReadOperation
+    public Map<String, Object> routes() {
+        return registry.summary();
+    }
+
+    @ReadOperation
+    public Map<String, Object> route(@Selector String routeId) {
+        return registry.summary(routeId);
+    }
+}
@@ -0,0 +1,50 @@
+package org.infra.genc.apigateway.util;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the total gateway latency of every routed request into {@link RouteLatencyRegistry},
+ * together with the upstream time measured by {@link UpstreamTimingFilter}.
+ * Runs right after AuditLoggingFilter so that it wraps every other filter.
+ */
+@Component
+public class RouteLatencyFilter implements GlobalFilter, Ordered {
+
+    private final RouteLatencyRegistry registry;
+
+    public RouteLatencyFilter(RouteLatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        final long startNanos = System.nanoTime();
+        final LatencySample sample = new LatencySample();
+        exchange.getAttributes().put(LatencySample.ATTRIBUTE, sample);
+
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    registry.route(route.getId())
+                            .record(status != null ? status.value() : 0, System.nanoTime() - startNanos, sample.upstreamNanos);
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
@@ -0,0 +1,168 @@
+package org.infra.genc.apigateway.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Latency histograms per route: total time by response status class, plus the split between
+ * time spent waiting on the upstream service and time spent inside the gateway.
+ * Every recording also feeds a Micrometer timer ("gateway.route.latency", tagged by
+ * route, status and phase).
+ */
+@Component
+public class RouteLatencyRegistry {
+
+    public static final int[] WINDOWS_MINUTES = {1, 5, 15};
+
+    private static final String TIMER_NAME = "gateway.route.latency";
+    private static final String[] STATUS_CLASSES = {"none", "1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, RouteLatency> routes = new ConcurrentHashMap<>();
+
+    public RouteLatencyRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public RouteLatency route(String routeId) {
+        RouteLatency latency = routes.get(routeId);
+        return latency != null ? latency : routes.computeIfAbsent(routeId, RouteLatency::new);
+    }
+
+    /**
+     * Percentile summary of every route for each rolling window, in milliseconds.
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new TreeMap<>();
+        routes.forEach((routeId, latency) -> summary.put(routeId, latency.summary()));
+        return summary;
+    }
+
+    public Map<String, Object> summary(String routeId) {
+        RouteLatency latency = routes.get(routeId);
+        return latency != null ? latency.summary() : Map.of();
+    }
+
+    /**
+     * Upstream latency percentile of a route over the given window, or -1 when fewer than
+     * {@code minSamples} calls were recorded.
+     */
+    public long upstreamPercentileNanos(String routeId, double percentile, int windowMinutes, long minSamples) {
+        RouteLatency latency = routes.get(routeId);
+        if (latency == null) {
+            return -1L;
+        }
+        LatencyHistogram.Snapshot snapshot = latency.upstream.histogram.snapshot(windowMinutes);
+        if (snapshot.count() < minSamples) {
+            return -1L;
+        }
+        return TimeUnit.MICROSECONDS.toNanos(snapshot.percentileMicros(percentile));
+    }
+
+    private Timer timer(String routeId, String status, String phase) {
+        return Timer.builder(TIMER_NAME)
+                .description("Gateway request latency per route")
+                .tag("route", routeId)
+                .tag("status", status)
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    public final class RouteLatency {
+
+        private final String routeId;
+        private final AtomicReferenceArray<Recorder> totalByStatusClass = new AtomicReferenceArray<>(STATUS_CLASSES.length);
+        private final Recorder upstream;
+        private final Recorder gateway;
+
+        private RouteLatency(String routeId) {
+            this.routeId = routeId;
+            this.upstream = new Recorder(timer(routeId, "all", "upstream"));
+            this.gateway = new Recorder(timer(routeId, "all", "gateway"));
+        }
+
+        /**
+         * @param status        response status code, or 0 if none was set
+         * @param totalNanos    time from the gateway receiving the request until the chain completed
+         * @param upstreamNanos time spent waiting for the upstream response, or a negative value
+         *                      if the request never reached the upstream (e.g. cache hit or rejection)
+         */
+        public void record(int status, long totalNanos, long upstreamNanos) {
+            statusClass(status).record(totalNanos);
+            if (upstreamNanos >= 0) {
+                upstream.record(upstreamNanos);
+                gateway.record(Math.max(0L, totalNanos - upstreamNanos));
+            }
+        }
+
+        private Recorder statusClass(int status) {
+            int index = status >= 100 && status < 600 ? status / 100 : 0;
+            Recorder recorder = totalByStatusClass.get(index);
+            if (recorder == null) {
+                totalByStatusClass.compareAndSet(index, null, new Recorder(timer(routeId, STATUS_CLASSES[index], "total")));
+                recorder = totalByStatusClass.get(index);
+            }
+            return recorder;
+        }
+
+        private Map<String, Object> summary() {
+            Map<String, Object> total = new LinkedHashMap<>();
+            for (int i = 0; i < STATUS_CLASSES.length; i++) {
+                Recorder recorder = totalByStatusClass.get(i);
+                if (recorder != null) {
+                    total.put(STATUS_CLASSES[i], recorder.windows());
+                }
+            }
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("total", total);
+            summary.put("upstream", upstream.windows());
+            summary.put("gateway", gateway.windows());
+            return summary;
+        }
+    }
+
+    private static final class Recorder {
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final Timer timer;
+
+        private Recorder(Timer timer) {
+            this.timer = timer;
+        }
+
+        private void record(long nanos) {
+            histogram.recordNanos(nanos);
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private Map<String, Object> windows() {
+            Map<String, Object> windows = new LinkedHashMap<>();
+            for (int minutes : WINDOWS_MINUTES) {
+                LatencyHistogram.Snapshot snapshot = histogram.snapshot(minutes);
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("count", snapshot.count());
+                stats.put("meanMs", toMillis(snapshot.meanMicros()));
+                stats.put("p50Ms", toMillis(snapshot.percentileMicros(50)));
+                stats.put("p90Ms", toMillis(snapshot.percentileMicros(90)));
+                stats.put("p99Ms", toMillis(snapshot.percentileMicros(99)));
+                stats.put("p999Ms", toMillis(snapshot.percentileMicros(99.9)));
+                stats.put("maxMs", toMillis(snapshot.maxMicros()));
+                windows.put(minutes + "m", stats);
+            }
+            return windows;
+        }
+
+        private static double toMillis(double micros) {
+            return Math.round(micros / 10.0) / 100.0;
+        }
+    }
+}
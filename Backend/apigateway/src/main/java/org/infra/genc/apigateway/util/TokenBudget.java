@@ -0,0 +1,49 @@
+package org.infra.genc.apigateway.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget for extra upstream calls (hedges, retries). Every regular request deposits
+ * {@code ratio} of a token and every extra call withdraws a whole one, so extra calls stay
+ * below roughly {@code ratio} of the traffic and cannot multiply load during an overload.
+ * The balance is capped so that a quiet period does not build up an unlimited burst.
+ */
+public final class TokenBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public TokenBudget(double ratio, int maxTokens) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = maxTokens * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void deposit() {
+        long current;
+        do {
+            current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+        } while (!balance.compareAndSet(current, Math.min(maxBalance, current + depositPerRequest)));
+    }
+
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    public double tokens() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,35 @@
+package org.infra.genc.apigateway.util;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the time spent in the routing filter, i.e. from sending the request upstream until
+ * the upstream response headers arrive, and stores it in the request's {@link LatencySample}.
+ * Ordered just before NettyRoutingFilter, which runs at LOWEST_PRECEDENCE.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        LatencySample sample = exchange.getAttribute(LatencySample.ATTRIBUTE);
+        if (sample == null) {
+            return chain.filter(exchange);
+        }
+        final long startNanos = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> sample.upstreamNanos = System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,22 @@
+package org.infra.genc.apigateway.util;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * Claims of a token whose signature has been verified, together with its roles already
+ * reduced to a {@link RoleMask} bitmask.
+ */
+public record VerifiedToken(Claims claims, int roleMask) {
+
+    public static VerifiedToken of(Claims claims) {
+        return new VerifiedToken(claims, RoleMask.parse(claims.get("roles", String.class)));
+    }
+
+    public String subject() {
+        return claims.getSubject();
+    }
+
+    public String roles() {
+        return claims.get("roles", String.class);
+    }
+}
@@ -0,0 +1,85 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.AdaptiveConcurrencyLimit;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void testOnSample_growsWhileLatencyIsStable() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 200, 0.8);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASELINE_RTT, (int) limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isGreaterThan(20);
+    }
+
+    @Test
+    void testOnSample_shrinksWhenLatencyInflates() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(50, 5, 200, 0.8);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASELINE_RTT, 50, false);
+        }
+        double before = limit.limit();
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(BASELINE_RTT * 5, (int) limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isLessThan(before);
+    }
+
+    @Test
+    void testOnSample_dropsBackOffAndRespectMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 200, 0.8);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(BASELINE_RTT, 20, true);
+        }
+
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void testOnCancel_slowerThanUsual_backsOff_earlierCancelIgnored() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 200, 0.8);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(BASELINE_RTT, 1, false);
+        }
+        double before = limit.limit();
+
+        limit.onCancel(BASELINE_RTT / 4, 1);
+        assertThat(limit.limit()).isEqualTo(before);
+
+        limit.onCancel(BASELINE_RTT * 10, 1);
+        assertThat(limit.limit()).isLessThan(before);
+    }
+
+    @Test
+    void testTryAcquire_priorityTrafficGetsHeadroom() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 5, 200, 0.8);
+
+        for (int i = 0; i < 8; i++) {
+            assertThat(limit.tryAcquire(false)).isTrue();
+        }
+        assertThat(limit.tryAcquire(false)).isFalse();
+
+        assertThat(limit.tryAcquire(true)).isTrue();
+        assertThat(limit.tryAcquire(true)).isTrue();
+        assertThat(limit.tryAcquire(true)).isFalse();
+
+        assertThat(limit.rejectedNormal()).isEqualTo(1);
+        assertThat(limit.rejectedPriority()).isEqualTo(1);
+
+        limit.release();
+        assertThat(limit.tryAcquire(true)).isTrue();
+    }
+}
@@ -0,0 +1,51 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.AuditRingBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AuditRingBufferTest {
+
+    @Test
+    void testClaim_returnsMinusOneWhenFull() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            long position = ring.claim();
+            assertThat(position).isEqualTo(i);
+            ring.publish(position);
+        }
+
+        assertThat(ring.claim()).isEqualTo(-1);
+        assertThat(ring.backlog()).isEqualTo(4);
+    }
+
+    @Test
+    void testDrain_freesSlotsForReuse() {
+        AuditRingBuffer ring = new AuditRingBuffer(2);
+        ring.publish(ring.claim());
+        ring.publish(ring.claim());
+
+        assertThat(ring.drain(event -> { }, 10)).isEqualTo(2);
+        assertThat(ring.claim()).isEqualTo(2);
+    }
+
+    @Test
+    void testDrain_stopsAtUnpublishedSlot() {
+        AuditRingBuffer ring = new AuditRingBuffer(4);
+        long first = ring.claim();
+        long second = ring.claim();
+        ring.publish(second);
+
+        assertThat(ring.drain(event -> { }, 10)).isZero();
+
+        ring.publish(first);
+        assertThat(ring.drain(event -> { }, 10)).isEqualTo(2);
+    }
+
+    @Test
+    void testConstructor_rejectsNonPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer(6));
+    }
+}
@@ -0,0 +1,96 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, Duration.ofSeconds(5), 2, clock::get);
+
+    @Test
+    void testOnFailure_staysClosedBelowMinimumCalls() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testOnFailure_opensAtThresholdAndRejects() {
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void testTryAcquire_halfOpenAfterOpenDurationAndClosesOnSuccess() {
+        openBreaker();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureRate()).isZero();
+    }
+
+    @Test
+    void testOnFailure_reopensFromHalfOpen() {
+        openBreaker();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        breaker.tryAcquire();
+
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void testOnCancel_releasesHalfOpenTrial() {
+        openBreaker();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        breaker.tryAcquire();
+        breaker.tryAcquire();
+
+        breaker.onCancel();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testFailureRate_oldOutcomesLeaveTheWindow() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        for (int i = 0; i < 10; i++) {
+            breaker.onSuccess();
+        }
+
+        assertThat(breaker.failureRate()).isZero();
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
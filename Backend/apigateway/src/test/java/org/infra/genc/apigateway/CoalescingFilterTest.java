@@ -0,0 +1,188 @@
+package org.infra.genc.apigateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infra.genc.apigateway.filter.AuthenticationFilter;
+import org.infra.genc.apigateway.filter.CoalescingFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingFilterTest {
+
+    private static final String PRODUCT = "/api/v1/product-service/product/1";
+
+    private final CoalescingFilter factory = new CoalescingFilter(new SimpleMeterRegistry());
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    // Upstream responses are held back until the gate opens, so that requests overlap
+    private final Sinks.Empty<Void> gate = Sinks.empty();
+
+    @Test
+    void testGet_waitersShareTheLeadersResponse() {
+        GatewayFilter filter = filter(256, false);
+        MockServerWebExchange leader = get("7", "Bearer a", null);
+        MockServerWebExchange waiter = get("7", "Bearer a", null);
+        MockServerWebExchange another = get("7", "Bearer a", null);
+
+        CompletableFuture<Void> leading = filter.filter(leader, upstream()).toFuture();
+        CompletableFuture<Void> waiting = filter.filter(waiter, upstream()).toFuture();
+        CompletableFuture<Void> alsoWaiting = filter.filter(another, upstream()).toFuture();
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leading, waiting, alsoWaiting).join();
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(leader.getResponse().getHeaders().containsKey(CoalescingFilter.COALESCED_HEADER)).isFalse();
+        for (MockServerWebExchange shared : new MockServerWebExchange[]{waiter, another}) {
+            assertThat(shared.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(shared.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)).isEqualTo("true");
+            assertThat(shared.getResponse().getBodyAsString().block()).isEqualTo("{\"call\":1}");
+        }
+    }
+
+    @Test
+    void testGet_afterLeaderCompletes_startsANewFlight() {
+        GatewayFilter filter = filter(256, false);
+        gate.tryEmitEmpty();
+
+        filter.filter(get("7", "Bearer a", null), upstream()).block();
+        filter.filter(get("7", "Bearer a", null), upstream()).block();
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testGet_beyondMaxWaiters_callsUpstreamDirectly() {
+        GatewayFilter filter = filter(1, false);
+
+        CompletableFuture<Void> leading = filter.filter(get("7", "Bearer a", null), upstream()).toFuture();
+        MockServerWebExchange waiter = get("7", "Bearer a", null);
+        CompletableFuture<Void> waiting = filter.filter(waiter, upstream()).toFuture();
+        MockServerWebExchange overflow = get("7", "Bearer a", null);
+        CompletableFuture<Void> direct = filter.filter(overflow, upstream()).toFuture();
+
+        // The leader and the request over the bound are upstream; the single waiter is not
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leading, waiting, direct).join();
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(waiter.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)).isEqualTo("true");
+        assertThat(overflow.getResponse().getHeaders().containsKey(CoalescingFilter.COALESCED_HEADER)).isFalse();
+    }
+
+    @Test
+    void testGet_differentUsers_neverShared() {
+        GatewayFilter filter = filter(256, false);
+
+        MockServerWebExchange alice = get("7", "Bearer a", "USER");
+        MockServerWebExchange bob = get("8", "Bearer b", "USER");
+        CompletableFuture<Void> first = filter.filter(alice, upstream()).toFuture();
+        CompletableFuture<Void> second = filter.filter(bob, upstream()).toFuture();
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(first, second).join();
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(bob.getResponse().getHeaders().containsKey(CoalescingFilter.COALESCED_HEADER)).isFalse();
+    }
+
+    @Test
+    void testGet_notAuthenticatedByGateway_differentAuthorization_neverShared() {
+        GatewayFilter filter = filter(256, false);
+
+        CompletableFuture<Void> first = filter.filter(get(null, "Bearer a", null), upstream()).toFuture();
+        CompletableFuture<Void> second = filter.filter(get(null, "Bearer b", null), upstream()).toFuture();
+        CompletableFuture<Void> anonymous = filter.filter(get(null, null, null), upstream()).toFuture();
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(first, second, anonymous).join();
+
+        assertThat(upstreamCalls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void testGet_shareAcrossUsers_sharesOnlyWithinTheSameRoles() {
+        GatewayFilter filter = filter(256, true);
+
+        MockServerWebExchange admin = get("1", "Bearer a", "ADMIN");
+        MockServerWebExchange user = get("7", "Bearer b", "USER");
+        MockServerWebExchange otherUser = get("8", "Bearer c", "USER");
+        CompletableFuture<Void> first = filter.filter(admin, upstream()).toFuture();
+        CompletableFuture<Void> second = filter.filter(user, upstream()).toFuture();
+        CompletableFuture<Void> third = filter.filter(otherUser, upstream()).toFuture();
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(first, second, third).join();
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(user.getResponse().getHeaders().containsKey(CoalescingFilter.COALESCED_HEADER)).isFalse();
+        assertThat(otherUser.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void testGet_serverErrorNotShared_waiterCallsUpstreamItself() {
+        GatewayFilter filter = filter(256, false);
+        GatewayFilterChain failing = exchange -> {
+            upstreamCalls.incrementAndGet();
+            return gate.asMono().then(Mono.defer(() -> write(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE)));
+        };
+
+        MockServerWebExchange waiter = get("7", "Bearer a", null);
+        CompletableFuture<Void> leading = filter.filter(get("7", "Bearer a", null), failing).toFuture();
+        CompletableFuture<Void> waiting = filter.filter(waiter, failing).toFuture();
+        gate.tryEmitEmpty();
+        CompletableFuture.allOf(leading, waiting).join();
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+        assertThat(waiter.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(waiter.getResponse().getHeaders().containsKey(CoalescingFilter.COALESCED_HEADER)).isFalse();
+    }
+
+    private GatewayFilter filter(int maxWaiters, boolean shareAcrossUsers) {
+        CoalescingFilter.Config config = new CoalescingFilter.Config();
+        config.setRouteId("product-service");
+        config.setMaxWaiters(maxWaiters);
+        config.setShareAcrossUsers(shareAcrossUsers);
+        return factory.apply(config);
+    }
+
+    private GatewayFilterChain upstream() {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            return gate.asMono().then(Mono.defer(() -> write(exchange.getResponse(), HttpStatus.OK)));
+        };
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, HttpStatus status) {
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        DataBuffer body = response.bufferFactory()
+                .wrap(("{\"call\":" + upstreamCalls.get() + "}").getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+
+    private static MockServerWebExchange get(String userId, String authorization, String roles) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(PRODUCT);
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        if (roles != null) {
+            request.header(AuthenticationFilter.AUTH_USER_ROLES_HEADER, roles);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        if (userId != null) {
+            exchange.getAttributes().put(AuthenticationFilter.AUTH_USER_ID_ATTR, userId);
+        }
+        return exchange;
+    }
+}
@@ -0,0 +1,85 @@
+package org.infra.genc.apigateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infra.genc.apigateway.util.AdaptiveConcurrencyLimit;
+import org.infra.genc.apigateway.util.ConcurrencyLimitFilter;
+import org.infra.genc.apigateway.util.ConcurrencyLimiterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimitFilterTest {
+
+    private static final String ROUTE = "product-service";
+
+    private final ConcurrencyLimiterRegistry registry =
+            new ConcurrencyLimiterRegistry(20, 5, 200, 0.8, List.of(), new SimpleMeterRegistry());
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(registry, true);
+
+    @Test
+    void testFilter_hungUpstreamCancelledByTimeout_backsLimitOff() {
+        AdaptiveConcurrencyLimit limit = registry.forRoute(ROUTE);
+        GatewayFilterChain hung = exchange -> Mono.never();
+
+        for (int i = 0; i < 10; i++) {
+            // As ResilienceFilter does around the rest of the chain
+            assertThatThrownBy(() -> filter.filter(exchange(), hung).timeout(Duration.ofMillis(5)).block())
+                    .hasCauseInstanceOf(TimeoutException.class);
+        }
+
+        assertThat(limit.limit()).isLessThan(20);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void testFilter_healthyUpstream_doesNotBackOff() {
+        AdaptiveConcurrencyLimit limit = registry.forRoute(ROUTE);
+        GatewayFilterChain healthy = exchange -> {
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            return exchange.getResponse().setComplete();
+        };
+
+        for (int i = 0; i < 10; i++) {
+            filter.filter(exchange(), healthy).block();
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    @Test
+    void testFilter_limitReached_shedsWith503() {
+        AdaptiveConcurrencyLimit limit = registry.forRoute(ROUTE);
+        while (limit.tryAcquire(false)) {
+            // Fill the normal share
+        }
+        MockServerWebExchange shed = exchange();
+
+        filter.filter(shed, exchange -> Mono.error(new AssertionError("must not be called"))).block();
+
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/product-service/product"));
+        Route route = Route.async()
+                .id(ROUTE)
+                .uri("http://localhost")
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
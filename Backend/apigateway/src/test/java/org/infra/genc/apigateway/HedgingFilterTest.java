@@ -0,0 +1,172 @@
+package org.infra.genc.apigateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infra.genc.apigateway.filter.HedgingFilter;
+import org.infra.genc.apigateway.util.InstanceStatsRegistry;
+import org.infra.genc.apigateway.util.LoadBalancerStatsFilter;
+import org.infra.genc.apigateway.util.RouteLatencyRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * HedgingFilter behind LoadBalancerStatsFilter, as in the gateway, with the upstream instances
+ * stubbed at the WebClient exchange level.
+ */
+class HedgingFilterTest {
+
+    private static final String SERVICE = "product-service";
+    private static final String PATH = "/api/v1/product-service/product/1";
+
+    private final ServiceInstance primary = new DefaultServiceInstance("p", SERVICE, "primary", 8080, false);
+    private final ServiceInstance other = new DefaultServiceInstance("h", SERVICE, "other", 8080, false);
+    // Per host: how long the instance takes and what it answers
+    private final Map<String, Mono<ClientResponse>> upstream = new ConcurrentHashMap<>();
+
+    private final InstanceStatsRegistry statsRegistry = new InstanceStatsRegistry(0.5, 10, Duration.ofSeconds(30));
+    private final LoadBalancerStatsFilter statsFilter = new LoadBalancerStatsFilter(statsRegistry);
+    private final GatewayFilterChain notRouted = exchange -> Mono.error(new AssertionError("the filter must route itself"));
+
+    @Test
+    void testFilter_primaryAnswersBeforeHedgeDelay_noHedge() {
+        upstream.put("primary", answer(HttpStatus.OK, "primary", Duration.ZERO));
+        upstream.put("other", answer(HttpStatus.OK, "other", Duration.ZERO));
+        MockServerWebExchange exchange = exchange();
+
+        run(hedging(List.of(primary, other)), exchange).block();
+
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("primary");
+        assertThat(exchange.getResponse().getHeaders().containsKey(HedgingFilter.HEDGED_HEADER)).isFalse();
+        assertThat(statsRegistry.get(primary).inFlight()).isZero();
+        assertThat(statsRegistry.get(primary).ewmaLatencyNanos()).isPositive();
+        assertThat(statsRegistry.get(other).ewmaLatencyNanos()).isZero();
+    }
+
+    @Test
+    void testFilter_hedgeWins_primaryNotCreditedWithHedgesResponse() {
+        upstream.put("primary", answer(HttpStatus.OK, "primary", Duration.ofSeconds(5)));
+        upstream.put("other", answer(HttpStatus.OK, "other", Duration.ZERO));
+        MockServerWebExchange exchange = exchange();
+
+        run(hedging(List.of(primary, other)), exchange).block();
+
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("other");
+        assertThat(exchange.getResponse().getHeaders().getFirst(HedgingFilter.HEDGED_HEADER)).isEqualTo("hedge");
+        // The cancelled primary leaves no latency sample, and its slot is released exactly once
+        InstanceStatsRegistry.InstanceStats primaryStats = statsRegistry.get(primary);
+        assertThat(primaryStats.inFlight()).isZero();
+        assertThat(primaryStats.ewmaLatencyNanos()).isZero();
+        assertThat(statsRegistry.get(other).inFlight()).isZero();
+        assertThat(statsRegistry.get(other).ewmaLatencyNanos()).isPositive();
+    }
+
+    @Test
+    void testFilter_primaryFailsThenHedgeAnswers_failureChargedToPrimary() {
+        upstream.put("primary", Mono.delay(Duration.ofMillis(50)).then(Mono.error(new IllegalStateException("primary down"))));
+        upstream.put("other", answer(HttpStatus.OK, "other", Duration.ofMillis(200)));
+        MockServerWebExchange exchange = exchange();
+
+        run(hedging(List.of(primary, other)), exchange).block();
+
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("other");
+        assertThat(statsRegistry.get(primary).inFlight()).isZero();
+        assertThat(statsRegistry.get(primary).errorRate()).isPositive();
+        assertThat(statsRegistry.get(other).errorRate()).isZero();
+    }
+
+    @Test
+    void testFilter_bothFail_propagatesPrimaryError() {
+        upstream.put("primary", Mono.delay(Duration.ofMillis(100)).then(Mono.error(new IllegalStateException("primary down"))));
+        upstream.put("other", Mono.error(new IllegalStateException("hedge down")));
+
+        assertThatThrownBy(() -> run(hedging(List.of(primary, other)), exchange()).block())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("primary down");
+        assertThat(statsRegistry.get(primary).inFlight()).isZero();
+        assertThat(statsRegistry.get(primary).errorRate()).isPositive();
+        assertThat(statsRegistry.get(other).errorRate()).isPositive();
+    }
+
+    @Test
+    void testFilter_primaryFailsWithNoInstanceToHedgeTo_propagatesPrimaryError() {
+        upstream.put("primary", Mono.error(new IllegalStateException("primary down")));
+
+        assertThatThrownBy(() -> run(hedging(List.of(primary)), exchange()).block())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("primary down");
+        assertThat(statsRegistry.get(primary).inFlight()).isZero();
+    }
+
+    private Mono<Void> run(GatewayFilter hedging, MockServerWebExchange exchange) {
+        return statsFilter.filter(exchange, ex -> hedging.filter(ex, notRouted));
+    }
+
+    @SuppressWarnings("unchecked")
+    private GatewayFilter hedging(List<ServiceInstance> instances) {
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(this::respond);
+        ServiceInstanceListSupplier supplier = mock(ServiceInstanceListSupplier.class);
+        when(supplier.get()).thenReturn(Flux.just(instances));
+        LoadBalancerClientFactory clientFactory = mock(LoadBalancerClientFactory.class);
+        when(clientFactory.getInstance(SERVICE, ServiceInstanceListSupplier.class)).thenReturn(supplier);
+        ObjectProvider<List<HttpHeadersFilter>> headersFilters = mock(ObjectProvider.class);
+        when(headersFilters.getIfAvailable()).thenReturn(List.of());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        HedgingFilter factory = new HedgingFilter(webClient, clientFactory, statsRegistry,
+                new RouteLatencyRegistry(meterRegistry), headersFilters, meterRegistry, 0.05, 20);
+        HedgingFilter.Config config = new HedgingFilter.Config();
+        config.setRouteId(SERVICE);
+        config.setMinDelay(Duration.ofMillis(1));
+        config.setMaxDelay(Duration.ofMillis(20));
+        return factory.apply(config);
+    }
+
+    private Mono<ClientResponse> respond(ClientRequest request) {
+        return upstream.getOrDefault(request.url().getHost(), Mono.error(new AssertionError("unexpected call")));
+    }
+
+    private static Mono<ClientResponse> answer(HttpStatus status, String body, Duration after) {
+        return Mono.delay(after).map(tick -> ClientResponse.create(status).body(body).build());
+    }
+
+    private MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH));
+        Route route = Route.async()
+                .id(SERVICE)
+                .uri("lb://" + SERVICE)
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR, URI.create("http://primary:8080" + PATH));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR, new DefaultResponse(primary));
+        return exchange;
+    }
+}
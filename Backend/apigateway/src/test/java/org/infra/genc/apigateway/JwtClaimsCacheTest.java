@@ -0,0 +1,96 @@
+package org.infra.genc.apigateway;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.infra.genc.apigateway.util.JwtClaimsCache;
+import org.infra.genc.apigateway.util.JwtUtil;
+import org.infra.genc.apigateway.util.RoleMask;
+import org.infra.genc.apigateway.util.VerifiedToken;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtClaimsCacheTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final JwtUtil jwtUtil = spy(new JwtUtil(SECRET, 900_000L));
+    private final JwtClaimsCache cache = new JwtClaimsCache(jwtUtil, 100, Duration.ofMinutes(15), clock::get);
+
+    @Test
+    void testGetVerifiedToken_parsesOnlyOnAMiss() {
+        String alice = token("alice", Duration.ofMinutes(10));
+        String bob = token("bob", Duration.ofMinutes(10));
+
+        VerifiedToken first = cache.getVerifiedToken(alice);
+        VerifiedToken second = cache.getVerifiedToken(alice);
+        cache.getVerifiedToken(bob);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.subject()).isEqualTo("alice");
+        assertThat(first.roleMask()).isEqualTo(RoleMask.ROLE_CUSTOMER);
+        verify(jwtUtil, times(1)).extractAllClaims(alice);
+        verify(jwtUtil, times(1)).extractAllClaims(bob);
+    }
+
+    @Test
+    void testGetVerifiedToken_entryExpiresWithTheToken() {
+        // "exp" has whole seconds, so the entry lives between 59 and 60 seconds
+        String token = token("alice", Duration.ofSeconds(60));
+        cache.getVerifiedToken(token);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(58));
+        cache.getVerifiedToken(token);
+        verify(jwtUtil, times(1)).extractAllClaims(token);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        cache.getVerifiedToken(token);
+        verify(jwtUtil, times(2)).extractAllClaims(token);
+    }
+
+    @Test
+    void testGetVerifiedToken_longLivedTokenCappedAtMaxTtl() {
+        String token = token("alice", Duration.ofHours(8));
+        cache.getVerifiedToken(token);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(14));
+        cache.getVerifiedToken(token);
+        verify(jwtUtil, times(1)).extractAllClaims(token);
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        cache.getVerifiedToken(token);
+        verify(jwtUtil, times(2)).extractAllClaims(token);
+    }
+
+    @Test
+    void testInvalidateAll_forcesVerificationAgain() {
+        String token = token("alice", Duration.ofMinutes(10));
+        cache.getVerifiedToken(token);
+
+        cache.invalidateAll();
+        cache.getVerifiedToken(token);
+
+        verify(jwtUtil, times(2)).extractAllClaims(token);
+    }
+
+    private static String token(String subject, Duration validFor) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(subject)
+                .claim("roles", "ROLE_CUSTOMER")
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + validFor.toMillis()))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,85 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.InstanceStatsRegistry;
+import org.infra.genc.apigateway.util.LatencyAwareLoadBalancer;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final String SERVICE_ID = "product-service";
+
+    // Two local instances of the same service on different ports
+    private final ServiceInstance fast = new DefaultServiceInstance("product-1", SERVICE_ID, "localhost", 8095, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("product-2", SERVICE_ID, "localhost", 8097, false);
+
+    private final InstanceStatsRegistry registry = new InstanceStatsRegistry(0.5, 5, Duration.ofSeconds(30));
+    private final LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(
+            ServiceInstanceListSuppliers.toProvider(SERVICE_ID, fast, slow), SERVICE_ID, registry);
+
+    @Test
+    void testChoose_prefersLowerLatencyInstance() {
+        for (int i = 0; i < 5; i++) {
+            complete(fast, 5, false);
+            complete(slow, 200, false);
+        }
+
+        assertThat(chooseMany(100).get(fast.getPort())).isEqualTo(100);
+    }
+
+    @Test
+    void testChoose_accountsForRequestsInFlight() {
+        complete(fast, 10, false);
+        complete(slow, 20, false);
+        // 10ms * (5 + 1) in flight is worse than 20ms * (0 + 1)
+        for (int i = 0; i < 5; i++) {
+            registry.onStart(fast);
+        }
+
+        assertThat(chooseMany(50).get(slow.getPort())).isEqualTo(50);
+    }
+
+    @Test
+    void testChoose_skipsEjectedInstance() {
+        for (int i = 0; i < 10; i++) {
+            complete(fast, 1, true);
+            complete(slow, 50, false);
+        }
+
+        assertThat(registry.get(fast).isEjected(System.nanoTime())).isTrue();
+        assertThat(chooseMany(50).get(slow.getPort())).isEqualTo(50);
+    }
+
+    @Test
+    void testChoose_allEjected_stillReturnsInstance() {
+        for (int i = 0; i < 10; i++) {
+            complete(fast, 1, true);
+            complete(slow, 1, true);
+        }
+
+        assertThat(loadBalancer.choose().block().hasServer()).isTrue();
+    }
+
+    private void complete(ServiceInstance instance, long millis, boolean failed) {
+        registry.onStart(instance);
+        registry.onComplete(instance, TimeUnit.MILLISECONDS.toNanos(millis), failed);
+    }
+
+    private Map<Integer, Integer> chooseMany(int times) {
+        Map<Integer, Integer> picks = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            ServiceInstance chosen = loadBalancer.choose().block().getServer();
+            picks.merge(chosen.getPort(), 1, Integer::sum);
+        }
+        return picks;
+    }
+}
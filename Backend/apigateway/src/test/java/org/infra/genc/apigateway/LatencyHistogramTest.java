@@ -0,0 +1,59 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LatencyHistogramTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.MINUTES.toMillis(1_000));
+    private final LatencyHistogram histogram = new LatencyHistogram(clock::get);
+
+    @Test
+    void testPercentiles_withinRelativeError() {
+        // 1ms .. 1000ms, uniformly
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(1);
+        assertThat(snapshot.count()).isEqualTo(1000);
+        assertThat((double) snapshot.percentileMicros(50)).isCloseTo(500_000, within(500_000 * 0.04));
+        assertThat((double) snapshot.percentileMicros(99)).isCloseTo(990_000, within(990_000 * 0.04));
+        assertThat(snapshot.maxMicros()).isEqualTo(1_000_000);
+        assertThat(snapshot.meanMicros()).isCloseTo(500_500, within(1.0));
+    }
+
+    @Test
+    void testSnapshot_rollsOffOldMinutes() {
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(3));
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertThat(histogram.snapshot(1).count()).isEqualTo(1);
+        assertThat(histogram.snapshot(5).count()).isEqualTo(2);
+
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(16));
+        histogram.recordNanos(TimeUnit.MILLISECONDS.toNanos(30));
+
+        assertThat(histogram.snapshot(15).count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSnapshot_emptyWindow() {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(15);
+        assertThat(snapshot.count()).isZero();
+        assertThat(snapshot.percentileMicros(99)).isZero();
+    }
+
+    @Test
+    void testSnapshot_rejectsWindowLongerThanRing() {
+        assertThrows(IllegalArgumentException.class, () -> histogram.snapshot(16));
+    }
+}
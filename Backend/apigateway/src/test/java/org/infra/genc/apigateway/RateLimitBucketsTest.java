@@ -0,0 +1,45 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.RateLimitBuckets;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitBucketsTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final RateLimitBuckets buckets = new RateLimitBuckets(1000, Duration.ofMinutes(10), clock::get);
+
+    @Test
+    void testTryAcquire_allowsBurstThenRejects() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(buckets.tryAcquire("user:1", 1, 5)).isZero();
+        }
+
+        long waitNanos = buckets.tryAcquire("user:1", 1, 5);
+        assertThat(waitNanos).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void testTryAcquire_refillsOverTime() {
+        for (int i = 0; i < 2; i++) {
+            buckets.tryAcquire("user:1", 2, 2);
+        }
+        assertThat(buckets.tryAcquire("user:1", 2, 2)).isPositive();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertThat(buckets.tryAcquire("user:1", 2, 2)).isZero();
+    }
+
+    @Test
+    void testTryAcquire_keysAreIndependent() {
+        assertThat(buckets.tryAcquire("user:1", 1, 1)).isZero();
+        assertThat(buckets.tryAcquire("user:1", 1, 1)).isPositive();
+        assertThat(buckets.tryAcquire("user:2", 1, 1)).isZero();
+    }
+}
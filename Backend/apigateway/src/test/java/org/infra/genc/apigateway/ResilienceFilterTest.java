@@ -0,0 +1,111 @@
+package org.infra.genc.apigateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.infra.genc.apigateway.filter.ResilienceFilter;
+import org.infra.genc.apigateway.util.AdaptiveConcurrencyLimit;
+import org.infra.genc.apigateway.util.ConcurrencyLimitFilter;
+import org.infra.genc.apigateway.util.ConcurrencyLimiterRegistry;
+import org.infra.genc.apigateway.util.ResponseCacheStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResilienceFilterTest {
+
+    private static final String ROUTE = "product-service";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResilienceFilter factory = new ResilienceFilter(
+            new ResponseCacheStore(1_000_000, 100_000, Duration.ofMinutes(10), System::nanoTime), meterRegistry);
+    private final ConcurrencyLimiterRegistry limiters =
+            new ConcurrencyLimiterRegistry(20, 5, 200, 0.8, List.of(), meterRegistry);
+    private final ConcurrencyLimitFilter concurrencyLimit = new ConcurrencyLimitFilter(limiters, true);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void testFilter_upstream503s_openTheBreaker() {
+        GatewayFilter filter = filter();
+        for (int i = 0; i < 20; i++) {
+            filter.filter(exchange(), upstream(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        }
+        int calls = upstreamCalls.get();
+
+        MockServerWebExchange rejected = exchange();
+        filter.filter(rejected, upstream(HttpStatus.OK)).block();
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(upstreamCalls.get()).isEqualTo(calls);
+    }
+
+    @Test
+    void testFilter_loadShedInsideTheChain_neitherRetriedNorCountedByTheBreaker() {
+        GatewayFilter filter = filter();
+        AdaptiveConcurrencyLimit limit = limiters.forRoute(ROUTE);
+        while (limit.tryAcquire(false)) {
+            // Fill the normal share, so that ConcurrencyLimitFilter sheds
+        }
+        AtomicInteger chainCalls = new AtomicInteger();
+        GatewayFilterChain shedding = exchange -> {
+            chainCalls.incrementAndGet();
+            return concurrencyLimit.filter(exchange, upstream(HttpStatus.OK));
+        };
+
+        for (int i = 0; i < 20; i++) {
+            MockServerWebExchange shed = exchange();
+            filter.filter(shed, shedding).block();
+            assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        assertThat(chainCalls.get()).isEqualTo(20);
+        assertThat(upstreamCalls.get()).isZero();
+
+        while (limit.inFlight() > 0) {
+            limit.release();
+        }
+        MockServerWebExchange admitted = exchange();
+        filter.filter(admitted, shedding).block();
+
+        assertThat(admitted.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    private GatewayFilter filter() {
+        ResilienceFilter.Config config = new ResilienceFilter.Config();
+        config.setRouteId(ROUTE);
+        config.setSlidingWindow(10);
+        config.setMinimumCalls(5);
+        config.setMaxRetries(1);
+        return factory.apply(config);
+    }
+
+    private GatewayFilterChain upstream(HttpStatus status) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(status);
+            return exchange.getResponse().setComplete();
+        };
+    }
+
+    private static MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/product-service/product/1"));
+        Route route = Route.async()
+                .id(ROUTE)
+                .uri("http://localhost")
+                .predicate(e -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,143 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.filter.ResponseCacheFilter;
+import org.infra.genc.apigateway.util.ResponseCacheStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.RewritePathGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private static final String PRODUCT = "/api/v1/product-service/product/1";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final ResponseCacheStore store = new ResponseCacheStore(1_000_000, 100_000, Duration.ofMinutes(10), clock::get);
+    private final ResponseCacheFilter factory = new ResponseCacheFilter(store);
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @Test
+    void testGet_secondRequestServedFromCache() {
+        GatewayFilter filter = filter(List.of());
+
+        MockServerWebExchange first = get(filter, PRODUCT, new HttpHeaders(), null);
+        MockServerWebExchange second = get(filter, PRODUCT, new HttpHeaders(), null);
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+        assertThat(second.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void testGet_expiresAfterTtl() {
+        GatewayFilter filter = filter(List.of());
+        get(filter, PRODUCT, new HttpHeaders(), null);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        get(filter, PRODUCT, new HttpHeaders(), null);
+
+        assertThat(upstreamCalls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testGet_matchingIfNoneMatch_answers304() {
+        GatewayFilter filter = filter(List.of());
+        String etag = get(filter, PRODUCT, new HttpHeaders(), null).getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidated = get(filter, PRODUCT, new HttpHeaders(), etag);
+
+        assertThat(etag).isNotBlank();
+        assertThat(revalidated.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testGet_noStoreOrPrivateResponse_notCached() {
+        GatewayFilter filter = filter(List.of());
+        for (String cacheControl : List.of("no-store", "private, max-age=60")) {
+            HttpHeaders upstream = new HttpHeaders();
+            upstream.setCacheControl(cacheControl);
+            get(filter, PRODUCT, upstream, null);
+            get(filter, PRODUCT, upstream, null);
+        }
+
+        assertThat(upstreamCalls.get()).isEqualTo(4);
+    }
+
+    @Test
+    void testGet_pathOutsideAllowlist_notCached() {
+        GatewayFilter filter = filter(List.of("/api/v1/product-service/product/{id:[0-9]+}"));
+
+        get(filter, PRODUCT + "/availability", new HttpHeaders(), null);
+        get(filter, PRODUCT + "/availability", new HttpHeaders(), null);
+        get(filter, "/api/v1/product-service/product/batch", new HttpHeaders(), null);
+        get(filter, "/api/v1/product-service/product/batch", new HttpHeaders(), null);
+        assertThat(upstreamCalls.get()).isEqualTo(4);
+
+        get(filter, PRODUCT, new HttpHeaders(), null);
+        get(filter, PRODUCT, new HttpHeaders(), null);
+        assertThat(upstreamCalls.get()).isEqualTo(5);
+    }
+
+    @Test
+    void testGet_allowlistMatchedAfterRewritePath() {
+        // As configured on the product-service route, where the rewrite leaves a double slash
+        RewritePathGatewayFilterFactory.Config rewrite = new RewritePathGatewayFilterFactory.Config()
+                .setRegexp("/api/v1/product-service(?<segment>/?.*)")
+                .setReplacement("/api/v1/product-service/${segment}");
+        GatewayFilter rewritePath = new RewritePathGatewayFilterFactory().apply(rewrite);
+        GatewayFilter cache = filter(List.of("/api/v1/product-service/product/{id:[0-9]+}"));
+        GatewayFilter routed = (exchange, chain) -> rewritePath.filter(exchange, ex -> cache.filter(ex, chain));
+
+        MockServerWebExchange first = get(routed, PRODUCT, new HttpHeaders(), null);
+        MockServerWebExchange second = get(routed, PRODUCT, new HttpHeaders(), null);
+
+        assertThat(upstreamCalls.get()).isEqualTo(1);
+        assertThat(first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+    }
+
+    private GatewayFilter filter(List<String> paths) {
+        ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+        config.setTtl(Duration.ofSeconds(30));
+        config.setPaths(paths);
+        return factory.apply(config);
+    }
+
+    private MockServerWebExchange get(GatewayFilter filter, String path, HttpHeaders upstreamHeaders, String ifNoneMatch) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path);
+        if (ifNoneMatch != null) {
+            request.ifNoneMatch(ifNoneMatch);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, upstream(upstreamHeaders)).block();
+        return exchange;
+    }
+
+    private GatewayFilterChain upstream(HttpHeaders headers) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().addAll(headers);
+            byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.ResponseCacheStore;
+import org.infra.genc.apigateway.util.ResponseCacheStore.CachedResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheStoreTest {
+
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final ResponseCacheStore store = new ResponseCacheStore(10_000, 2_000, Duration.ofMinutes(10), clock::get);
+
+    @Test
+    void testGet_expiresAfterRouteTtlButStaysAvailableAsStale() {
+        ResponseCacheStore.Key key = key("/product/1");
+        store.put(key, response(100));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertThat(store.get(key)).isNotNull();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(store.get(key)).isNull();
+        assertThat(store.getStale(key)).isNotNull();
+
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        assertThat(store.getStale(key)).isNull();
+    }
+
+    @Test
+    void testPut_evictsToStayWithinMaxBytes() {
+        for (int i = 0; i < 50; i++) {
+            store.put(key("/product/" + i), response(1_000));
+        }
+        store.cleanUp();
+
+        assertThat((Long) store.stats().get("weightedSizeBytes")).isLessThanOrEqualTo(10_000L);
+        assertThat((Long) store.stats().get("entries")).isLessThan(50L);
+    }
+
+    @Test
+    void testPut_entryOverMaxEntryBytes_notCached() {
+        ResponseCacheStore.Key key = key("/product/big");
+
+        store.put(key, response(2_001));
+
+        assertThat(store.get(key)).isNull();
+        assertThat(store.getStale(key)).isNull();
+    }
+
+    @Test
+    void testInvalidateRoute_leavesOtherRoutes() {
+        ResponseCacheStore.Key product = key("/product/1");
+        ResponseCacheStore.Key category = new ResponseCacheStore.Key("category-service", "/categories");
+        store.put(product, response(10));
+        store.put(category, response(10));
+
+        store.invalidateRoute("product-service");
+
+        assertThat(store.get(product)).isNull();
+        assertThat(store.get(category)).isNotNull();
+    }
+
+    private static ResponseCacheStore.Key key(String uri) {
+        return new ResponseCacheStore.Key("product-service", uri);
+    }
+
+    private static CachedResponse response(int bodyBytes) {
+        return new CachedResponse(200, new HttpHeaders(), new byte[bodyBytes], "\"etag\"", TTL_NANOS);
+    }
+}
@@ -0,0 +1,84 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.filter.RouteAuthorizationTable;
+import org.infra.genc.apigateway.filter.RouteAuthorizationTable.Access;
+import org.infra.genc.apigateway.filter.RouteValidator;
+import org.infra.genc.apigateway.util.RoleMask;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RouteAuthorizationTableTest {
+
+    private final RouteValidator validator = new RouteValidator();
+
+    @Test
+    void testResolve_openEndpointsArePublic() {
+        assertThat(validator.resolve("/api/v1/userservice/login").open()).isTrue();
+        assertThat(validator.resolve("/api/v1/userservice/register").open()).isTrue();
+        assertThat(validator.resolve("/eureka/apps/PRODUCT-SERVICE").open()).isTrue();
+    }
+
+    @Test
+    void testResolve_matchesWholeSegmentsOnly() {
+        assertThat(validator.resolve("/api/v1/userservice/loginx").open()).isFalse();
+        assertThat(validator.resolve("/api/v1/order-service/api/v1/userservice/login").open()).isFalse();
+    }
+
+    @Test
+    void testResolve_appliesRoleRulesByPrefix() {
+        Access analytics = validator.resolve("/api/v1/analytics-service/sales/daily");
+        assertThat(analytics.permits(RoleMask.parse("ROLE_ADMIN"))).isTrue();
+        assertThat(analytics.permits(RoleMask.parse("ROLE_CUSTOMER"))).isFalse();
+
+        Access cart = validator.resolve("/api/v1/cart-service/cart/7");
+        assertThat(cart.permits(RoleMask.parse("ROLE_DEV, ROLE_CUSTOMER"))).isTrue();
+        assertThat(cart.permits(RoleMask.parse("ROLE_DEV"))).isFalse();
+    }
+
+    @Test
+    void testResolve_productAdminEndpointsRequireAdmin() {
+        Access hotSku = validator.resolve("/api/v1/product-service/admin/hot-sku/7");
+        assertThat(hotSku.permits(RoleMask.parse("ROLE_ADMIN"))).isTrue();
+        assertThat(hotSku.permits(RoleMask.parse("ROLE_CUSTOMER"))).isFalse();
+        assertThat(validator.resolve("/api/v1/product-service//admin/hot-sku/7").permits(RoleMask.parse("ROLE_CUSTOMER")))
+                .isFalse();
+
+        Access product = validator.resolve("/api/v1/product-service/product/7");
+        assertThat(product.permits(RoleMask.parse("ROLE_CUSTOMER"))).isTrue();
+    }
+
+    @Test
+    void testResolve_unknownPathRequiresAnyAuthenticatedCaller() {
+        Access access = validator.resolve("/api/v1/unknown/thing");
+        assertThat(access.open()).isFalse();
+        assertThat(access.permits(RoleMask.NONE)).isTrue();
+    }
+
+    @Test
+    void testResolve_longestPrefixWins() {
+        RouteAuthorizationTable table = RouteAuthorizationTable.builder()
+                .rule("/api/v1/product-service", Access.requiring(RoleMask.ROLE_CUSTOMER))
+                .rule("/api/v1/product-service/admin", Access.requiring(RoleMask.ROLE_ADMIN))
+                .build();
+
+        assertThat(table.resolve("/api/v1/product-service/product/1").requiredRoles()).isEqualTo(RoleMask.ROLE_CUSTOMER);
+        assertThat(table.resolve("/api/v1/product-service/admin/stock").requiredRoles()).isEqualTo(RoleMask.ROLE_ADMIN);
+    }
+
+    @Test
+    void testBuilder_duplicateRuleRejected() {
+        RouteAuthorizationTable.Builder builder = RouteAuthorizationTable.builder()
+                .rule("/eureka", Access.PUBLIC);
+
+        assertThrows(IllegalStateException.class, () -> builder.rule("/eureka/", Access.PUBLIC));
+    }
+
+    @Test
+    void testRoleMask_ignoresUnknownRoles() {
+        assertThat(RoleMask.parse("ROLE_ADMIN,ROLE_UNKNOWN")).isEqualTo(RoleMask.ROLE_ADMIN);
+        assertThat(RoleMask.parse("")).isEqualTo(RoleMask.NONE);
+        assertThat(RoleMask.parse(null)).isEqualTo(RoleMask.NONE);
+    }
+}
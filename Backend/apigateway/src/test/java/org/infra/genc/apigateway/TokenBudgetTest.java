@@ -0,0 +1,44 @@
+package org.infra.genc.apigateway;
+
+import org.infra.genc.apigateway.util.TokenBudget;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBudgetTest {
+
+    @Test
+    void testTryWithdraw_startsFullAndRunsDry() {
+        TokenBudget budget = new TokenBudget(0.1, 3);
+
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    void testDeposit_tenRequestsEarnOneToken() {
+        TokenBudget budget = new TokenBudget(0.1, 1);
+        budget.tryWithdraw();
+
+        for (int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+    }
+
+    @Test
+    void testDeposit_cappedAtMaxTokens() {
+        TokenBudget budget = new TokenBudget(0.5, 2);
+
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        assertThat(budget.tokens()).isEqualTo(2.0);
+    }
+}
@@ -8,28 +8,41 @@ const UserProfileManagement = () => {
   const [users, setUsers] = useState([]);
   const [successMessage, setSuccessMessage] = useState("");
   const [loading, setLoading] = useState(true);
+  const [nextAfterId, setNextAfterId] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
-  useEffect(() => {
+  // Users are fetched a page at a time; nextAfterId is the cursor for the following page
+  const fetchUsers = (afterId) => {
     const user = JSON.parse(localStorage.getItem("user"));
     const token = user?.jwt;
 
-    axios
+    return axios
       .get("http://localhost:8081/api/v1/analytics-service/admin/users", {
+        params: { afterId, size: 100 },
         headers: {
           Authorization: `Bearer ${token}`,
         },
       })
       .then((response) => {
-        const userList = Array.isArray(response.data) ? response.data : [];
-        setUsers(userList);
-        setLoading(false);
+        const page = response.data || {};
+        const userList = Array.isArray(page.content) ? page.content : [];
+        setUsers((prev) => (afterId ? [...prev, ...userList] : userList));
+        setNextAfterId(page.nextAfterId ?? null);
       })
       .catch((error) => {
         console.error("Error fetching users:", error);
-        setLoading(false);
       });
+  };
+
+  useEffect(() => {
+    fetchUsers(null).finally(() => setLoading(false));
   }, []);
 
+  const handleLoadMore = () => {
+    setLoadingMore(true);
+    fetchUsers(nextAfterId).finally(() => setLoadingMore(false));
+  };
+
   const handleDelete = async (id) => {
     if (!window.confirm("Are you sure you want to delete this user?")) return;
 
@@ -121,8 +134,20 @@ const UserProfileManagement = () => {
           </div>
         </div>
 
+        {nextAfterId && (
+          <div className="mt-6 text-center">
+            <button
+              onClick={handleLoadMore}
+              disabled={loadingMore}
+              className="px-4 py-2 rounded-lg bg-teal-600 text-white hover:bg-teal-700 disabled:opacity-50 transition"
+            >
+              {loadingMore ? "Loading…" : "Load more"}
+            </button>
+          </div>
+        )}
+
         <div className="mt-6 text-center text-sm text-gray-500">
-          Total customer profiles: {users.length}
+          Customer profiles shown: {users.length}
         </div>
       </div>
     </div>
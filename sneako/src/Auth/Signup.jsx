@@ -1,4 +1,4 @@
-import { useState } from "react";
+import { useEffect, useState } from "react";
 import { useNavigate } from "react-router-dom";
 import Navbar from "../components/Navbar";
 import Footer from "../components/Footer";
@@ -13,8 +13,32 @@ function Signup() {
   const [confirmPassword, setConfirmPassword] = useState("");
   const [error, setError] = useState("");
   const [greet, setGreet] = useState(false);
+  const [usernameTaken, setUsernameTaken] = useState(false);
   const navigate = useNavigate();
 
+  // Live availability check, debounced so that typing does not fire a request per key
+  useEffect(() => {
+    const username = name.trim();
+    if (!username) {
+      setUsernameTaken(false);
+      return;
+    }
+    const controller = new AbortController();
+    const timer = setTimeout(() => {
+      axios
+        .get("http://localhost:8081/api/v1/user-service/username-available", {
+          params: { username },
+          signal: controller.signal,
+        })
+        .then((response) => setUsernameTaken(!response.data.available))
+        .catch(() => setUsernameTaken(false));
+    }, 300);
+    return () => {
+      clearTimeout(timer);
+      controller.abort();
+    };
+  }, [name]);
+
   // Default role always ROLE_CUSTOMER
   const selectedRole = "ROLE_CUSTOMER";
 
@@ -42,6 +66,11 @@ function Signup() {
       return;
     }
 
+    if (usernameTaken) {
+      setError("This name is already taken.");
+      return;
+    }
+
     const newUser = {
       username: name,
       phone,
@@ -117,6 +146,9 @@ function Signup() {
                   className="w-full border border-gray-600 bg-transparent rounded-lg px-3 py-2 focus:ring-2 focus:ring-red-500 focus:outline-none placeholder-gray-400"
                   required
                 />
+                {usernameTaken && (
+                  <p className="text-red-400 text-sm mt-1">This name is already taken.</p>
+                )}
               </div>
 
               {/* Email */}
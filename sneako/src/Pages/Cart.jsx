@@ -18,8 +18,9 @@ function Cart() {
     const token = user.jwt;
 
     try {
+      // One call: the cart service resolves product details in a single batched lookup
       const res = await axios.get(
-        `http://localhost:8081/api/v1/cart-service/cart/${userId}`,
+        `http://localhost:8081/api/v1/cart-service/cart/${userId}/view`,
         {
           headers: {
             Authorization: `Bearer ${token}`,
@@ -28,31 +29,13 @@ function Cart() {
       );
       const cart = res.data;
 
-      const enrichedItems = await Promise.all(
-        cart.cartItems.map(async (item) => {
-          try {
-            const productRes = await axios.get(
-              `http://localhost:8081/api/v1/product-service/product/${item.productId}`,
-              {
-                headers: {
-                  Authorization: `Bearer ${token}`,
-                },
-              }
-            );
-            const product = productRes.data;
-            return {
-              ...item,
-              name: product.productName,
-              image: product.imageUrl,
-              category: product.categoryName,
-              originalPrice: product.price,
-            };
-          } catch (err) {
-            console.error("Error fetching product for cart item:", err);
-            return item;
-          }
-        })
-      );
+      const enrichedItems = cart.cartItems.map((item) => ({
+        ...item,
+        name: item.productName,
+        image: item.imageUrl,
+        category: item.categoryName,
+        originalPrice: item.currentPrice ?? item.unitPrice,
+      }));
 
       setCartItems(enrichedItems);
     } catch (error) {
@@ -148,32 +131,29 @@ const handlePlaceOrder = async () => {
   const token = user.jwt;
 
   try {
-    for (const item of cartItems) {
-      //  Fetch current stock
-      const productRes = await axios.get(
-        `http://localhost:8081/api/v1/product-service/product/${item.productId}`,
-        {
-          headers: { Authorization: `Bearer ${token}` },
-        }
-      );
-      const currentStock = productRes.data.stockQuantity;
-
-      //  Calculate new stock
-      const newStock = currentStock - item.quantity;
-      if (newStock < 0) {
-        alert(`Insufficient stock for ${item.name}`);
-        return;
+    //  Hold stock for the whole cart in one call: every item or none (409 lists the shortfalls).
+    //  Checkout confirms the hold; if it is abandoned the hold expires and the stock goes back.
+    const reservation = await axios.post(
+      `http://localhost:8081/api/v1/product-service/product/stock/holds`,
+      {
+        items: cartItems.map((item) => ({
+          productId: item.productId,
+          quantity: item.quantity,
+        })),
+      },
+      {
+        headers: { Authorization: `Bearer ${token}` },
+        validateStatus: (status) => status === 201 || status === 409,
       }
-
-      //  Update stock
-      await axios.patch(
-        `http://localhost:8081/api/v1/product-service/product/${item.productId}/stock`,
-        null,
-        {
-          params: { quantity: item.quantity },
-          headers: { Authorization: `Bearer ${token}` },
-        }
+    );
+    if (!reservation.data.success) {
+      const names = reservation.data.shortfalls.map(
+        (shortfall) =>
+          cartItems.find((item) => item.productId === shortfall.productId)?.name ||
+          `product ${shortfall.productId}`
       );
+      alert(`Insufficient stock for ${names.join(", ")}`);
+      return;
     }
 
     //  Proceed to checkout
@@ -191,6 +171,7 @@ const handlePlaceOrder = async () => {
       state: {
         cartItems: enrichedItems,
         total: enrichedItems.reduce((sum, item) => sum + item.totalPrice, 0),
+        reservationId: reservation.data.reservationId,
       },
     });
   } catch (error) {
@@ -7,7 +7,7 @@ function CheckoutPage() {
   const navigate = useNavigate();
   const location = useLocation();
 
-  const { product, cartItems, total } = location.state || {};
+  const { product, cartItems, total, reservationId } = location.state || {};
 
   const [address, setAddress] = useState('');
   const [paymentType, setPaymentType] = useState('UPI');
@@ -45,10 +45,12 @@ function CheckoutPage() {
     setLoading(true);
     setError('');
 
-    try {
-      const user = JSON.parse(localStorage.getItem('user'));
-      const token = user?.jwt;
+    const user = JSON.parse(localStorage.getItem('user'));
+    const token = user?.jwt;
+    const holdUrl = `http://localhost:8081/api/v1/product-service/product/stock/holds/${reservationId}`;
+    let order = null;
 
+    try {
       if (!user?.id || !token) {
         setError('User not logged in. Please log in to place an order.');
         setLoading(false);
@@ -79,7 +81,15 @@ function CheckoutPage() {
         }
       });
 
-      const order = orderRes.data;
+      order = orderRes.data;
+
+      //  Turn the stock hold into a real decrement before taking the payment, so an expired
+      //  hold (404) cancels the order with nothing paid
+      if (reservationId) {
+        await axios.post(`${holdUrl}/confirm`, null, {
+          headers: { Authorization: `Bearer ${token}` }
+        });
+      }
 
       //  Create Payment
       await axios.post("http://localhost:8081/api/v1/order-service/payment", {
@@ -93,6 +103,7 @@ function CheckoutPage() {
           Authorization: `Bearer ${token}`
         }
       });
+
 if (!product && cartItems?.length > 0) {
   await Promise.all(
     cartItems.map(item =>
@@ -110,7 +121,19 @@ if (!product && cartItems?.length > 0) {
 
     } catch (err) {
       console.error("Error placing order:", err.response?.data || err.message);
-      setError('Failed to place order. Please try again.');
+      const holdExpired = err.response?.status === 404 && err.config?.url === `${holdUrl}/confirm`;
+      // Best effort: give the held stock back and cancel the order that could not be completed
+      if (reservationId && !holdExpired) {
+        axios.delete(holdUrl, { headers: { Authorization: `Bearer ${token}` } }).catch(() => {});
+      }
+      if (order) {
+        axios.put(`http://localhost:8081/api/v1/order-service/order/${order.orderId}`, { orderStatus: "Cancelled" }, {
+          headers: { Authorization: `Bearer ${token}` }
+        }).catch(() => {});
+      }
+      setError(holdExpired
+        ? 'Your reservation has expired. Please go back to your cart and try again.'
+        : 'Failed to place order. Please try again.');
     } finally {
       setLoading(false);
     }
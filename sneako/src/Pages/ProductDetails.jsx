@@ -89,41 +89,29 @@ function ProductDetails() {
   const token = user.jwt;
 
   try {
-    //  Fetch current stock
-    const res = await axios.get(
-      `http://localhost:8081/api/v1/product-service/product/${product.id}`,
+    // Hold 1 unit until checkout confirms it (409 when out of stock)
+    const res = await axios.post(
+      `http://localhost:8081/api/v1/product-service/product/stock/holds`,
+      { items: [{ productId: product.id, quantity: 1 }] },
       {
         headers: {
           Authorization: `Bearer ${token}`,
         },
+        validateStatus: (status) => status === 201 || status === 409,
       }
     );
-    const currentStock = res.data.stockQuantity;
-
-    //  Check stock
-    if (currentStock < 1) {
+    if (!res.data.success) {
       setMessage("Sorry, this product is out of stock.");
       return;
     }
 
-    // Reduce stock by 1
-    await axios.patch(
-      `http://localhost:8081/api/v1/product-service/product/${product.id}/stock`,
-      null,
-      {
-        params: { quantity: 1 },
-        headers: {
-          Authorization: `Bearer ${token}`,
-        },
-      }
-    );
-
     //  Proceed to checkout
     navigate("/checkout", {
       state: {
         product,
         size: selectedSize,
         quantity: 1,
+        reservationId: res.data.reservationId,
       },
     });
   } catch (err) {